@@ -0,0 +1,88 @@
+/* ConversionBenchmark.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load;
+
+import com.tideworks.data_load.bench.SyntheticParquet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Whole file conversion - Parquet input file to csv output file - of the synthetic
+ * schema shapes, via the columnar reader and via Avro records. Each operation is
+ * the conversion of one file (of {@code rowCount} rows).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ConversionBenchmark {
+  @Param({"NARROW", "WIDE", "DECIMAL", "TIMESTAMP"})
+  public String shape;
+
+  @Param({"columnar", "avro"})
+  public String reader;
+
+  @Param({"200000"})
+  public int rowCount;
+
+  @Param({"1"})
+  public int rowGroupJobs;
+
+  private Path workDirPath;
+  private File inputFile;
+  private String outputDir;
+  private ConversionOptions optns;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    LoggingLevel.getRootLogger().setLevel(ch.qos.logback.classic.Level.WARN);
+    workDirPath = Files.createTempDirectory("prq2csv-bench");
+    inputFile = workDirPath.resolve(shape.toLowerCase() + ".parquet").toFile();
+    SyntheticParquet.write(SyntheticParquet.Shape.of(shape), rowCount, 8 * 1024 * 1024,
+                           SyntheticParquet.DEFAULT_SEED, inputFile.toPath());
+    outputDir = Files.createDirectory(workDirPath.resolve("out")).toString();
+    optns = new ConversionOptions();
+    optns.timeZoneId = ZoneOffset.UTC;
+    optns.isAvroRecordReader = reader.equals("avro");
+    optns.rowGroupJobs = rowGroupJobs;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    try (final Stream<Path> paths = Files.walk(workDirPath)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  @Benchmark
+  public List<Path> fileToCsv() throws IOException {
+    return ParquetToCsv.processToOutput(optns, outputDir, inputFile);
+  }
+}
@@ -0,0 +1,112 @@
+/* TinyFilesBenchmark.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load;
+
+import com.tideworks.data_load.bench.SyntheticParquet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Conversion of a directory of many tiny Parquet files, where the per-file setup of
+ * the readers and writers - Hadoop configuration, Avro data model, codecs, buffers -
+ * costs more than the rows. Each operation converts every one of {@code fileCount}
+ * copies of a file of {@code rowCount} rows.
+ * <p>
+ * {@link #coldDirectory} is measured once per fresh JVM, so it includes the one-time
+ * setup of the process; {@link #warmDirectory} is the steady state of a long running
+ * process. Run against builds of different versions (the {@code parquet2csv.version}
+ * property of the pom) to compare them; {@code -prof gc} shows the per-file allocation.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TinyFilesBenchmark {
+  @Param({"columnar", "avro"})
+  public String reader;
+
+  @Param({"1000"})
+  public int fileCount;
+
+  @Param({"100"})
+  public int rowCount;
+
+  private Path workDirPath;
+  private File[] inputFiles;
+  private String outputDir;
+  private ConversionOptions optns;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    LoggingLevel.getRootLogger().setLevel(ch.qos.logback.classic.Level.WARN);
+    workDirPath = Files.createTempDirectory("prq2csv-bench");
+    final Path inputDirPath = Files.createDirectory(workDirPath.resolve("in"));
+    final Path firstPath = inputDirPath.resolve("tiny-0.parquet");
+    SyntheticParquet.write(SyntheticParquet.Shape.NARROW, rowCount, 8 * 1024 * 1024,
+                           SyntheticParquet.DEFAULT_SEED, firstPath);
+    inputFiles = new File[fileCount];
+    inputFiles[0] = firstPath.toFile();
+    for(int i = 1; i < fileCount; i++) {
+      inputFiles[i] = Files.copy(firstPath, inputDirPath.resolve("tiny-" + i + ".parquet")).toFile();
+    }
+    outputDir = Files.createDirectory(workDirPath.resolve("out")).toString();
+    optns = new ConversionOptions();
+    optns.timeZoneId = ZoneOffset.UTC;
+    optns.isAvroRecordReader = reader.equals("avro");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    try (final Stream<Path> paths = Files.walk(workDirPath)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  private int convertAll() throws IOException {
+    int outputCount = 0;
+    for(final File inputFile : inputFiles) {
+      outputCount += ParquetToCsv.processToOutput(optns, outputDir, inputFile).size();
+    }
+    return outputCount;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Fork(5)
+  @Warmup(iterations = 0)
+  @Measurement(iterations = 1)
+  public int coldDirectory() throws IOException {
+    return convertAll();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @Fork(1)
+  @Warmup(iterations = 3, time = 10)
+  @Measurement(iterations = 5, time = 10)
+  public int warmDirectory() throws IOException {
+    return convertAll();
+  }
+}
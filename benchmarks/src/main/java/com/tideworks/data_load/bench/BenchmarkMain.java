@@ -0,0 +1,36 @@
+/* BenchmarkMain.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the JMH benchmarks (as {@link org.openjdk.jmh.Main} does, taking the same
+ * options), with the results written as JSON to jmh-result.json unless a result
+ * format is specified - so that every run leaves a machine readable
+ * record to compare against the runs of other versions.
+ */
+public final class BenchmarkMain {
+  private static final String defaultResultFile = "jmh-result.json";
+
+  private BenchmarkMain() {}
+
+  public static void main(String[] args) throws Exception {
+    final List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+    if (!jmhArgs.contains("-rf")) {
+      jmhArgs.add("-rf");
+      jmhArgs.add("json");
+      if (!jmhArgs.contains("-rff")) {
+        jmhArgs.add("-rff");
+        jmhArgs.add(defaultResultFile);
+      }
+    }
+    org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+  }
+}
@@ -0,0 +1,177 @@
+/* SyntheticParquet.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.bench;
+
+import com.tideworks.data_load.util.ConversionContext;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.parquet.avro.AvroParquetWriter;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static com.tideworks.data_load.io.OutputFile.nioPathToOutputFile;
+
+/**
+ * Deterministic generator of the Parquet input files of the benchmarks - the same
+ * shape, row count and seed always produce the same rows, so results of different
+ * versions are measured against identical input.
+ */
+public final class SyntheticParquet {
+  public static final long DEFAULT_SEED = 20181001L;
+  private static final long baseEpochMillis = 1527811200000L; // 2018-06-01T00:00:00Z
+  private static final String[] terminalIds = { "T1", "T2", "T3", "T4", "T5", "T6", "T7", "T8" };
+
+  /** Schema shapes that stress different parts of the conversion. */
+  public enum Shape {
+    /** a handful of columns - per-row overhead dominates */
+    NARROW,
+    /** many columns of mixed types - per-column overhead dominates */
+    WIDE,
+    /** mostly decimal columns */
+    DECIMAL,
+    /** mostly timestamp columns */
+    TIMESTAMP;
+
+    public static Shape of(final String name) { return valueOf(name.toUpperCase()); }
+  }
+
+  private SyntheticParquet() {}
+
+  /** @return Avro schema of the shape - flat, as are the files the tool converts */
+  public static Schema schemaOf(final Shape shape) {
+    final SchemaBuilder.FieldAssembler<Schema> fields = SchemaBuilder.record("synthetic_" + shape.name().toLowerCase())
+          .namespace("com.tideworks.data_load.bench")
+          .fields()
+          .requiredLong("ID")
+          .requiredString("TERM_ID$");
+    switch (shape) {
+      case NARROW:
+        fields.optionalInt("QTY").requiredBoolean("ACTIVE");
+        break;
+      case WIDE:
+        for(int i = 0; i < 48; i++) {
+          switch (i % 6) {
+            case 0: fields.requiredLong("L" + i); break;
+            case 1: fields.optionalDouble("D" + i); break;
+            case 2: fields.requiredString("S" + i); break;
+            case 3: fields.requiredInt("I" + i); break;
+            case 4: fields.name("TS" + i).type(timestampMillis()).noDefault(); break;
+            default: fields.name("U" + i).type(uuid()).noDefault(); break;
+          }
+        }
+        break;
+      case DECIMAL:
+        for(int i = 0; i < 12; i++) {
+          fields.name("AMT" + i).type(decimal(18, 4)).noDefault();
+        }
+        break;
+      case TIMESTAMP:
+        for(int i = 0; i < 12; i++) {
+          fields.name("TS" + i).type(timestampMillis()).noDefault();
+        }
+        break;
+    }
+    return fields.endRecord();
+  }
+
+  private static Schema timestampMillis() {
+    return LogicalTypes.timestampMillis().addToSchema(Schema.create(Schema.Type.LONG));
+  }
+
+  private static Schema decimal(final int precision, final int scale) {
+    return LogicalTypes.decimal(precision, scale).addToSchema(Schema.create(Schema.Type.BYTES));
+  }
+
+  private static Schema uuid() {
+    return LogicalTypes.uuid().addToSchema(Schema.create(Schema.Type.STRING));
+  }
+
+  /**
+   * Writes a Parquet file of generated rows.
+   *
+   * @param shape schema shape of the file
+   * @param rowCount number of rows
+   * @param rowGroupSize row group size (in bytes) - small enough for a file to have several
+   * @param seed seed of the generated values
+   * @param file file written (overwritten if it exists)
+   * @throws IOException
+   */
+  public static void write(final Shape shape, final int rowCount, final int rowGroupSize, final long seed,
+                           final Path file) throws IOException
+  {
+    final Schema schema = schemaOf(shape);
+    final List<Schema.Field> fields = schema.getFields();
+    final Random random = new Random(seed);
+    final ConversionContext context = ConversionContext.get();
+    try (final ParquetWriter<GenericData.Record> writer = AvroParquetWriter
+          .<GenericData.Record>builder(nioPathToOutputFile(file))
+          .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+          .withRowGroupSize(rowGroupSize)
+          .withPageSize(128 * 1024)
+          .withSchema(schema)
+          .withConf(context.newConfiguration())
+          .withCompressionCodec(CompressionCodecName.GZIP)
+          .withDataModel(context.getGenericData())
+          .build())
+    {
+      for(long id = 1; id <= rowCount; id++) {
+        final GenericData.Record record = new GenericData.Record(schema);
+        record.put(0, id);
+        record.put(1, terminalIds[random.nextInt(terminalIds.length)]);
+        for(int i = 2; i < fields.size(); i++) {
+          record.put(i, valueOf(fields.get(i).schema(), random));
+        }
+        writer.write(record);
+      }
+    }
+  }
+
+  private static Object valueOf(final Schema fieldSchema, final Random random) {
+    Schema valueSchema = fieldSchema;
+    if (fieldSchema.getType() == Schema.Type.UNION) {
+      if (random.nextInt(10) == 0) {
+        return null;
+      }
+      valueSchema = fieldSchema.getTypes().get(1); // as made by SchemaBuilder's optional fields
+    }
+    if (valueSchema.getLogicalType() instanceof LogicalTypes.TimestampMillis) {
+      return baseEpochMillis + (long) (random.nextDouble() * 180 * 24 * 3600 * 1000);
+    }
+    if (valueSchema.getLogicalType() instanceof LogicalTypes.Decimal) {
+      final long unscaled = (long) ((random.nextDouble() - 0.5) * 2e12);
+      return ByteBuffer.wrap(BigInteger.valueOf(unscaled).toByteArray());
+    }
+    if (valueSchema.getLogicalType() != null) { // uuid
+      return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+    switch (valueSchema.getType()) {
+      case LONG:
+        return random.nextLong() >>> random.nextInt(64);
+      case INT:
+        return random.nextInt(100_000);
+      case DOUBLE:
+        return random.nextDouble() * 1e6;
+      case BOOLEAN:
+        return random.nextBoolean();
+      case STRING:
+        return Long.toString(random.nextLong() >>> 20, 36);
+      default:
+        throw new IllegalArgumentException("unsupported synthetic column type: " + valueSchema);
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/* ColumnFormatterBenchmark.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.csv;
+
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering of a column value into the csv row buffer, per column type - each
+ * operation is the formatting of one value (by the {@link ColumnFormatter} compiled
+ * for the column, as the Avro record path does for every field of every row).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ColumnFormatterBenchmark {
+  private static final int valueCount = 1024;
+
+  @Param({"int", "long", "double", "double-exact", "string", "decimal", "timestamp", "uuid", "nullable-long"})
+  public String type;
+
+  private ColumnFormatter formatter;
+  private Object[] values;
+  private final StringBuilder rowStrBuf = new StringBuilder(256);
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final Random random = new Random(20181001L);
+    Schema fieldSchema;
+    boolean isExactFloats = false;
+    values = new Object[valueCount];
+    switch (type) {
+      case "int":
+        fieldSchema = Schema.create(Schema.Type.INT);
+        Arrays.setAll(values, i -> random.nextInt());
+        break;
+      case "long":
+        fieldSchema = Schema.create(Schema.Type.LONG);
+        Arrays.setAll(values, i -> random.nextLong() >>> random.nextInt(64));
+        break;
+      case "double-exact":
+        isExactFloats = true;
+        // fall through
+      case "double":
+        fieldSchema = Schema.create(Schema.Type.DOUBLE);
+        Arrays.setAll(values, i -> random.nextDouble() * 1e6);
+        break;
+      case "string":
+        fieldSchema = Schema.create(Schema.Type.STRING);
+        Arrays.setAll(values, i -> Long.toString(random.nextLong() >>> 20, 36));
+        break;
+      case "decimal":
+        fieldSchema = LogicalTypes.decimal(18, 4).addToSchema(Schema.create(Schema.Type.BYTES));
+        Arrays.setAll(values, i -> ByteBuffer.wrap(
+              BigInteger.valueOf((long) ((random.nextDouble() - 0.5) * 2e12)).toByteArray()));
+        break;
+      case "timestamp":
+        fieldSchema = LogicalTypes.timestampMillis().addToSchema(Schema.create(Schema.Type.LONG));
+        Arrays.setAll(values, i -> 1527811200000L + (long) (random.nextDouble() * 180 * 24 * 3600 * 1000));
+        break;
+      case "uuid":
+        fieldSchema = LogicalTypes.uuid().addToSchema(Schema.create(Schema.Type.STRING));
+        Arrays.setAll(values, i -> new UUID(random.nextLong(), random.nextLong()).toString());
+        break;
+      case "nullable-long":
+        fieldSchema = Schema.createUnion(Arrays.asList(Schema.create(Schema.Type.NULL),
+                                                       Schema.create(Schema.Type.LONG)));
+        Arrays.setAll(values, i -> random.nextInt(10) == 0 ? null : random.nextLong());
+        break;
+      default:
+        throw new IllegalArgumentException("unknown column type: " + type);
+    }
+    formatter = ColumnFormatters.compile(new Schema.Field("V", fieldSchema, null, (Object) null),
+                                         ZoneOffset.UTC, isExactFloats);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(valueCount)
+  public int format() {
+    int length = 0;
+    for(final Object value : values) {
+      rowStrBuf.setLength(0);
+      formatter.format(value, rowStrBuf);
+      length += rowStrBuf.length();
+    }
+    return length;
+  }
+}
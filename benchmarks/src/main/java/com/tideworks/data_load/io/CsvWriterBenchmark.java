@@ -0,0 +1,164 @@
+/* CsvWriterBenchmark.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appending csv rows (as the {@link StringBuilder} row buffers they are formatted
+ * into, line ending included) to each of the csv writers - the JDK's
+ * {@link BufferedWriter} as the baseline, the deprecated {@link BufferedWriterExt},
+ * its successor {@link UnsynchronizedBufferedWriter} and the {@link BatchedCsvWriter}
+ * that the conversion writes through. The Writer based variants encode to UTF-8 via
+ * an {@link OutputStreamWriter}, so every variant writes the same bytes (checked on
+ * setup) to a sink that discards them, and only the writers' own cost is measured.
+ * Each operation is one row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CsvWriterBenchmark {
+  private static final int rowCount = 1024;
+
+  @Param({"64", "512", "4096"})
+  public int rowLength;
+
+  private StringBuilder[] rows;
+
+  private BufferedWriter bufferedWriter;
+  @SuppressWarnings("deprecation")
+  private BufferedWriterExt bufferedWriterExt;
+  private UnsynchronizedBufferedWriter unsynchronizedWriter;
+  private BatchedCsvWriter batchedCsvWriter;
+
+  private static final class NullOutputStream extends OutputStream {
+    @Override
+    public void write(int b) {}
+
+    @Override
+    public void write(@Nonnull byte[] b, int off, int len) {}
+  }
+
+  @SuppressWarnings("deprecation")
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    final Random random = new Random(20181001L);
+    rows = new StringBuilder[rowCount];
+    for(int i = 0; i < rowCount; i++) {
+      final StringBuilder row = new StringBuilder(rowLength);
+      while (row.length() < rowLength) {
+        row.append(random.nextInt(1_000_000)).append(",'").append(Long.toString(random.nextLong() >>> 24, 36))
+           .append("',");
+      }
+      row.setLength(rowLength - 1);
+      rows[i] = row.append('\n');
+    }
+
+    final byte[] expected = writeAll(out -> new BufferedWriter(utf8Writer(out), 8192));
+    if (!Arrays.equals(expected, writeAll(out -> new BufferedWriterExt(utf8Writer(out), 8192))) ||
+        !Arrays.equals(expected, writeAll(out -> new UnsynchronizedBufferedWriter(utf8Writer(out), 8192))) ||
+        !Arrays.equals(expected, writeAllBatched()))
+    {
+      throw new IllegalStateException("the csv writer variants do not write the same bytes");
+    }
+
+    bufferedWriter = new BufferedWriter(utf8Writer(new NullOutputStream()), 8192);
+    bufferedWriterExt = new BufferedWriterExt(utf8Writer(new NullOutputStream()), 8192);
+    unsynchronizedWriter = new UnsynchronizedBufferedWriter(utf8Writer(new NullOutputStream()), 8192);
+    batchedCsvWriter = new BatchedCsvWriter(new NullOutputStream());
+  }
+
+  private static Writer utf8Writer(final OutputStream out) {
+    return new OutputStreamWriter(out, StandardCharsets.UTF_8);
+  }
+
+  private interface WriterFactory {
+    Writer make(OutputStream out);
+  }
+
+  private byte[] writeAll(final WriterFactory writerFactory) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final Writer writer = writerFactory.make(bytes)) {
+      for(final StringBuilder row : rows) {
+        writer.append(row);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  private byte[] writeAllBatched() throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final BatchedCsvWriter writer = new BatchedCsvWriter(bytes);
+    try {
+      for(final StringBuilder row : rows) {
+        writer.writeRow(row);
+      }
+    } finally {
+      writer.close();
+    }
+    return bytes.toByteArray();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(rowCount)
+  public void bufferedWriter() throws IOException {
+    for(final StringBuilder row : rows) {
+      bufferedWriter.append(row);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(rowCount)
+  public void bufferedWriterExt() throws IOException {
+    for(final StringBuilder row : rows) {
+      bufferedWriterExt.append(row);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(rowCount)
+  public void unsynchronizedBufferedWriter() throws IOException {
+    for(final StringBuilder row : rows) {
+      unsynchronizedWriter.append(row);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(rowCount)
+  public void batchedCsvWriter() throws IOException {
+    for(final StringBuilder row : rows) {
+      batchedCsvWriter.writeRow(row);
+    }
+  }
+}
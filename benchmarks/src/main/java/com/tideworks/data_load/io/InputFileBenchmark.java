@@ -0,0 +1,134 @@
+/* InputFileBenchmark.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import com.tideworks.data_load.bench.SyntheticParquet;
+import org.apache.parquet.io.SeekableInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The read patterns of a Parquet input file: the footer read on opening it, a
+ * sequential scan (as reading all row groups does), scattered reads (as reading
+ * the column chunks of projected columns does) and a sequential scan served by
+ * the {@link Prefetcher}. The file is generated, then read from the page cache -
+ * so this measures the read path's own overhead rather than the storage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class InputFileBenchmark {
+  private static final int scatteredReadCount = 64;
+
+  @Param({"8192", "1048576"})
+  public int readSize;
+
+  @Param({"100000"})
+  public int rowCount;
+
+  private Path filePath;
+  private long fileLength;
+  private long[] scatteredPositions;
+  private ByteBuffer readBuf;
+  private Prefetcher prefetcher;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    filePath = Files.createTempFile("prq2csv-bench", ".parquet");
+    SyntheticParquet.write(SyntheticParquet.Shape.WIDE, rowCount, 8 * 1024 * 1024, SyntheticParquet.DEFAULT_SEED,
+                           filePath);
+    fileLength = Files.size(filePath);
+    final Random random = new Random(20181001L);
+    scatteredPositions = new long[scatteredReadCount];
+    for(int i = 0; i < scatteredReadCount; i++) {
+      scatteredPositions[i] = (long) (random.nextDouble() * Math.max(0, fileLength - readSize));
+    }
+    readBuf = ByteBuffer.allocate(readSize);
+    prefetcher = new Prefetcher(32L * 1024 * 1024);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(filePath);
+  }
+
+  @Benchmark
+  public int footerRead() throws IOException {
+    final org.apache.parquet.io.InputFile inputFile = InputFile.nioPathToInputFile(filePath);
+    try (final SeekableInputStream stream = inputFile.newStream()) {
+      final ByteBuffer tail = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+      stream.seek(fileLength - tail.capacity());
+      stream.readFully(tail);
+      final int footerLength = tail.getInt(0);
+      final ByteBuffer footer = ByteBuffer.allocate(footerLength);
+      stream.seek(fileLength - tail.capacity() - footerLength);
+      stream.readFully(footer);
+      return footer.position();
+    }
+  }
+
+  @Benchmark
+  public long sequentialRead() throws IOException {
+    return readAll(InputFile.nioPathToInputFile(filePath));
+  }
+
+  @Benchmark
+  public long scatteredRead() throws IOException {
+    final org.apache.parquet.io.InputFile inputFile = InputFile.nioPathToInputFile(filePath);
+    long total = 0;
+    try (final SeekableInputStream stream = inputFile.newStream()) {
+      for(final long position : scatteredPositions) {
+        readBuf.clear();
+        stream.seek(position);
+        stream.readFully(readBuf);
+        total += readBuf.position();
+      }
+    }
+    return total;
+  }
+
+  @Benchmark
+  public long prefetchedSequentialRead() throws IOException {
+    return readAll(prefetcher.nioPathToInputFile(filePath, Collections.singletonList(new long[] { 0, fileLength })));
+  }
+
+  private long readAll(final org.apache.parquet.io.InputFile inputFile) throws IOException {
+    long total = 0;
+    try (final SeekableInputStream stream = inputFile.newStream()) {
+      while (total < fileLength) {
+        readBuf.clear();
+        readBuf.limit((int) Math.min(readSize, fileLength - total));
+        stream.readFully(readBuf);
+        total += readBuf.position();
+      }
+    }
+    return total;
+  }
+}
@@ -0,0 +1,231 @@
+/* ConversionManifest.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Record of the input files converted so far, so that a rerun (after a failure, or
+ * for the next increment of a batch) only converts the input files that have not
+ * been - or have changed since.
+ * <p>
+ * The manifest is a file of JSON lines, one per converted input file: its path, size,
+ * modification time and a checksum of its footer, plus the output settings and the
+ * csv files the conversion produced. A line is appended once a conversion completes.
+ * An input file is skipped when it, and the output settings, match its entry and
+ * the csv files of the entry all still exist. On opening, the manifest is compacted
+ * to the latest entry of each input file.
+ */
+final class ConversionManifest implements Closeable {
+  private static final Logger log = LoggerFactory.getLogger(ConversionManifest.class.getSimpleName());
+  private static final ObjectMapper mapper = new ObjectMapper();
+  private static final int parquetTailLength = 8; // footer length, then the "PAR1" magic
+
+  /** The state of an input file, plus the settings its output is produced by. */
+  @SuppressWarnings({"unused", "WeakerAccess"})
+  static final class Entry implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private String input;
+    private long size;
+    private long modifiedTime;
+    private String footerChecksum;
+    private String settings;
+    private List<String> outputs;
+
+    public Entry() {} // to support serialization
+
+    public String getInput() { return input; }
+    public void setInput(String input) { this.input = input; }
+
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+
+    public long getModifiedTime() { return modifiedTime; }
+    public void setModifiedTime(long modifiedTime) { this.modifiedTime = modifiedTime; }
+
+    public String getFooterChecksum() { return footerChecksum; }
+    public void setFooterChecksum(String footerChecksum) { this.footerChecksum = footerChecksum; }
+
+    public String getSettings() { return settings; }
+    public void setSettings(String settings) { this.settings = settings; }
+
+    public List<String> getOutputs() { return outputs; }
+    public void setOutputs(List<String> outputs) { this.outputs = outputs; }
+
+    private boolean isSameInput(final Entry other) {
+      return input.equals(other.input) && size == other.size && modifiedTime == other.modifiedTime &&
+             Objects.equals(footerChecksum, other.footerChecksum) && Objects.equals(settings, other.settings);
+    }
+  }
+
+  private final Path manifestPath;
+  private final Map<String, Entry> entries;
+  private final Writer appender;
+
+  private ConversionManifest(Path manifestPath, Map<String, Entry> entries, Writer appender) {
+    this.manifestPath = manifestPath;
+    this.entries = entries;
+    this.appender = appender;
+  }
+
+  /**
+   * @param manifestPath manifest file - created if it doesn't exist
+   * @return the manifest, open for recording conversions
+   * @throws IOException
+   */
+  static ConversionManifest open(final Path manifestPath) throws IOException {
+    final Map<String, Entry> entries = new LinkedHashMap<>();
+    if (Files.exists(manifestPath)) {
+      try (final BufferedReader reader = Files.newBufferedReader(manifestPath, StandardCharsets.UTF_8)) {
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+          lineNumber++;
+          if (line.trim().isEmpty()) continue;
+          try {
+            final Entry entry = mapper.readValue(line, Entry.class);
+            entries.remove(entry.input); // so the compacted entries are in order of conversion
+            entries.put(entry.input, entry);
+          } catch (IOException e) {
+            // e.g., the last line of a run that was killed while appending it
+            log.warn("ignoring invalid manifest line {} of \"{}\": {}", lineNumber, manifestPath, e.getMessage());
+          }
+        }
+      }
+      final Path tempFilePath = manifestPath.resolveSibling("." + manifestPath.getFileName() + ".tmp");
+      try (final Writer writer = Files.newBufferedWriter(tempFilePath, StandardCharsets.UTF_8,
+                                                         CREATE, TRUNCATE_EXISTING, WRITE))
+      {
+        for(final Entry entry : entries.values()) {
+          writer.write(mapper.writeValueAsString(entry));
+          writer.write('\n');
+        }
+      }
+      Files.move(tempFilePath, manifestPath, StandardCopyOption.ATOMIC_MOVE);
+      log.debug("manifest has {} converted input files: \"{}\"", entries.size(), manifestPath);
+    }
+    return new ConversionManifest(manifestPath, entries,
+                                  Files.newBufferedWriter(manifestPath, StandardCharsets.UTF_8, CREATE, APPEND, WRITE));
+  }
+
+  /**
+   * @param inputFile Parquet input file
+   * @param settings the output settings (see {@link #outputSettings})
+   * @return the present state of the input file, as it would be entered into the manifest
+   * @throws IOException
+   */
+  static Entry inspect(final File inputFile, final String settings) throws IOException {
+    final Path inputPath = inputFile.toPath().toAbsolutePath().normalize();
+    final Entry entry = new Entry();
+    entry.input = inputPath.toString();
+    entry.settings = settings;
+    try (final FileChannel channel = FileChannel.open(inputPath, READ)) {
+      entry.size = channel.size();
+      entry.modifiedTime = Files.getLastModifiedTime(inputPath).toMillis();
+      if (entry.size >= parquetTailLength) {
+        final ByteBuffer tail = ByteBuffer.allocate(parquetTailLength);
+        readFully(channel, tail, entry.size - parquetTailLength);
+        final long footerLength = Integer.toUnsignedLong(Integer.reverseBytes(tail.getInt(0)));
+        final long footerStart = entry.size - parquetTailLength - footerLength;
+        final CRC32 crc = new CRC32();
+        if (footerStart >= 0) {
+          final ByteBuffer footer = ByteBuffer.allocate((int) footerLength);
+          readFully(channel, footer, footerStart);
+          crc.update(footer.array());
+        }
+        crc.update(tail.array());
+        entry.footerChecksum = Long.toHexString(crc.getValue());
+      }
+    }
+    return entry;
+  }
+
+  private static void readFully(final FileChannel channel, final ByteBuffer byteBuf, long position)
+        throws IOException
+  {
+    while (byteBuf.hasRemaining()) {
+      final int n = channel.read(byteBuf, position);
+      if (n < 0) {
+        throw new IOException("unexpected end of file reading Parquet footer");
+      }
+      position += n;
+    }
+  }
+
+  /**
+   * @return the settings that determine the csv output of an input file - a change of
+   *         them makes the prior conversion of a file out of date
+   */
+  static String outputSettings(final ConversionOptions optns, final String outputDir) {
+    return String.format("output=%s;compress=%s;tz=%s;exact-floats=%b;columns=%s;where=%s;max-rows=%d;max-bytes=%d",
+                         new File(outputDir).getAbsolutePath(), optns.compression.name().toLowerCase(),
+                         optns.timeZoneId, optns.isExactFloats,
+                         optns.columnNamesOptn.map(columnNames -> String.join(",", columnNames)).orElse(""),
+                         optns.whereClauseOptn.map(WhereClause::toString).orElse(""),
+                         optns.maxPartRows, optns.maxPartBytes);
+  }
+
+  /**
+   * @param inputState present state of an input file (see {@link #inspect})
+   * @return whether the input file has been converted as it is now, and its csv files are all there
+   */
+  synchronized boolean isUpToDate(final Entry inputState) {
+    final Entry entry = entries.get(inputState.input);
+    return entry != null && entry.isSameInput(inputState) &&
+           entry.outputs.stream().allMatch(output -> Files.isRegularFile(new File(output).toPath()));
+  }
+
+  /**
+   * Records the completed conversion of an input file.
+   *
+   * @param inputState state of the input file as inspected before its conversion
+   * @param outputs the csv files written
+   * @throws IOException
+   */
+  synchronized void record(final Entry inputState, final List<Path> outputs) throws IOException {
+    final List<String> outputPaths = new ArrayList<>(outputs.size());
+    outputs.forEach(output -> outputPaths.add(output.toAbsolutePath().normalize().toString()));
+    inputState.outputs = outputPaths;
+    appender.write(mapper.writeValueAsString(inputState));
+    appender.write('\n');
+    appender.flush();
+    entries.put(inputState.input, inputState);
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    appender.close();
+    log.debug("closed manifest: \"{}\"", manifestPath);
+  }
+}
@@ -0,0 +1,442 @@
+/* ConversionMetrics.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load;
+
+import com.tideworks.data_load.csv.PlanCache;
+import com.tideworks.data_load.io.BufferPool;
+import com.tideworks.data_load.util.MemoryBudget;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumentation of a run's conversions to csv - per input file and for the run
+ * as a whole: rows, bytes, row groups, allocation, and the time spent in each stage
+ * of the conversion.
+ * <p>
+ * The stage times are the sums, over the threads converting a file, of the time
+ * spent:
+ * <ul>
+ *   <li>io - reading the Parquet file (as seen by the converting thread - when read
+ *       ahead, the wait on the read ahead and the copy from it)</li>
+ *   <li>decode - decompressing and decoding the file's pages into rows or values
+ *       (the rest of the time spent reading, net of io)</li>
+ *   <li>format - rendering rows as csv text, and encoding it into the output batch;
+ *       when reading column by column, values are decoded as they are rendered, so
+ *       that decoding counts as formatting</li>
+ *   <li>write - compressing and writing out the csv output</li>
+ * </ul>
+ * Allocation is that of the converting threads (not of those compressing gzip
+ * blocks or reading ahead), as counted by the JVM's {@link ThreadMXBean}.
+ * <p>
+ * Only the run's totals are held in memory. The metrics of each file are spooled, as
+ * the file completes, to a temporary file beside the JSON file - then copied into the
+ * JSON file at the end of the run.
+ */
+final class ConversionMetrics {
+  private static final Logger log = LoggerFactory.getLogger(ConversionMetrics.class.getSimpleName());
+  private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+  private static final double nanosPerSec = 1e9;
+  private static final double bytesPerMB = 1024.0 * 1024.0;
+
+  /** Totals of a set of conversions - of one input file, or of the whole run. */
+  private static final class Totals {
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder rowGroups = new LongAdder();
+    private final LongAdder rowGroupsRead = new LongAdder();
+    private final LongAdder inputBytes = new LongAdder();
+    private final LongAdder inputBytesRead = new LongAdder();
+    private final LongAdder csvBytes = new LongAdder();
+    private final LongAdder outputBytes = new LongAdder();
+    private final LongAdder ioNanos = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+    private final LongAdder formatNanos = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    private void addTo(final Map<String, Object> json, final long wallNanos) {
+      final double wallSecs = Math.max(wallNanos, 1) / nanosPerSec;
+      json.put("wallMillis", TimeUnit.NANOSECONDS.toMillis(wallNanos));
+      json.put("rows", rows.sum());
+      json.put("rowGroups", rowGroups.sum());
+      json.put("rowGroupsRead", rowGroupsRead.sum());
+      json.put("inputBytes", inputBytes.sum());
+      json.put("inputBytesRead", inputBytesRead.sum());
+      json.put("csvBytes", csvBytes.sum());
+      json.put("outputBytes", outputBytes.sum());
+      json.put("rowsPerSec", Math.round(rows.sum() / wallSecs));
+      json.put("inputMBPerSec", round2(inputBytes.sum() / bytesPerMB / wallSecs));
+      json.put("csvMBPerSec", round2(csvBytes.sum() / bytesPerMB / wallSecs));
+      final Map<String, Object> stageMillis = new LinkedHashMap<>();
+      stageMillis.put("io", TimeUnit.NANOSECONDS.toMillis(ioNanos.sum()));
+      stageMillis.put("decode", TimeUnit.NANOSECONDS.toMillis(decodeNanos.sum()));
+      stageMillis.put("format", TimeUnit.NANOSECONDS.toMillis(formatNanos.sum()));
+      stageMillis.put("write", TimeUnit.NANOSECONDS.toMillis(writeNanos.sum()));
+      json.put("stageMillis", stageMillis);
+      json.put("allocatedBytes", allocatedBytes.sum());
+      json.put("allocationMBPerSec", round2(allocatedBytes.sum() / bytesPerMB / wallSecs));
+    }
+
+    // the share of each stage of the stage time total, e.g.: io 12%, decode 30%, format 41%, write 17%
+    private String stageShares() {
+      final long[] nanos = { ioNanos.sum(), decodeNanos.sum(), formatNanos.sum(), writeNanos.sum() };
+      final double total = Math.max(nanos[0] + nanos[1] + nanos[2] + nanos[3], 1);
+      return String.format("io %.0f%%, decode %.0f%%, format %.0f%%, write %.0f%%",
+                           100 * nanos[0] / total, 100 * nanos[1] / total,
+                           100 * nanos[2] / total, 100 * nanos[3] / total);
+    }
+  }
+
+  private static double round2(final double value) { return Math.round(value * 100) / 100.0; }
+
+  /** Metrics of the conversion of one input file. */
+  final class FileMetrics {
+    private final File inputFile;
+    private final long startNanos = System.nanoTime();
+    private final Totals totals = new Totals();
+
+    private FileMetrics(File inputFile) {
+      this.inputFile = inputFile;
+    }
+
+    /**
+     * @param rowGroupCount number of row groups of the file
+     * @param readRowGroupCount number of those that are read - i.e., not ruled out by their statistics
+     */
+    void setRowGroups(final int rowGroupCount, final int readRowGroupCount) {
+      totals.rowGroups.add(rowGroupCount);
+      runTotals.rowGroups.add(rowGroupCount);
+      totals.rowGroupsRead.add(readRowGroupCount);
+      runTotals.rowGroupsRead.add(readRowGroupCount);
+    }
+
+    private Totals runTotals() { return runTotals; }
+
+    /** @return meter of a segment of the file's conversion, as made by the thread that converts the segment */
+    SegmentMeter newSegment() { return new SegmentMeter(this); }
+
+    /**
+     * The conversion of the file has ended.
+     *
+     * @param outputs the csv files written (their sizes are the output bytes)
+     * @param isConverted whether the conversion succeeded
+     */
+    void completed(final List<Path> outputs, final boolean isConverted) {
+      final long wallNanos = System.nanoTime() - startNanos;
+      totals.inputBytes.add(inputFile.length());
+      runTotals.inputBytes.add(inputFile.length());
+      for(final Path output : outputs) {
+        try {
+          final long size = Files.size(output);
+          totals.outputBytes.add(size);
+          runTotals.outputBytes.add(size);
+        } catch (IOException ignore) {
+        }
+      }
+      (isConverted ? convertedCount : failedCount).incrementAndGet();
+      if (jsonFilePathOptn.isPresent()) {
+        final Map<String, Object> json = new LinkedHashMap<>();
+        json.put("input", inputFile.getPath());
+        json.put("converted", isConverted);
+        totals.addTo(json, wallNanos);
+        spoolFileJson(json);
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("{} rows in {} ms; stages: {}: \"{}\"", totals.rows.sum(),
+                  TimeUnit.NANOSECONDS.toMillis(wallNanos), totals.stageShares(), inputFile);
+      }
+    }
+  }
+
+  /**
+   * Metrics of a segment of a file's conversion - the rows written by one csv writer,
+   * on one thread. Not thread safe: the meter is only used by the thread converting
+   * the segment (the time and bytes are summed locally, then added to the file's
+   * totals when the segment is completed - save for the rows and bytes, which are
+   * added as they go so that progress can be reported).
+   */
+  static final class SegmentMeter {
+    private final FileMetrics fileMetrics;
+    private final long startAllocatedBytes = currentThreadAllocatedBytes();
+    private long ioNanos = 0;
+    private long writeNanos = 0;
+    private long formatNanos = 0;
+    private long workNanos = 0;
+    private long workWriteNanos = 0;
+    private long workStartNanos;
+    private long workStartWriteNanos;
+    private long formatStartNanos;
+    private long formatStartWriteNanos;
+
+    private SegmentMeter(FileMetrics fileMetrics) {
+      this.fileMetrics = fileMetrics;
+    }
+
+    /** Meters a read of the Parquet file (see {@link com.tideworks.data_load.io.IoMeter}). */
+    void read(final long nanos, final long byteCount) {
+      ioNanos += nanos;
+      if (byteCount > 0) {
+        fileMetrics.totals.inputBytesRead.add(byteCount);
+        fileMetrics.runTotals().inputBytesRead.add(byteCount);
+      }
+    }
+
+    /** Meters a write of csv output (see {@link com.tideworks.data_load.io.IoMeter}). */
+    void wrote(final long nanos, final long byteCount) {
+      writeNanos += nanos;
+      if (byteCount > 0) {
+        fileMetrics.totals.csvBytes.add(byteCount);
+        fileMetrics.runTotals().csvBytes.add(byteCount);
+      }
+    }
+
+    /** The reading, and writing, of the segment's rows begins. */
+    void beginWork() {
+      workStartWriteNanos = writeNanos;
+      workStartNanos = System.nanoTime();
+    }
+
+    /** The reading, and writing, of the segment's rows has ended. */
+    void endWork() {
+      workNanos += System.nanoTime() - workStartNanos;
+      workWriteNanos += writeNanos - workStartWriteNanos;
+    }
+
+    /** The formatting (and writing) of rows begins. */
+    void beginFormat() {
+      formatStartWriteNanos = writeNanos;
+      formatStartNanos = System.nanoTime();
+    }
+
+    /** The formatting (and writing) of rows has ended - the time spent, net of writing, is formatting. */
+    void endFormat() {
+      formatNanos += System.nanoTime() - formatStartNanos - (writeNanos - formatStartWriteNanos);
+    }
+
+    void rowsWritten(final long rowCount) {
+      fileMetrics.totals.rows.add(rowCount);
+      fileMetrics.runTotals().rows.add(rowCount);
+    }
+
+    /** The segment's csv writer has been closed - adds the segment's metrics to the totals. */
+    void completed() {
+      final long decodeNanos = Math.max(workNanos - ioNanos - formatNanos - workWriteNanos, 0);
+      final long allocatedBytes = startAllocatedBytes >= 0 ? currentThreadAllocatedBytes() - startAllocatedBytes : 0;
+      for(final Totals totals : new Totals[]{ fileMetrics.totals, fileMetrics.runTotals() }) {
+        totals.ioNanos.add(ioNanos);
+        totals.decodeNanos.add(decodeNanos);
+        totals.formatNanos.add(Math.max(formatNanos, 0));
+        totals.writeNanos.add(writeNanos);
+        totals.allocatedBytes.add(Math.max(allocatedBytes, 0));
+      }
+    }
+  }
+
+  private final Optional<Path> jsonFilePathOptn;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final Totals runTotals = new Totals();
+  private final long startNanos = System.nanoTime();
+  private final Instant startTime = Instant.now();
+  private final AtomicInteger convertedCount = new AtomicInteger(0);
+  private final AtomicInteger failedCount = new AtomicInteger(0);
+  private final Object spoolLock = new Object();
+  private Path spoolFilePath = null;       // per-file metrics, one JSON object per line - guarded by spoolLock
+  private BufferedWriter spoolWriter = null;
+  private boolean isSpoolFailed = false;
+  private ScheduledExecutorService progressExecutor = null;
+
+  /** @param jsonFilePathOptn file that the metrics are written to as JSON, at the end of the run (if any) */
+  ConversionMetrics(Optional<Path> jsonFilePathOptn) {
+    this.jsonFilePathOptn = jsonFilePathOptn;
+  }
+
+  /** @return metrics of the conversion of the input file, which begins now */
+  FileMetrics startFile(final File inputFile) { return new FileMetrics(inputFile); }
+
+  // appends the metrics of a file to the spool file - opened upon the first file
+  private void spoolFileJson(final Map<String, Object> json) {
+    synchronized (spoolLock) {
+      if (isSpoolFailed) return;
+      try {
+        if (spoolWriter == null) {
+          final Path jsonFilePath = jsonFilePathOptn.get().toAbsolutePath();
+          spoolFilePath = Files.createTempFile(jsonFilePath.getParent(), jsonFilePath.getFileName().toString(),
+                                               ".perfile");
+          spoolFilePath.toFile().deleteOnExit();
+          spoolWriter = Files.newBufferedWriter(spoolFilePath, StandardCharsets.UTF_8);
+        }
+        spoolWriter.write(objectMapper.writeValueAsString(json));
+        spoolWriter.newLine();
+      } catch (IOException e) {
+        isSpoolFailed = true;
+        log.error(String.format("failed spooling per-file metrics - they are left out of the metrics JSON file: \"%s\"",
+                                spoolFilePath), e);
+      }
+    }
+  }
+
+  private static long currentThreadAllocatedBytes() {
+    if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+      final com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+      if (sunThreadMXBean.isThreadAllocatedMemorySupported() && sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+        return sunThreadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+
+  /** Logs a progress line every so many seconds, on a background thread, until the metrics are reported. */
+  synchronized void startProgress(final int intervalSecs) {
+    progressExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "progress");
+      thread.setDaemon(true);
+      return thread;
+    });
+    progressExecutor.scheduleAtFixedRate(() -> log.info(progressLine()), intervalSecs, intervalSecs, TimeUnit.SECONDS);
+  }
+
+  private synchronized void stopProgress() {
+    if (progressExecutor != null) {
+      progressExecutor.shutdownNow();
+      progressExecutor = null;
+    }
+  }
+
+  private String progressLine() {
+    final double wallSecs = Math.max(System.nanoTime() - startNanos, 1) / nanosPerSec;
+    return String.format("progress: %d files (%d failed), %d rows, %.1f MB read, %.1f MB csv in %.0f s - " +
+                         "%.0f rows/s, %.1f MB/s csv",
+                         convertedCount.get() + failedCount.get(), failedCount.get(), runTotals.rows.sum(),
+                         runTotals.inputBytesRead.sum() / bytesPerMB, runTotals.csvBytes.sum() / bytesPerMB, wallSecs,
+                         runTotals.rows.sum() / wallSecs, runTotals.csvBytes.sum() / bytesPerMB / wallSecs);
+  }
+
+  /**
+   * Reports the metrics at the end of the run: stops progress reporting, logs the
+   * run's totals, then writes the JSON file (if one was specified).
+   *
+   * @param planCache the csv plan cache, whose hit counts are reported
+   * @param bufferPool the buffer pool, whose usage is reported
+   */
+  void report(final PlanCache planCache, final BufferPool bufferPool) {
+    stopProgress();
+    logSummary();
+    if (jsonFilePathOptn.isPresent()) {
+      try {
+        writeJson(jsonFilePathOptn.get(), planCache, bufferPool);
+      } catch (IOException e) {
+        log.error(String.format("failed writing metrics JSON file: \"%s\"", jsonFilePathOptn.get()), e);
+      }
+    }
+  }
+
+  private void logSummary() {
+    final double wallSecs = Math.max(System.nanoTime() - startNanos, 1) / nanosPerSec;
+    log.info("conversion metrics: {} files ({} failed), {} rows, {} MB in, {} MB csv in {} s - {} rows/s, " +
+             "{} MB/s in; stages: {}; allocated {} MB ({} MB/s)",
+             convertedCount.get() + failedCount.get(), failedCount.get(), runTotals.rows.sum(),
+             String.format("%.1f", runTotals.inputBytes.sum() / bytesPerMB),
+             String.format("%.1f", runTotals.csvBytes.sum() / bytesPerMB), String.format("%.1f", wallSecs),
+             Math.round(runTotals.rows.sum() / wallSecs),
+             String.format("%.1f", runTotals.inputBytes.sum() / bytesPerMB / wallSecs), runTotals.stageShares(),
+             String.format("%.1f", runTotals.allocatedBytes.sum() / bytesPerMB),
+             String.format("%.1f", runTotals.allocatedBytes.sum() / bytesPerMB / wallSecs));
+  }
+
+  // writes the run's metrics - totals, then those of each file - as JSON
+  private void writeJson(final Path jsonFilePath, final PlanCache planCache, final BufferPool bufferPool)
+        throws IOException
+  {
+    final Map<String, Object> json = new LinkedHashMap<>();
+    json.put("startTime", startTime.toString());
+    json.put("files", convertedCount.get() + failedCount.get());
+    json.put("failedFiles", failedCount.get());
+    runTotals.addTo(json, System.nanoTime() - startNanos);
+    json.put("peakHeapBytes", MemoryBudget.peakHeapUsed());
+    final Map<String, Object> planCacheJson = new LinkedHashMap<>();
+    planCacheJson.put("hits", planCache.getHitCount());
+    planCacheJson.put("misses", planCache.getMissCount());
+    planCacheJson.put("size", planCache.size());
+    json.put("planCache", planCacheJson);
+    final Map<String, Object> bufferPoolJson = new LinkedHashMap<>();
+    bufferPoolJson.put("leases", bufferPool.getLeaseCount());
+    bufferPoolJson.put("reused", bufferPool.getReuseCount());
+    bufferPoolJson.put("allocatedBytes", bufferPool.getAllocatedBytes());
+    bufferPoolJson.put("highWaterBytes", bufferPool.getHighWaterBytes());
+    bufferPoolJson.put("retainedBytes", bufferPool.getRetainedBytes());
+    json.put("bufferPool", bufferPoolJson);
+    synchronized (spoolLock) {
+      try (final JsonGenerator generator = objectMapper.getJsonFactory().createJsonGenerator(jsonFilePath.toFile(),
+                                                                                              JsonEncoding.UTF8))
+      {
+        generator.useDefaultPrettyPrinter();
+        generator.writeStartObject();
+        for(final Map.Entry<String, Object> entry : json.entrySet()) {
+          generator.writeObjectField(entry.getKey(), entry.getValue());
+        }
+        generator.writeArrayFieldStart("perFile");
+        copySpooledFileJsons(generator);
+        generator.writeEndArray();
+        generator.writeEndObject();
+      } finally {
+        deleteSpoolFile();
+      }
+    }
+    log.info("wrote conversion metrics: \"{}\"", jsonFilePath);
+  }
+
+  // copies the spooled per-file metrics to the array being generated - caller holds spoolLock
+  private void copySpooledFileJsons(final JsonGenerator generator) throws IOException {
+    if (spoolWriter == null || isSpoolFailed) return;
+    spoolWriter.close();
+    spoolWriter = null;
+    try (final BufferedReader reader = Files.newBufferedReader(spoolFilePath, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        generator.writeTree(objectMapper.readTree(line));
+      }
+    }
+  }
+
+  // caller holds spoolLock
+  private void deleteSpoolFile() {
+    if (spoolFilePath == null) return;
+    try {
+      if (spoolWriter != null) {
+        spoolWriter.close();
+        spoolWriter = null;
+      }
+      Files.deleteIfExists(spoolFilePath);
+    } catch (IOException e) {
+      log.warn(String.format("failed deleting per-file metrics spool file: \"%s\"", spoolFilePath), e);
+    }
+    spoolFilePath = null;
+    isSpoolFailed = true; // no per-file metrics are spooled after the report
+  }
+}
@@ -0,0 +1,45 @@
+/* ConversionOptions.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load;
+
+import com.tideworks.data_load.io.CsvCompression;
+import com.tideworks.data_load.util.MemoryBudget;
+
+import java.io.File;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Command line settings that govern the processing of each input file.
+ * <p>
+ * Populated once while the command line is parsed, then only ever read -
+ * an instance is shared as-is by all of the conversion worker threads.
+ */
+final class ConversionOptions {
+  ZoneId timeZoneId = ZoneId.systemDefault();
+  Optional<File> outputDirOptn = Optional.empty();
+  boolean isExportSchemaToJson = false;
+  boolean isImportJsonToSchema = false;
+  boolean isMakeOneRowSchema = false;
+  int jobs = 1;
+  int rowGroupJobs = 1;
+  long flushRowInterval = 0;
+  long flushByteInterval = 0;
+  boolean isExactFloats = false;
+  boolean isAvroRecordReader = false;
+  long prefetchBytes = 32L * 1024 * 1024;
+  Optional<List<String>> columnNamesOptn = Optional.empty();
+  Optional<WhereClause> whereClauseOptn = Optional.empty();
+  CsvCompression compression = CsvCompression.NONE;
+  long maxPartRows = 0;
+  long maxPartBytes = 0;
+  Optional<StreamOutput> streamOutputOptn = Optional.empty();
+  Optional<ConversionManifest> manifestOptn = Optional.empty();
+  Optional<ConversionMetrics> metricsOptn = Optional.empty();
+  Optional<MemoryBudget> memoryBudgetOptn = Optional.empty();
+}
@@ -7,6 +7,12 @@
 package com.tideworks.data_load;
 
 import com.tideworks.annotation.InvokeByteCodePatching;
+import com.tideworks.data_load.csv.PlanCache;
+import com.tideworks.data_load.io.BufferPool;
+import com.tideworks.data_load.io.CsvCompression;
+import com.tideworks.data_load.jfr.FlightEvents;
+import com.tideworks.data_load.util.ConversionContext;
+import com.tideworks.data_load.util.MemoryBudget;
 import com.tideworks.data_load.util.io.FileUtils;
 import com.tideworks.data_load.util.io.OneRowParquetSchema;
 import com.tideworks.data_load.util.io.ParquetMetadataToBinarySerialize;
@@ -21,6 +27,7 @@ import java.io.*;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.DateTimeException;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
@@ -96,7 +103,7 @@ public class DataLoad {
     final String msg = String.join(eol,
           "prq2csv usage:",
           "",
-          "  prq2csv [options] file_path...",
+          "  prq2csv [options] file_path|directory_path|glob_pattern...",
           "",
           "  -?|-h|--help                     display this help information",
           "  -v|--verbosity level             level can be: trace, debug, info, warn, error (default: info)",
@@ -110,7 +117,63 @@ public class DataLoad {
           "                                   file has same base name but now ending in .parquet",
           "  -orsch|--one-row-schema          from a specified Parquet file, generate a valid one row schema file",
           "                                   (populated by a dummy row, i.e., null columns)",
-          "  -o|--output-dir directory_path   directory where generated files will land at (optional)"
+          "  -r|--recursive                   directory arguments include the Parquet files of subdirectories;",
+          "                                   a glob pattern (quoted, e.g. 'data/dt=*/**/*.parquet') is",
+          "                                   matched with ** spanning any number of directories",
+          "  -o|--output-dir directory_path   directory where generated files will land at (optional)",
+          "  -j|--jobs count                  number of input files to process concurrently (default: 1);",
+          "                                   a file that fails is reported and the others still processed",
+          "  -rgj|--row-group-jobs count      number of row groups of a Parquet file to convert to csv",
+          "                                   concurrently (default: 1)",
+          "  -fr|--flush-rows count           flush csv output each time this many rows have been written",
+          "                                   (default: csv output is written in large batches, flushed at end)",
+          "  -fb|--flush-bytes size           flush csv output each time this many bytes have been written;",
+          "                                   size may have a K, M or G suffix",
+          "  -xf|--exact-floats               render float/double values as their exact decimal expansion",
+          "                                   (default: Double.toString() digits, which read back as same value)",
+          "  -ar|--avro-reader                read rows as Avro records (default: the columns of flat schemas",
+          "                                   are read directly, falling back to Avro records otherwise)",
+          "  -pf|--prefetch-bytes size        budget of memory for reading Parquet column chunks ahead on a",
+          "                                   background thread (default: 32M; 0 disables read ahead)",
+          "  -mm|--max-memory size            budget of memory for the row groups being read and written, and",
+          "                                   the csv output buffers: row groups are read no more at a time",
+          "                                   than it allows, a file that would exceed it fails, and the peak",
+          "                                   heap used is logged at the end (the max heap, -Xmx, is to allow",
+          "                                   for it plus the rest of the program)",
+          "  -c|--columns name[,name...]      export only these columns, in this order (case-insensitive);",
+          "                                   the other columns are not read",
+          "  -w|--where clause                export only the rows that match, e.g.: \"TERM_ID$ = 'T1' and",
+          "                                   CREATED_DATE$ >= '2018-06-01'\" - operators: = != < <= > >=,",
+          "                                   IS [NOT] NULL, AND, OR, NOT; row groups that can't match are",
+          "                                   skipped via their statistics",
+          "  -z|--compress codec              compress csv output files: gzip (.csv.gz - compressed in",
+          "                                   parallel), zstd (.csv.zst), lz4 (.csv.lz4) or none (default);",
+          "                                   zstd and lz4 require the native Hadoop library",
+          "  -mr|--max-rows count             split csv output into numbered part files of at most this",
+          "                                   many rows each (<name>.part-00001.csv, ...), each beginning",
+          "                                   with the header line",
+          "  -mb|--max-bytes size             split csv output into numbered part files that end once this",
+          "                                   size (uncompressed) is reached; with -rgj, parts are written",
+          "                                   concurrently and each appears once complete",
+          "  -so|--stdout                     write the csv rows of all input files to stdout, one file",
+          "                                   after the other, with one header line (logging then goes to",
+          "                                   stderr); input files are processed one at a time",
+          "  -p|--pipe path                   same as --stdout but written to a named pipe (FIFO), e.g., as",
+          "                                   made by mkfifo for a database bulk loader to read from",
+          "  -sd|--spool-dir directory_path   keep running, converting each Parquet file that arrives in the",
+          "                                   directory (rename files into it once written); it is then",
+          "                                   moved to the done/ (or failed/) subdirectory - stop with Ctrl-C",
+          "  -m|--manifest file_path          record each converted input file in this manifest file (JSON",
+          "                                   lines); on a rerun, input files that are unchanged, and whose",
+          "                                   csv output (same settings) is still there, are skipped",
+          "  -mj|--metrics-json file_path     write conversion metrics as JSON to this file at exit: rows,",
+          "                                   bytes, row groups, allocation, and the time in each stage (io,",
+          "                                   decode, format, write) - for the run and for each input file",
+          "  -pg|--progress seconds           log a progress line (files, rows, MB, rows/s) every so many",
+          "                                   seconds, and a metrics summary at the end (as --metrics-json does)",
+          "  -jfr|--jfr-events                emit Java Flight Recorder events for file conversions, row group",
+          "                                   reads, input file reads, csv output flushes and plan compiles -",
+          "                                   recorded when run with -XX:StartFlightRecording (or from JMC)"
           );
     System.out.println(msg);
   }
@@ -130,6 +193,14 @@ public class DataLoad {
       return filePath;
     };
 
+    final Function<File, File> validateFileOrDir = path -> {
+      if (!path.exists() || !(path.isFile() || path.isDirectory())) {
+        log.error("does not exist or is not a valid file or directory:{}\t\"{}\"", eol, path);
+        System.exit(1); // return non-zero status to indicate program failure
+      }
+      return path;
+    };
+
     final Function<File, File> validateDir = dirPath -> {
       if (!dirPath.exists() || !dirPath.isDirectory()) {
         log.error("does not exist or is not a valid directory:{}\t\"{}\"", eol, dirPath);
@@ -143,12 +214,16 @@ public class DataLoad {
                                                        index < args.length ? Optional.of(args[index]) : Optional.empty();
 
       Optional<File> schemaFileOptn = Optional.empty();
-      Optional<ZoneId> timeZoneIdOptn = Optional.empty();
-      Optional<File> outputDirOptn = Optional.empty();
-      final List<File> inputFiles = new ArrayList<>();
-      boolean isExportSchemaToJson = false;
-      boolean isImportJsonToSchema = false;
-      boolean isMakeOneRowSchema = false;
+      Optional<Path> pipePathOptn = Optional.empty();
+      Optional<File> spoolDirOptn = Optional.empty();
+      Optional<Path> manifestPathOptn = Optional.empty();
+      Optional<Path> metricsJsonPathOptn = Optional.empty();
+      int progressIntervalSecs = 0;
+      long maxMemoryBytes = 0;
+      boolean isStdout = false;
+      final ConversionOptions optns = new ConversionOptions();
+      final List<String> inputArgs = new ArrayList<>();
+      boolean isRecursive = false;
 
       for (int i = 0; i < args.length; i++) {
         String arg = args[i];
@@ -162,17 +237,48 @@ public class DataLoad {
             }
             case "-tj":
             case "--to-json": {
-              isExportSchemaToJson = true;
+              optns.isExportSchemaToJson = true;
               continue;
             }
             case "-fj":
             case "--from-json": {
-              isImportJsonToSchema = true;
+              optns.isImportJsonToSchema = true;
               continue;
             }
             case "-orsch":
             case "--one-row-schema": {
-              isMakeOneRowSchema = true;
+              optns.isMakeOneRowSchema = true;
+              continue;
+            }
+            case "-xf":
+            case "--exact-floats": {
+              optns.isExactFloats = true;
+              continue;
+            }
+            case "-ar":
+            case "--avro-reader": {
+              optns.isAvroRecordReader = true;
+              continue;
+            }
+            case "-r":
+            case "--recursive": {
+              isRecursive = true;
+              continue;
+            }
+            case "-jfr":
+            case "--jfr-events": {
+              try {
+                FlightEvents.enable();
+              } catch (IllegalStateException e) {
+                log.error("{} => {}", arg, e.getMessage());
+                System.exit(1); // return non-zero status to indicate program failure
+              }
+              continue;
+            }
+            case "-so":
+            case "--stdout": {
+              isStdout = true;
+              System.setOut(System.err); // stdout is for csv output - console logging goes to stderr
               continue;
             }
           }
@@ -217,7 +323,7 @@ public class DataLoad {
               }
               try {
                 final ZoneId zoneId = ZoneId.of(zoneOffset != null ? zoneOffset.getId() : arg);
-                timeZoneIdOptn = Optional.of(zoneId.normalized());
+                optns.timeZoneId = zoneId.normalized();
               } catch (DateTimeException e) {
                 log.error("invalid time zone offset:", e);
                 System.exit(1); // return non-zero status to indicate program failure
@@ -231,7 +337,172 @@ public class DataLoad {
                 return new Exception(errmsg);
               };
               arg = (argParts.length > 1 ? argParts[1] : getNextArg.apply(++i).orElseThrow(missingOutputDirPath)).trim();
-              outputDirOptn = Optional.of(validateDir.apply(new File(arg)));
+              optns.outputDirOptn = Optional.of(validateDir.apply(new File(arg)));
+              break;
+            }
+            case "-j":
+            case "--jobs": {
+              final Supplier<Exception> missingJobsCount = () -> {
+                final String errmsg = option + " => is missing number of concurrent jobs argument";
+                return new Exception(errmsg);
+              };
+              arg = (argParts.length > 1 ? argParts[1] : getNextArg.apply(++i).orElseThrow(missingJobsCount)).trim();
+              optns.jobs = parsePositiveInt(option, arg);
+              break;
+            }
+            case "-rgj":
+            case "--row-group-jobs": {
+              final Supplier<Exception> missingRowGroupJobsCount = () -> {
+                final String errmsg = option + " => is missing number of concurrent row group jobs argument";
+                return new Exception(errmsg);
+              };
+              arg = (argParts.length > 1 ? argParts[1] : getNextArg.apply(++i).orElseThrow(missingRowGroupJobsCount)).trim();
+              optns.rowGroupJobs = parsePositiveInt(option, arg);
+              break;
+            }
+            case "-fr":
+            case "--flush-rows": {
+              final Supplier<Exception> missingFlushRowsCount = () -> {
+                final String errmsg = option + " => is missing csv output flush interval row count argument";
+                return new Exception(errmsg);
+              };
+              arg = (argParts.length > 1 ? argParts[1] : getNextArg.apply(++i).orElseThrow(missingFlushRowsCount)).trim();
+              optns.flushRowInterval = parsePositiveInt(option, arg);
+              break;
+            }
+            case "-fb":
+            case "--flush-bytes": {
+              final Supplier<Exception> missingFlushBytesSize = () -> {
+                final String errmsg = option + " => is missing csv output flush interval byte size argument";
+                return new Exception(errmsg);
+              };
+              arg = (argParts.length > 1 ? argParts[1] : getNextArg.apply(++i).orElseThrow(missingFlushBytesSize)).trim();
+              optns.flushByteInterval = parseByteSize(option, arg);
+              break;
+            }
+            case "-pf":
+            case "--prefetch-bytes": {
+              final Supplier<Exception> missingPrefetchBytesSize = () -> {
+                final String errmsg = option + " => is missing read ahead buffer budget byte size argument";
+                return new Exception(errmsg);
+              };
+              arg = (argParts.length > 1 ? argParts[1] : getNextArg.apply(++i).orElseThrow(missingPrefetchBytesSize)).trim();
+              optns.prefetchBytes = arg.equals("0") ? 0 : parseByteSize(option, arg);
+              break;
+            }
+            case "-mm":
+            case "--max-memory": {
+              final Supplier<Exception> missingMaxMemorySize = () -> {
+                final String errmsg = option + " => is missing memory budget byte size argument";
+                return new Exception(errmsg);
+              };
+              arg = (argParts.length > 1 ? argParts[1] : getNextArg.apply(++i).orElseThrow(missingMaxMemorySize)).trim();
+              maxMemoryBytes = parseByteSize(option, arg);
+              break;
+            }
+            case "-c":
+            case "--columns": {
+              final Supplier<Exception> missingColumnNames = () -> {
+                final String errmsg = option + " => is missing comma separated list of column names argument";
+                return new Exception(errmsg);
+              };
+              arg = (argParts.length > 1 ? argParts[1] : getNextArg.apply(++i).orElseThrow(missingColumnNames)).trim();
+              optns.columnNamesOptn = Optional.of(parseColumnNames(option, arg));
+              break;
+            }
+            case "-w":
+            case "--where": {
+              final Supplier<Exception> missingWhereClause = () -> {
+                final String errmsg = option + " => is missing row filter where clause argument";
+                return new Exception(errmsg);
+              };
+              arg = (argParts.length > 1 ? argParts[1] : getNextArg.apply(++i).orElseThrow(missingWhereClause)).trim();
+              try {
+                optns.whereClauseOptn = Optional.of(WhereClause.parse(arg));
+              } catch (IllegalArgumentException e) {
+                log.error("{} => {}: '{}'", option, e.getMessage(), arg);
+                System.exit(1); // return non-zero status to indicate program failure
+              }
+              break;
+            }
+            case "-z":
+            case "--compress": {
+              final Supplier<Exception> missingCompression = () -> {
+                final String errmsg = option + " => is missing csv output compression argument";
+                return new Exception(errmsg);
+              };
+              arg = (argParts.length > 1 ? argParts[1] : getNextArg.apply(++i).orElseThrow(missingCompression)).trim();
+              optns.compression = parseCompression(option, arg);
+              break;
+            }
+            case "-mr":
+            case "--max-rows": {
+              final Supplier<Exception> missingMaxRowsCount = () -> {
+                final String errmsg = option + " => is missing csv part file maximum row count argument";
+                return new Exception(errmsg);
+              };
+              arg = (argParts.length > 1 ? argParts[1] : getNextArg.apply(++i).orElseThrow(missingMaxRowsCount)).trim();
+              optns.maxPartRows = parsePositiveInt(option, arg);
+              break;
+            }
+            case "-mb":
+            case "--max-bytes": {
+              final Supplier<Exception> missingMaxBytesSize = () -> {
+                final String errmsg = option + " => is missing csv part file maximum byte size argument";
+                return new Exception(errmsg);
+              };
+              arg = (argParts.length > 1 ? argParts[1] : getNextArg.apply(++i).orElseThrow(missingMaxBytesSize)).trim();
+              optns.maxPartBytes = parseByteSize(option, arg);
+              break;
+            }
+            case "-p":
+            case "--pipe": {
+              final Supplier<Exception> missingPipePath = () -> {
+                final String errmsg = option + " => is missing named pipe path specification argument";
+                return new Exception(errmsg);
+              };
+              arg = (argParts.length > 1 ? argParts[1] : getNextArg.apply(++i).orElseThrow(missingPipePath)).trim();
+              pipePathOptn = Optional.of(Paths.get(arg));
+              break;
+            }
+            case "-sd":
+            case "--spool-dir": {
+              final Supplier<Exception> missingSpoolDirPath = () -> {
+                final String errmsg = option + " => is missing spool directory path specification argument";
+                return new Exception(errmsg);
+              };
+              arg = (argParts.length > 1 ? argParts[1] : getNextArg.apply(++i).orElseThrow(missingSpoolDirPath)).trim();
+              spoolDirOptn = Optional.of(validateDir.apply(new File(arg)));
+              break;
+            }
+            case "-m":
+            case "--manifest": {
+              final Supplier<Exception> missingManifestPath = () -> {
+                final String errmsg = option + " => is missing manifest file path specification argument";
+                return new Exception(errmsg);
+              };
+              arg = (argParts.length > 1 ? argParts[1] : getNextArg.apply(++i).orElseThrow(missingManifestPath)).trim();
+              manifestPathOptn = Optional.of(Paths.get(arg));
+              break;
+            }
+            case "-mj":
+            case "--metrics-json": {
+              final Supplier<Exception> missingMetricsJsonPath = () -> {
+                final String errmsg = option + " => is missing metrics JSON file path specification argument";
+                return new Exception(errmsg);
+              };
+              arg = (argParts.length > 1 ? argParts[1] : getNextArg.apply(++i).orElseThrow(missingMetricsJsonPath)).trim();
+              metricsJsonPathOptn = Optional.of(Paths.get(arg));
+              break;
+            }
+            case "-pg":
+            case "--progress": {
+              final Supplier<Exception> missingProgressInterval = () -> {
+                final String errmsg = option + " => is missing progress interval seconds argument";
+                return new Exception(errmsg);
+              };
+              arg = (argParts.length > 1 ? argParts[1] : getNextArg.apply(++i).orElseThrow(missingProgressInterval)).trim();
+              progressIntervalSecs = parsePositiveInt(option, arg);
               break;
             }
             default: {
@@ -239,8 +510,8 @@ public class DataLoad {
             }
           }
         } else {
-          // assume is a file path argument
-          inputFiles.add(validateFile.apply(new File(arg)));
+          // assume is a file path, directory path or glob pattern argument
+          inputArgs.add(InputDiscovery.isGlob(arg) ? arg : validateFileOrDir.apply(new File(arg)).getPath());
         }
       }
 
@@ -250,57 +521,102 @@ public class DataLoad {
         log.info("Avro schema file validated successfully{}\t\"{}\"", eol, avroSchemaFile);
       }
 
-      if (!inputFiles.isEmpty()) {
-        final ZoneId timeZoneId = timeZoneIdOptn.orElse(ZoneId.systemDefault());
-
-        for(final File inputFile : inputFiles) {
-          final String fileNameLC = inputFile.getName().toLowerCase();
-          final String fileTypeDesc = fileNameLC.endsWith(parquetExtent)
-                ? "Parquet " : (fileNameLC.endsWith(jsonExtent) ? "JSON " : "");
-
-          boolean isParquet = false, isJson = false;
-
-          String baseFileName = inputFile.getName(), baseFileNameLC = baseFileName.toLowerCase();
-          int index = baseFileNameLC.endsWith(parquetExtent) ? baseFileNameLC.lastIndexOf(parquetExtent) : -1;
-          if (index != -1) {
-            baseFileName = baseFileName.substring(0, index);
-            isParquet = true;
-          } else {
-            index = baseFileNameLC.endsWith(jsonExtent) ? baseFileNameLC.lastIndexOf(jsonExtent) : -1;
-            if (index != -1) {
-              baseFileName = baseFileName.substring(0, index);
-              isJson = true;
-            }
-          }
+      if (isStdout || pipePathOptn.isPresent()) {
+        if (isStdout && pipePathOptn.isPresent()) {
+          log.error("--stdout and --pipe are mutually exclusive");
+          System.exit(1); // return non-zero status to indicate program failure
+        }
+        if (optns.maxPartRows > 0 || optns.maxPartBytes > 0) {
+          log.error("csv part files (--max-rows, --max-bytes) don't apply to --stdout or --pipe output");
+          System.exit(1); // return non-zero status to indicate program failure
+        }
+        if (optns.jobs > 1) {
+          log.warn("input files are written to {} one at a time - ignoring --jobs {}",
+                   isStdout ? "stdout" : "the pipe", optns.jobs);
+          optns.jobs = 1;
+        }
+        if (!inputArgs.isEmpty() || spoolDirOptn.isPresent()) {
+          optns.streamOutputOptn = Optional.of(isStdout ? StreamOutput.toStdout()
+                                                        : StreamOutput.toPipe(pipePathOptn.get()));
+        }
+      }
 
-          if (isParquet || isJson) {
-            log.info("processing {}input file: \"{}\"", fileTypeDesc, inputFile);
-          }
+      if (manifestPathOptn.isPresent()) {
+        if (isStdout || pipePathOptn.isPresent()) {
+          log.error("--manifest records csv output files - it doesn't apply to --stdout or --pipe output");
+          System.exit(1); // return non-zero status to indicate program failure
+        }
+        if (!inputArgs.isEmpty() || spoolDirOptn.isPresent()) {
+          optns.manifestOptn = Optional.of(ConversionManifest.open(manifestPathOptn.get()));
+        }
+      }
 
-          final String outputDir = outputDirOptn.map(File::toString).orElse(FileUtils.getParentDir(inputFile));
+      if (maxMemoryBytes > 0) {
+        if (optns.prefetchBytes > maxMemoryBytes / 4) {
+          optns.prefetchBytes = maxMemoryBytes / 4;
+          log.info("read ahead budget (--prefetch-bytes) is limited to a quarter of --max-memory: {}",
+                   MemoryBudget.formatSize(optns.prefetchBytes));
+        }
+        // the read ahead buffers come out of the budget; the rest is for the row groups being read and the output
+        optns.memoryBudgetOptn = Optional.of(new MemoryBudget(maxMemoryBytes - optns.prefetchBytes));
+      }
 
-          if (isParquet) {
-            if (isExportSchemaToJson) {
-              // extract schema from .parquet file and write into a companion .json file
-              extractParquetMetadataToJson(inputFile, outputDir, baseFileName);
-              continue;
-            }
-            if (isMakeOneRowSchema) {
-              OneRowParquetSchema.writeSchemaFile(inputFile, outputDir, baseFileName);
-              continue;
+      if (metricsJsonPathOptn.isPresent() || progressIntervalSecs > 0) {
+        final ConversionMetrics metrics = new ConversionMetrics(metricsJsonPathOptn);
+        if (progressIntervalSecs > 0) {
+          metrics.startProgress(progressIntervalSecs);
+        }
+        optns.metricsOptn = Optional.of(metrics);
+      }
+      final Runnable reportMetrics = () -> {
+        logPlanCacheCounts();
+        logBufferPoolUsage();
+        optns.memoryBudgetOptn.ifPresent(DataLoad::logPeakHeap);
+        optns.metricsOptn.ifPresent(metrics -> metrics.report(ParquetToCsv.getPlanCache(),
+                                                              ConversionContext.get().getBufferPool()));
+      };
+
+      if (spoolDirOptn.isPresent()) {
+        if (!inputArgs.isEmpty()) {
+          log.error("--spool-dir takes its input files from the spool directory - not from the command line");
+          System.exit(1); // return non-zero status to indicate program failure
+        }
+        try {
+          SpoolDirectory.serve(spoolDirOptn.get().toPath(), optns.jobs, inputFile -> processInputFile(inputFile, optns),
+                               reportMetrics);
+        } finally {
+          if (optns.streamOutputOptn.isPresent()) {
+            optns.streamOutputOptn.get().close();
+          }
+          if (optns.manifestOptn.isPresent()) {
+            optns.manifestOptn.get().close();
+          }
+        }
+      } else if (!inputArgs.isEmpty()) {
+        boolean isSuccess;
+        try (final FileConversionPool pool = new FileConversionPool(optns.jobs,
+                                                                    inputFile -> processInputFile(inputFile, optns)))
+        {
+          for(final String inputArg : inputArgs) {
+            if (InputDiscovery.discover(inputArg, isRecursive, optns.isImportJsonToSchema, pool::submit) <= 0) {
+              log.warn("no input files found for: \"{}\"", inputArg);
             }
-          } else if (isImportJsonToSchema && isJson) {
-            // load schema from .json file and write into a .parquet file
-            loadParquetMetadataFromJson(inputFile, outputDir, baseFileName);
-            continue;
           }
-
-          if (isParquet) {
-            // write a .parquet file to pseudo .csv
-            ParquetToCsv.processToOutput(timeZoneId, outputDir, inputFile);
-          } else {
-            log.error("not a recognized file type for processing: \"{}\"", inputFile);
+          isSuccess = pool.awaitCompletion();
+          if (!isSuccess) {
+            log.error("{} of {} input files failed processing", pool.getFailedCount(), pool.getSubmittedCount());
+          }
+          reportMetrics.run();
+        } finally {
+          if (optns.streamOutputOptn.isPresent()) {
+            optns.streamOutputOptn.get().close();
           }
+          if (optns.manifestOptn.isPresent()) {
+            optns.manifestOptn.get().close();
+          }
+        }
+        if (!isSuccess) {
+          System.exit(1); // return non-zero status to indicate program failure
         }
       } else if (!schemaFileOptn.isPresent()) {
         log.error("no Parquet input file have been specified for processing - cannot proceed");
@@ -313,11 +629,157 @@ public class DataLoad {
     log.info("program completion successful");
   }
 
+  private static void logPlanCacheCounts() {
+    final PlanCache planCache = ParquetToCsv.getPlanCache();
+    if (planCache.getHitCount() + planCache.getMissCount() > 0) {
+      log.info("csv plan cache: {} hits, {} misses ({} schema plans cached)",
+               planCache.getHitCount(), planCache.getMissCount(), planCache.size());
+    }
+  }
+
+  private static void logBufferPoolUsage() {
+    final BufferPool bufferPool = ConversionContext.get().getBufferPool();
+    if (bufferPool.getLeaseCount() > 0) {
+      log.info("buffer pool: {} leases, {} reused ({}%); {} allocated, high water {} in use, {} kept for reuse",
+               bufferPool.getLeaseCount(), bufferPool.getReuseCount(),
+               bufferPool.getReuseCount() * 100 / bufferPool.getLeaseCount(),
+               MemoryBudget.formatSize(bufferPool.getAllocatedBytes()),
+               MemoryBudget.formatSize(bufferPool.getHighWaterBytes()),
+               MemoryBudget.formatSize(bufferPool.getRetainedBytes()));
+    }
+  }
+
+  private static void logPeakHeap(final MemoryBudget budget) {
+    log.info("peak heap used: {} (max heap: {}, memory budget: {})", MemoryBudget.formatSize(MemoryBudget.peakHeapUsed()),
+             MemoryBudget.formatSize(Runtime.getRuntime().maxMemory()), MemoryBudget.formatSize(budget.getBudgetBytes()));
+  }
+
+  private static void processInputFile(final File inputFile, final ConversionOptions optns) throws IOException {
+    final String fileNameLC = inputFile.getName().toLowerCase();
+    final String fileTypeDesc = fileNameLC.endsWith(parquetExtent)
+          ? "Parquet " : (fileNameLC.endsWith(jsonExtent) ? "JSON " : "");
+
+    boolean isParquet = false, isJson = false;
+
+    String baseFileName = inputFile.getName(), baseFileNameLC = baseFileName.toLowerCase();
+    int index = baseFileNameLC.endsWith(parquetExtent) ? baseFileNameLC.lastIndexOf(parquetExtent) : -1;
+    if (index != -1) {
+      baseFileName = baseFileName.substring(0, index);
+      isParquet = true;
+    } else {
+      index = baseFileNameLC.endsWith(jsonExtent) ? baseFileNameLC.lastIndexOf(jsonExtent) : -1;
+      if (index != -1) {
+        baseFileName = baseFileName.substring(0, index);
+        isJson = true;
+      }
+    }
+
+    if (isParquet || isJson) {
+      log.info("processing {}input file: \"{}\"", fileTypeDesc, inputFile);
+    }
+
+    final String outputDir = optns.outputDirOptn.map(File::toString).orElse(FileUtils.getParentDir(inputFile));
+
+    if (isParquet) {
+      if (optns.isExportSchemaToJson) {
+        // extract schema from .parquet file and write into a companion .json file
+        extractParquetMetadataToJson(inputFile, outputDir, baseFileName);
+        return;
+      }
+      if (optns.isMakeOneRowSchema) {
+        OneRowParquetSchema.writeSchemaFile(inputFile, outputDir, baseFileName, optns.memoryBudgetOptn);
+        return;
+      }
+    } else if (optns.isImportJsonToSchema && isJson) {
+      // load schema from .json file and write into a .parquet file
+      loadParquetMetadataFromJson(inputFile, outputDir, baseFileName);
+      return;
+    }
+
+    if (isParquet && optns.manifestOptn.isPresent()) {
+      // write a .parquet file to pseudo .csv - unless done so already, as recorded in the manifest
+      final ConversionManifest manifest = optns.manifestOptn.get();
+      final ConversionManifest.Entry inputState =
+            ConversionManifest.inspect(inputFile, ConversionManifest.outputSettings(optns, outputDir));
+      if (manifest.isUpToDate(inputState)) {
+        log.info("csv output is up to date with input file (per manifest) - skipped: \"{}\"", inputFile);
+        return;
+      }
+      manifest.record(inputState, ParquetToCsv.processToOutput(optns, outputDir, inputFile));
+    } else if (isParquet) {
+      // write a .parquet file to pseudo .csv
+      ParquetToCsv.processToOutput(optns, outputDir, inputFile);
+    } else {
+      log.error("not a recognized file type for processing: \"{}\"", inputFile);
+    }
+  }
+
+  private static int parsePositiveInt(final String option, final String arg) {
+    try {
+      final int value = Integer.parseInt(arg);
+      if (value > 0) {
+        return value;
+      }
+    } catch (NumberFormatException ignore) {
+    }
+    log.error("{} => expects a positive integer argument: '{}'", option, arg);
+    System.exit(1); // return non-zero status to indicate program failure
+    return 0;
+  }
+
+  private static List<String> parseColumnNames(final String option, final String arg) {
+    final List<String> columnNames = new ArrayList<>();
+    for(final String columnName : arg.split(",")) {
+      if (!columnName.trim().isEmpty()) {
+        columnNames.add(columnName.trim());
+      }
+    }
+    if (columnNames.isEmpty()) {
+      log.error("{} => expects a comma separated list of column names argument: '{}'", option, arg);
+      System.exit(1); // return non-zero status to indicate program failure
+    }
+    return columnNames;
+  }
+
+  private static CsvCompression parseCompression(final String option, final String arg) {
+    final CsvCompression compression = CsvCompression.of(arg);
+    if (compression == null) {
+      log.error("{} => expects one of gzip, zstd, lz4 or none as argument: '{}'", option, arg);
+      System.exit(1); // return non-zero status to indicate program failure
+    }
+    try {
+      compression.ensureAvailable();
+    } catch (IllegalStateException e) {
+      log.error("{} => {}", option, e.getMessage());
+      System.exit(1); // return non-zero status to indicate program failure
+    }
+    return compression;
+  }
+
+  private static long parseByteSize(final String option, final String arg) {
+    final String argUC = arg.toUpperCase();
+    final String sizeUnits = "KMG";
+    final int unitIndex = argUC.isEmpty() ? -1 : sizeUnits.indexOf(argUC.charAt(argUC.length() - 1));
+    try {
+      final long value = Long.parseLong(unitIndex < 0 ? argUC : argUC.substring(0, argUC.length() - 1));
+      final int shift = 10 * (unitIndex + 1);
+      if (value > 0 && value <= Long.MAX_VALUE >> shift) {
+        return value << shift;
+      }
+    } catch (NumberFormatException ignore) {
+    }
+    log.error("{} => expects a positive byte size argument (optional K, M or G suffix): '{}'", option, arg);
+    System.exit(1); // return non-zero status to indicate program failure
+    return 0;
+  }
+
   private static void extractParquetMetadataToJson(final File inputFile, final String outputDir, final String baseFileName)
         throws IOException
   {
     String schemaAsJson;
-    try (final ParquetFileReader rdr = ParquetFileReader.open(nioPathToInputFile(inputFile.toPath()))) {
+    try (final ParquetFileReader rdr = ParquetFileReader.open(nioPathToInputFile(inputFile.toPath()),
+                                                             ConversionContext.get().newReadOptions().build()))
+    {
       schemaAsJson = ParquetMetadataToJsonSerialize.toPrettyJSON(rdr.getFooter());
     }
     final Path schemaAsJsonPath = FileUtils.makeSchemaFilePathFromBaseFileName(inputFile.toPath(), outputDir, baseFileName, jsonExtent);
@@ -0,0 +1,132 @@
+/* FileConversionPool.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the per-file processing of a batch of input files on a bounded pool of
+ * worker threads (or directly on the calling thread when only one job is requested).
+ * <p>
+ * A failure while processing one file is logged and counted but does not prevent
+ * the remaining files from being processed. While a worker is busy with a file its
+ * thread name carries the file name, so log lines emitted on behalf of different
+ * files can always be told apart.
+ */
+final class FileConversionPool implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(FileConversionPool.class.getSimpleName());
+  private static final String workerThreadNamePrefix = "worker-";
+
+  @FunctionalInterface
+  interface FileTask {
+    void process(File inputFile) throws Exception;
+  }
+
+  private final FileTask fileTask;
+  private final ExecutorService executor;
+  private final Semaphore queueSlots;
+  private final AtomicInteger submittedCount = new AtomicInteger(0);
+  private final AtomicInteger failedCount = new AtomicInteger(0);
+
+  FileConversionPool(final int jobs, final FileTask fileTask) {
+    assert jobs > 0;
+    this.fileTask = fileTask;
+    if (jobs > 1) {
+      final AtomicInteger threadCount = new AtomicInteger(0);
+      final ThreadFactory threadFactory = runnable -> {
+        final Thread thread = new Thread(runnable, workerThreadNamePrefix + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      };
+      this.executor = new ThreadPoolExecutor(jobs, jobs, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                                             threadFactory);
+      // bounds how many files can be waiting on (or be in) the workers at any one time
+      this.queueSlots = new Semaphore(jobs * 2);
+    } else {
+      this.executor = null;
+      this.queueSlots = null;
+    }
+  }
+
+  /**
+   * Hands an input file over for processing; blocks while the pool is saturated.
+   *
+   * @param inputFile file to be processed
+   * @throws InterruptedException if interrupted while waiting on the pool
+   */
+  void submit(final File inputFile) throws InterruptedException {
+    submittedCount.incrementAndGet();
+    if (executor == null) {
+      runFileTask(inputFile);
+      return;
+    }
+    queueSlots.acquire();
+    try {
+      executor.execute(() -> {
+        try {
+          runFileTask(inputFile);
+        } finally {
+          queueSlots.release();
+        }
+      });
+    } catch (RuntimeException e) {
+      queueSlots.release();
+      throw e;
+    }
+  }
+
+  private void runFileTask(final File inputFile) {
+    final Thread currentThread = Thread.currentThread();
+    final String savedThreadName = currentThread.getName();
+    currentThread.setName(savedThreadName + ':' + inputFile.getName());
+    try {
+      fileTask.process(inputFile);
+    } catch (Throwable e) {
+      failedCount.incrementAndGet();
+      log.error(String.format("failed processing input file: \"%s\"", inputFile), e);
+    } finally {
+      currentThread.setName(savedThreadName);
+    }
+  }
+
+  /**
+   * Waits for all submitted files to finish processing.
+   *
+   * @return true if every submitted file was processed without failure
+   * @throws InterruptedException if interrupted while waiting on the workers
+   */
+  boolean awaitCompletion() throws InterruptedException {
+    if (executor != null) {
+      executor.shutdown();
+      while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        log.debug("awaiting completion of input file processing...");
+      }
+    }
+    return failedCount.get() == 0;
+  }
+
+  int getSubmittedCount() { return submittedCount.get(); }
+
+  int getFailedCount() { return failedCount.get(); }
+
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+}
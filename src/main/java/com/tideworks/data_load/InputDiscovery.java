@@ -0,0 +1,151 @@
+/* InputDiscovery.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static com.tideworks.data_load.util.io.FileUtils.jsonExtent;
+import static com.tideworks.data_load.util.io.FileUtils.parquetExtent;
+
+/**
+ * Discovery of the input files designated by an input argument - a file path, a
+ * directory path (its Parquet files, or also those of its subdirectories when
+ * recursive) or a glob pattern, e.g.: {@code data/dt=*}{@code /**}{@code /*.parquet}.
+ * <p>
+ * Directories are walked lazily, each file being handed over as soon as it is found
+ * - so conversion begins while discovery proceeds, and the memory held for discovery
+ * is bounded by the depth of the directory tree rather than the number of files.
+ */
+final class InputDiscovery {
+  private static final Logger log = LoggerFactory.getLogger(InputDiscovery.class.getSimpleName());
+  private static final String globChars = "*?[{";
+
+  /** Where the discovered files go - e.g., blocking while the conversion workers are saturated. */
+  @FunctionalInterface
+  interface FileSink {
+    void accept(File inputFile) throws InterruptedException;
+  }
+
+  private InputDiscovery() {}
+
+  /** @return whether the input argument is a glob pattern (rather than a file or directory path) */
+  static boolean isGlob(final String inputArg) {
+    return inputArg.chars().anyMatch(ch -> globChars.indexOf(ch) >= 0);
+  }
+
+  /**
+   * @param inputArg file path, directory path or glob pattern ({@code **} matches zero or more directories)
+   * @param isRecursive whether the files of the subdirectories of a directory are input files too
+   * @param isJsonInput whether the .json files of a directory are input files too (else only .parquet)
+   * @param sink where the discovered files go, in the order found
+   * @return number of files discovered
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  static long discover(final String inputArg, final boolean isRecursive, final boolean isJsonInput,
+                       final FileSink sink)
+        throws IOException, InterruptedException
+  {
+    if (isGlob(inputArg)) {
+      return discoverGlob(inputArg, sink);
+    }
+    final Path inputPath = Paths.get(inputArg);
+    if (!Files.isDirectory(inputPath)) {
+      sink.accept(inputPath.toFile());
+      return 1;
+    }
+    return walk(inputPath, isRecursive ? Integer.MAX_VALUE : 1, filePath -> {
+      final String fileNameLC = filePath.getFileName().toString().toLowerCase();
+      return !fileNameLC.startsWith(".") &&
+             (fileNameLC.endsWith(parquetExtent) || (isJsonInput && fileNameLC.endsWith(jsonExtent)));
+    }, sink);
+  }
+
+  private static long discoverGlob(final String globArg, final FileSink sink)
+        throws IOException, InterruptedException
+  {
+    // the leading directories free of glob characters are where the walk starts
+    final List<String> segments =
+          Arrays.asList(globArg.split(File.separatorChar == '\\' ? "[/\\\\]" : "/", -1));
+    int baseSegmentCount = 0;
+    while (baseSegmentCount < segments.size() - 1 && !isGlob(segments.get(baseSegmentCount))) {
+      baseSegmentCount++;
+    }
+    final String baseDir = String.join("/", segments.subList(0, baseSegmentCount));
+    final Path basePath = Paths.get(baseSegmentCount == 0 ? "." : baseDir.isEmpty() ? "/" : baseDir);
+    final List<String> patternSegments = segments.subList(baseSegmentCount, segments.size());
+    final String pattern = String.join("/", patternSegments);
+    if (!Files.isDirectory(basePath)) {
+      log.warn("no such directory for input pattern: \"{}\"", globArg);
+      return 0;
+    }
+
+    // '**/' also matching no directory at all, as it does in shells
+    final List<PathMatcher> matchers = new ArrayList<>();
+    matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern));
+    if (pattern.contains("**/")) {
+      matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern.replace("**/", "")));
+    }
+    final int maxDepth = pattern.contains("**") ? Integer.MAX_VALUE : patternSegments.size();
+    return walk(basePath, maxDepth, filePath -> {
+      final Path relativePath = basePath.relativize(filePath);
+      return matchers.stream().anyMatch(matcher -> matcher.matches(relativePath));
+    }, sink);
+  }
+
+  private static long walk(final Path dirPath, final int maxDepth, final Predicate<Path> isInputFile,
+                           final FileSink sink)
+        throws IOException, InterruptedException
+  {
+    final long[] fileCount = { 0 };
+    final InterruptedException[] interrupted = { null };
+    final FileVisitor<Path> visitor = new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path filePath, BasicFileAttributes attrs) {
+        if (attrs.isRegularFile() && isInputFile.test(filePath)) {
+          try {
+            sink.accept(filePath.toFile());
+            fileCount[0]++;
+          } catch (InterruptedException e) {
+            interrupted[0] = e;
+            return FileVisitResult.TERMINATE;
+          }
+        }
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFileFailed(Path filePath, IOException e) {
+        log.warn("skipping input path that can't be read: {}", e.toString());
+        return FileVisitResult.CONTINUE;
+      }
+    };
+    Files.walkFileTree(dirPath, Collections.emptySet(), maxDepth, visitor);
+    if (interrupted[0] != null) {
+      throw interrupted[0];
+    }
+    return fileCount[0];
+  }
+}
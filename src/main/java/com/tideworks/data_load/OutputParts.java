@@ -0,0 +1,197 @@
+/* OutputParts.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load;
+
+import com.tideworks.data_load.io.BatchedCsvWriter;
+import com.tideworks.data_load.io.RollingCsvWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * The numbered csv part files of the output of an input file, as written by one
+ * {@link RollingCsvWriter} per segment of the file's row groups.
+ * <p>
+ * A part is written to a temporary file, which is renamed to its numbered part
+ * file name once it is complete and all the parts that precede it (those of prior
+ * segments included) have been - so the part files appear one by one, in row order,
+ * each only once it is whole. Segments being written concurrently, the later ones'
+ * completed parts wait on the earlier segments to be completed.
+ */
+final class OutputParts {
+  private static final Logger log = LoggerFactory.getLogger(OutputParts.class.getSimpleName());
+  private static final String partInfix = ".part-";
+
+  @FunctionalInterface
+  interface WriterFactory {
+    BatchedCsvWriter make(OutputStream outputStream) throws IOException;
+  }
+
+  private static final class Part {
+    private final Path tempFilePath;
+    private boolean isComplete = false;
+
+    private Part(Path tempFilePath) {
+      this.tempFilePath = tempFilePath;
+    }
+  }
+
+  private static final class Segment {
+    private final List<Part> parts = new ArrayList<>();
+    private int publishedCount = 0;
+    private boolean isComplete = false;
+  }
+
+  private final Path outputDirPath;
+  private final String fileNameBase;
+  private final String fileExtent;
+  private final Segment[] segments;
+  private int nextSegment = 0;
+  private final List<Path> publishedPaths = new ArrayList<>();
+  private boolean isAborted = false;
+
+  /**
+   * @param outputDirPath directory of the part files
+   * @param fileNameBase part file names begin with this, followed by the part number
+   * @param fileExtent part file names end with this (e.g., ".csv")
+   * @param segmentCount number of segments that the parts are written by
+   */
+  OutputParts(Path outputDirPath, String fileNameBase, String fileExtent, int segmentCount) {
+    this.outputDirPath = outputDirPath;
+    this.fileNameBase = fileNameBase;
+    this.fileExtent = fileExtent;
+    this.segments = new Segment[segmentCount];
+    for(int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment();
+    }
+  }
+
+  private Path partFilePath(final int partNumber) {
+    return outputDirPath.resolve(String.format("%s%s%05d%s", fileNameBase, partInfix, partNumber, fileExtent));
+  }
+
+  /** Deletes the part files of a prior run, which would otherwise be taken to be parts of this one. */
+  void deleteStaleParts() throws IOException {
+    final String prefix = fileNameBase + partInfix;
+    try (final DirectoryStream<Path> dirStream = Files.newDirectoryStream(outputDirPath)) {
+      for(final Path path : dirStream) {
+        final String fileName = path.getFileName().toString();
+        if (fileName.startsWith(prefix) && fileName.endsWith(fileExtent) &&
+            fileName.length() > prefix.length() + fileExtent.length() &&
+            fileName.substring(prefix.length(), fileName.length() - fileExtent.length()).chars()
+                    .allMatch(Character::isDigit))
+        {
+          Files.deleteIfExists(path);
+          log.debug("deleted part file of prior run: \"{}\"", path);
+        }
+      }
+    }
+  }
+
+  /**
+   * @param segmentIndex index of the segment
+   * @param writerFactory makes the csv writer of a part's output stream
+   * @return where the parts of the segment go
+   */
+  RollingCsvWriter.PartFactory segmentParts(final int segmentIndex, final WriterFactory writerFactory) {
+    final Segment segment = segments[segmentIndex];
+    return new RollingCsvWriter.PartFactory() {
+      @Override
+      public BatchedCsvWriter openPart(int partIndex) throws IOException {
+        final Path tempFilePath = outputDirPath.resolve(
+              String.format(".%s%s%d-%d%s.tmp", fileNameBase, partInfix, segmentIndex, partIndex, fileExtent));
+        synchronized (OutputParts.this) {
+          segment.parts.add(new Part(tempFilePath));
+        }
+        return writerFactory.make(Files.newOutputStream(tempFilePath, CREATE, TRUNCATE_EXISTING, WRITE));
+      }
+
+      @Override
+      public void partCompleted(int partIndex) throws IOException {
+        synchronized (OutputParts.this) {
+          segment.parts.get(partIndex).isComplete = true;
+          publish();
+        }
+      }
+
+      @Override
+      public void partFailed(int partIndex) throws IOException {
+        final Path tempFilePath;
+        synchronized (OutputParts.this) {
+          tempFilePath = segment.parts.get(partIndex).tempFilePath;
+        }
+        Files.deleteIfExists(tempFilePath); // never to be complete - the segment's failure aborts the parts
+      }
+    };
+  }
+
+  /** All the parts of the segment have been written. */
+  synchronized void segmentCompleted(final int segmentIndex) throws IOException {
+    segments[segmentIndex].isComplete = true;
+    publish();
+  }
+
+  // renames the completed parts, in order, up to the first that is not (or of a segment that is not)
+  private void publish() throws IOException {
+    if (isAborted) {
+      deleteUnpublished();
+      return;
+    }
+    while (nextSegment < segments.length) {
+      final Segment segment = segments[nextSegment];
+      while (segment.publishedCount < segment.parts.size() && segment.parts.get(segment.publishedCount).isComplete) {
+        final Path partFilePath = partFilePath(publishedPaths.size() + 1);
+        Files.move(segment.parts.get(segment.publishedCount++).tempFilePath, partFilePath,
+                   StandardCopyOption.ATOMIC_MOVE);
+        publishedPaths.add(partFilePath);
+        log.debug("completed csv part file: \"{}\"", partFilePath);
+      }
+      if (!segment.isComplete || segment.publishedCount < segment.parts.size()) {
+        break;
+      }
+      nextSegment++;
+    }
+  }
+
+  /**
+   * Abandons the parts not yet renamed: their temporary files are deleted (now, or
+   * once their writers are closed) - the parts already renamed remain.
+   */
+  synchronized void abort() {
+    isAborted = true;
+    try {
+      deleteUnpublished();
+    } catch (IOException e) {
+      log.warn("failed deleting temporary part file: {}", e.toString());
+    }
+  }
+
+  private void deleteUnpublished() throws IOException {
+    for(final Segment segment : segments) {
+      for(int i = segment.publishedCount; i < segment.parts.size(); i++) {
+        if (segment.parts.get(i).isComplete) {
+          Files.deleteIfExists(segment.parts.get(i).tempFilePath);
+        }
+      }
+    }
+  }
+
+  /** @return the part files completed so far, in order */
+  synchronized List<Path> getPublishedPaths() { return new ArrayList<>(publishedPaths); }
+}
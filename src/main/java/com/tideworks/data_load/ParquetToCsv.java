@@ -6,275 +6,1104 @@
  */
 package com.tideworks.data_load;
 
-import com.tideworks.data_load.io.BufferedWriterExt;
-import org.apache.avro.Conversions;
-import org.apache.avro.LogicalType;
-import org.apache.avro.LogicalTypes;
+import com.tideworks.data_load.csv.ColumnarPlan;
+import com.tideworks.data_load.csv.FormatterPlan;
+import com.tideworks.data_load.csv.PlanCache;
+import com.tideworks.data_load.io.BatchedCsvWriter;
+import com.tideworks.data_load.io.BoundedPipe;
+import com.tideworks.data_load.io.CsvRowWriter;
+import com.tideworks.data_load.io.MeteredInputFile;
+import com.tideworks.data_load.io.MeteredOutputStream;
+import com.tideworks.data_load.io.RollingCsvWriter;
+import com.tideworks.data_load.io.PooledCodecFactory;
+import com.tideworks.data_load.io.Prefetcher;
+import com.tideworks.data_load.io.RowGroupBuffers;
+import com.tideworks.data_load.jfr.FileConversionEvent;
+import com.tideworks.data_load.jfr.FlightEvents;
+import com.tideworks.data_load.jfr.RowGroupReadEvent;
+import com.tideworks.data_load.util.AvroSchemas;
+import com.tideworks.data_load.util.ConversionContext;
+import com.tideworks.data_load.util.MemoryBudget;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.ParquetReadOptions;
 import org.apache.parquet.avro.AvroParquetReader;
+import org.apache.parquet.avro.AvroReadSupport;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.SchemaCompatibilityValidator;
+import org.apache.parquet.filter2.statisticslevel.StatisticsFilter;
+import org.apache.parquet.hadoop.ParquetFileReader;
 import org.apache.parquet.hadoop.ParquetReader;
-import org.joda.time.DateTime;
-import org.joda.time.format.DateTimeFormatter;
-import org.joda.time.format.ISODateTimeFormat;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.FileMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.schema.MessageType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.math.BigDecimal;
 import java.nio.ByteBuffer;
-import java.nio.charset.Charset;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.sql.Timestamp;
-import java.text.DateFormat;
-import java.text.FieldPosition;
-import java.text.ParsePosition;
-import java.time.Instant;
-import java.time.OffsetDateTime;
-import java.time.ZoneId;
-import java.util.Date;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
-import java.util.function.BiFunction;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static com.tideworks.data_load.io.InputFile.nioPathToInputFile;
 import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
 import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 
 public class ParquetToCsv {
-  private static final String csvDelimiter = ",";
   private static final Logger log = LoggerFactory.getLogger(ParquetToCsv.class.getSimpleName());
   private static final String fileExtent = ".parquet";
   private static final String notParquetFileErrMsgFmt =
           "\"{}\" does not end in '{}' - thus is not assumed to be a Parquet file and is being skipped";
-  private static final String unsupportedFieldIndexErrMsgFmt = "Unsupported field index %d - %s only supports index 0";
-  private static final String SPINNAKER_EPOC_START = "1900-01-01T00:00:00.000-00:00";
-  private static final String MISC_DATETIME_PARSE_ERR = "1900-01-02T00:00:00.000-00:00";
-  private static final DateTime spinnakerEpocStart;
-  private static final DateTime miscDateTimeParseErr;
 
-  static {
-    final DateTimeFormatter dateTimeFormatter = ISODateTimeFormat.dateTime().withOffsetParsed();
-    spinnakerEpocStart = dateTimeFormatter.parseDateTime(SPINNAKER_EPOC_START);
-    miscDateTimeParseErr = dateTimeFormatter.parseDateTime(MISC_DATETIME_PARSE_ERR);
-  }
-
-  static void processToOutput(ZoneId timeZoneId, final String outputDir, final File inputFile) throws IOException {
+  /**
+   * Converts a Parquet file to csv output. A csv file is written under a temporary
+   * name, then renamed to its own once complete - so a csv file (or part file) never
+   * exists half written.
+   *
+   * @return the csv files written (none for stream output, or if there were no rows)
+   * @throws IOException
+   */
+  static List<Path> processToOutput(final ConversionOptions optns, final String outputDir, final File inputFile)
+        throws IOException
+  {
     final String fileName = inputFile.getName();
     if (!fileName.endsWith(fileExtent)) {
       log.error(notParquetFileErrMsgFmt, inputFile, fileExtent);
-      return;
+      return Collections.emptyList();
     }
+    final ConversionMetrics.FileMetrics metrics = optns.metricsOptn.map(m -> m.startFile(inputFile)).orElse(null);
+    final FileConversionEvent event = FlightEvents.isEnabled() ? new FileConversionEvent(inputFile) : null;
+    if (metrics == null && event == null) {
+      return convertToOutput(optns, outputDir, inputFile, null, null);
+    }
+    List<Path> outputs = Collections.emptyList();
+    boolean isConverted = false;
+    try {
+      outputs = convertToOutput(optns, outputDir, inputFile, metrics, event);
+      isConverted = true;
+      return outputs;
+    } finally {
+      if (metrics != null) {
+        metrics.completed(outputs, isConverted);
+      }
+      if (event != null) {
+        event.completed(outputs, isConverted);
+      }
+    }
+  }
+
+  private static List<Path> convertToOutput(final ConversionOptions optns,
+                                            final String outputDir,
+                                            final File inputFile,
+                                            final ConversionMetrics.FileMetrics metrics,
+                                            final FileConversionEvent event)
+        throws IOException
+  {
+    final String fileName = inputFile.getName();
     final int endIndex = fileName.lastIndexOf(fileExtent);
     final String fileNameBase = fileName.substring(0, endIndex);
-    final Path csvOutputFilePath = Paths.get(outputDir, fileNameBase + ".csv");
+    final Path csvOutputFilePath = Paths.get(outputDir, fileNameBase + ".csv" + optns.compression.getFileExtent());
 
-    final StringBuilder rowStrBuf = new StringBuilder(1024);
-    final BiFunction<Schema.Field, Object, StringBuilder> fieldValueFormatter =
-            makeFieldValueFormatter(timeZoneId, rowStrBuf);
-
-    final Charset utf8 = StandardCharsets.UTF_8;
-    final int ioStreamBufSize = 16 * 1024;
-    final OutputStream csvOutputStream = Files.newOutputStream(csvOutputFilePath, CREATE, TRUNCATE_EXISTING);
-    final Writer outputWriter = new BufferedWriterExt(new OutputStreamWriter(csvOutputStream, utf8), ioStreamBufSize);
-
-    Schema.Field[] fields = null;
-    String[] fieldNames = new String[0];
-    try (final Writer csvOutputWriter = outputWriter;
-         final ParquetReader<GenericData.Record> reader = AvroParquetReader
-                 .<GenericData.Record>builder(nioPathToInputFile(inputFile.toPath()))
-                 .withConf(new Configuration())
-                 .build())
+    final ParquetMetadata footer;
+    try (final ParquetFileReader fileReader = ParquetFileReader.open(nioPathToInputFile(inputFile.toPath()),
+                                                                    ConversionContext.get().newReadOptions().build()))
     {
-      GenericData.Record record;
-      while ((record = reader.read()) != null) {
-        if (fields == null) {
-          final List<Schema.Field> fieldsList = record.getSchema().getFields();
-          fieldNames = getFieldNames(fields = fieldsList.toArray(new Schema.Field[0]));
-          csvOutputWriter.write(String.join(csvDelimiter, fieldNames));
-          csvOutputWriter.write('\n');
+      footer = fileReader.getFooter();
+    }
+    final ReadPlan readPlan = compileReadPlan(optns, footer, inputFile);
+    final List<BlockMetaData> rowGroups = footer.getBlocks();
+    if (metrics != null || event != null) {
+      final List<BlockMetaData> selectedRowGroups = selectRowGroups(rowGroups, readPlan);
+      if (metrics != null) {
+        metrics.setRowGroups(rowGroups.size(), selectedRowGroups.size());
+      }
+      if (event != null) {
+        event.setRowGroups(selectedRowGroups.size(),
+                           selectedRowGroups.stream().mapToLong(BlockMetaData::getRowCount).sum());
+      }
+    }
+    final MemoryBudget.Reservation reservation = reserveMemory(optns, inputFile, rowGroups, readPlan);
+    try {
+      return writeOutput(optns, inputFile, rowGroups, readPlan, outputDir, fileNameBase, csvOutputFilePath, metrics);
+    } finally {
+      if (reservation != null) {
+        reservation.close();
+      }
+    }
+  }
+
+  // writes the csv output of the row groups - to a file, to part files or to the output stream
+  private static List<Path> writeOutput(final ConversionOptions optns,
+                                        final File inputFile,
+                                        final List<BlockMetaData> rowGroups,
+                                        final ReadPlan readPlan,
+                                        final String outputDir,
+                                        final String fileNameBase,
+                                        final Path csvOutputFilePath,
+                                        final ConversionMetrics.FileMetrics metrics)
+        throws IOException
+  {
+    if (optns.streamOutputOptn.isPresent()) {
+      processToStream(optns, inputFile, rowGroups, readPlan, optns.streamOutputOptn.get(), metrics);
+      return Collections.emptyList();
+    }
+    if (optns.maxPartRows > 0 || optns.maxPartBytes > 0) {
+      return processToParts(optns, inputFile, rowGroups, readPlan, outputDir, fileNameBase, metrics);
+    }
+
+    final Path tempFilePath = csvOutputFilePath.resolveSibling("." + csvOutputFilePath.getFileName() + ".tmp");
+    boolean hasRows;
+    try {
+      try (final FileChannel csvOutputChannel = FileChannel.open(tempFilePath, CREATE, TRUNCATE_EXISTING, WRITE)) {
+        if (readPlan.rowGroupJobs > 1 && rowGroups.size() > 1) {
+          hasRows = processRowGroupsToOutput(optns, inputFile, rowGroups, readPlan, csvOutputFilePath,
+                                             csvOutputChannel, metrics);
+        } else {
+          final ConversionMetrics.SegmentMeter meter = metrics != null ? metrics.newSegment() : null;
+          try (final BatchedCsvWriter csvOutputWriter =
+                     makeCsvOutputWriter(optns, Channels.newOutputStream(csvOutputChannel), meter))
+          {
+            hasRows = writeRows(optns, makeInputFile(optns, inputFile, rowGroups, readPlan), readPlan, null,
+                                csvOutputWriter, true, meter) != null;
+          }
+          if (meter != null) {
+            meter.completed();
+          }
+        }
+      }
+      if (hasRows) {
+        Files.move(tempFilePath, csvOutputFilePath, StandardCopyOption.ATOMIC_MOVE);
+      }
+    } finally {
+      Files.deleteIfExists(tempFilePath);
+    }
+    if (!hasRows) { // no rows (when compressed, the file would still not be empty)
+      if (Files.deleteIfExists(csvOutputFilePath)) {
+        log.debug("deleted csv data file of prior run: \"{}\"", csvOutputFilePath);
+      }
+      log.warn("csv data file was empty (and was not written): \"{}\"", csvOutputFilePath);
+      return Collections.emptyList();
+    }
+    return Collections.singletonList(csvOutputFilePath);
+  }
+
+  /** How the rows of a Parquet file are read - which of its columns and rows, and whether column by column. */
+  private static final class ReadPlan {
+    private final MessageType fileSchema;
+    private final Schema fileAvroSchema;
+    private final Optional<ColumnarPlan> columnarPlanOptn;
+    private final Optional<Schema> projectionOptn; // the fields written
+    private final Optional<Schema> readSchemaOptn; // the fields read - those written, then any more the filter needs
+    private final FilterCompat.Filter filter;
+    private final long readerMemory;  // estimate of the memory that a reader of the row groups takes, at most
+    private final int rowGroupJobs;   // number of row groups read concurrently
+    private final int segmentCount;   // number of segments that the row groups are divided into, if concurrently
+
+    private ReadPlan(MessageType fileSchema, Schema fileAvroSchema, Optional<ColumnarPlan> columnarPlanOptn,
+                     Optional<Schema> projectionOptn, Optional<Schema> readSchemaOptn, FilterCompat.Filter filter,
+                     long readerMemory, int rowGroupJobs, int segmentCount)
+    {
+      this.fileSchema = fileSchema;
+      this.fileAvroSchema = fileAvroSchema;
+      this.columnarPlanOptn = columnarPlanOptn;
+      this.projectionOptn = projectionOptn;
+      this.readSchemaOptn = readSchemaOptn;
+      this.filter = filter;
+      this.readerMemory = readerMemory;
+      this.rowGroupJobs = rowGroupJobs;
+      this.segmentCount = segmentCount;
+    }
+
+    /** @return the column chunks of the row group that are of columns that are read */
+    private Stream<ColumnChunkMetaData> readColumnChunks(final BlockMetaData rowGroup) {
+      return ParquetToCsv.readColumnChunks(rowGroup, fileSchema, readSchemaOptn);
+    }
+
+    /** @return header line (without line terminator) of the csv rows, as they are written */
+    private String getHeader(final ConversionOptions optns) {
+      return columnarPlanOptn.map(ColumnarPlan::getHeader).orElseGet(() ->
+            planCache.formatterPlan(projectionOptn.orElse(fileAvroSchema), optns.timeZoneId, optns.isExactFloats)
+                     .getHeader());
+    }
+  }
+
+  /**
+   * The requested columns are projected from the Avro schema of the file, and the
+   * where clause is bound to its Parquet schema. Column by column reading does not
+   * filter rows, so a filtered file is read as Avro records - of the projected
+   * fields followed by those of any other columns the filter compares.
+   * <p>
+   * Given a memory budget, the row groups are read no more of them at a time than
+   * the budget has room for (see {@link #readerMemory}).
+   */
+  private static ReadPlan compileReadPlan(final ConversionOptions optns,
+                                          final ParquetMetadata footer,
+                                          final File inputFile)
+  {
+    final FileMetaData fileMetaData = footer.getFileMetaData();
+    final Schema fileAvroSchema = AvroSchemas.fileAvroSchema(fileMetaData);
+    final Optional<Schema> projectionOptn =
+          optns.columnNamesOptn.map(columnNames -> AvroSchemas.project(fileAvroSchema, columnNames));
+    final FilterCompat.Filter filter = optns.whereClauseOptn
+          .map(whereClause -> FilterCompat.get(whereClause.bind(fileMetaData.getSchema(), optns.timeZoneId)))
+          .orElse(FilterCompat.NOOP);
+    final Optional<Schema> readSchemaOptn = projectionOptn.map(projection -> {
+      if (!optns.whereClauseOptn.isPresent()) {
+        return projection;
+      }
+      final List<String> readFieldNames = new ArrayList<>();
+      projection.getFields().forEach(field -> readFieldNames.add(field.name()));
+      AvroSchemas.project(fileAvroSchema, optns.whereClauseOptn.get().getFieldNames()).getFields().forEach(field -> {
+        if (!readFieldNames.contains(field.name())) {
+          readFieldNames.add(field.name());
+        }
+      });
+      return AvroSchemas.project(fileAvroSchema, readFieldNames);
+    });
+
+    final Optional<ColumnarPlan> columnarPlanOptn = optns.isAvroRecordReader || filter != FilterCompat.NOOP
+          ? Optional.empty()
+          : planCache.columnarPlan(fileMetaData, projectionOptn.orElse(fileAvroSchema),
+                                   optns.timeZoneId, optns.isExactFloats);
+    log.debug("reading {}: \"{}\"", columnarPlanOptn.isPresent() ? "column by column" : "Avro records", inputFile);
+
+    final long readerMemory = readerMemory(optns, selectRowGroups(footer.getBlocks(), filter, fileMetaData.getSchema()),
+                                           fileMetaData.getSchema(), readSchemaOptn);
+    final int rowGroupJobs = optns.memoryBudgetOptn
+          .map(budget -> (int) Math.max(1, Math.min(optns.rowGroupJobs, budget.getBudgetBytes() / readerMemory)))
+          .orElse(optns.rowGroupJobs);
+    if (rowGroupJobs < optns.rowGroupJobs && footer.getBlocks().size() > 1) {
+      log.info("reading {} row groups at a time, as the memory budget allows (each takes up to {}): \"{}\"",
+               rowGroupJobs, MemoryBudget.formatSize(readerMemory), inputFile);
+    }
+    // the row group threads are shared by the files: segments beyond the number of row groups to be
+    // read at a time would be read concurrently too, if threads are available
+    final int segmentCount = rowGroupJobs < optns.rowGroupJobs ? rowGroupJobs : rowGroupJobs * 2;
+    return new ReadPlan(fileMetaData.getSchema(), fileAvroSchema, columnarPlanOptn, projectionOptn, readSchemaOptn, filter,
+                        readerMemory, rowGroupJobs, segmentCount);
+  }
+
+  /**
+   * Estimates the memory that a reader of the row groups takes at most: for the row
+   * group that takes the most, its column chunks that are read - parquet-hadoop reads
+   * them whole - and a decompressed page of each; plus the buffers of the csv output.
+   */
+  private static long readerMemory(final ConversionOptions optns,
+                                   final List<BlockMetaData> rowGroups,
+                                   final MessageType fileSchema,
+                                   final Optional<Schema> readSchemaOptn)
+  {
+    long rowGroupMemory = 0;
+    for(final BlockMetaData rowGroup : rowGroups) {
+      rowGroupMemory = Math.max(rowGroupMemory, readColumnChunks(rowGroup, fileSchema, readSchemaOptn)
+            .mapToLong(MemoryBudget::readMemory)
+            .sum());
+    }
+    long outputMemory = BatchedCsvWriter.DEFAULT_BUFFER_SIZE + optns.compression.bufferMemory();
+    if (optns.streamOutputOptn.isPresent() && optns.rowGroupJobs > 1) {
+      outputMemory += segmentPipeChunks * (long) BatchedCsvWriter.DEFAULT_BUFFER_SIZE;
+    }
+    return rowGroupMemory + outputMemory;
+  }
+
+  // the column chunks of the row group whose (top-level) fields are read - a row group's column chunks
+  // are in the order of the file schema's columns, whose paths name them
+  private static Stream<ColumnChunkMetaData> readColumnChunks(final BlockMetaData rowGroup,
+                                                              final MessageType fileSchema,
+                                                              final Optional<Schema> readSchemaOptn)
+  {
+    final List<ColumnChunkMetaData> columnChunks = rowGroup.getColumns();
+    if (!readSchemaOptn.isPresent()) {
+      return columnChunks.stream();
+    }
+    final List<String[]> columnPaths = fileSchema.getPaths();
+    return IntStream.range(0, columnChunks.size())
+          .filter(i -> readSchemaOptn.get().getField(columnPaths.get(i)[0]) != null)
+          .mapToObj(columnChunks::get);
+  }
+
+  /**
+   * Reserves the memory that the reading of the row groups takes, of the memory budget
+   * (waiting until available).
+   *
+   * @return the reservation, or null if there is no memory budget
+   * @throws IOException if the reading takes more memory than the whole budget
+   */
+  private static MemoryBudget.Reservation reserveMemory(final ConversionOptions optns,
+                                                        final File inputFile,
+                                                        final List<BlockMetaData> rowGroups,
+                                                        final ReadPlan readPlan)
+        throws IOException
+  {
+    if (!optns.memoryBudgetOptn.isPresent()) {
+      return null;
+    }
+    final int readerCount = readPlan.rowGroupJobs > 1 ? Math.min(readPlan.rowGroupJobs, rowGroups.size()) : 1;
+    return optns.memoryBudgetOptn.get().reserve(readerCount * readPlan.readerMemory,
+                                                () -> String.format("reading \"%s\"", inputFile));
+  }
+
+  /**
+   * Makes the input file to read the row groups of a Parquet file from; the column
+   * chunks of the row groups are read ahead, in order, unless read ahead is disabled.
+   * Only the chunks of the columns that are read, of the row groups whose statistics
+   * don't rule out rows that pass the filter, are read ahead.
+   */
+  private static org.apache.parquet.io.InputFile makeInputFile(final ConversionOptions optns,
+                                                               final File inputFile,
+                                                               final List<BlockMetaData> rowGroups,
+                                                               final ReadPlan readPlan)
+        throws IOException
+  {
+    if (optns.prefetchBytes <= 0) {
+      return nioPathToInputFile(inputFile.toPath());
+    }
+    final List<long[]> ranges = new ArrayList<>();
+    for(final BlockMetaData rowGroup : selectRowGroups(rowGroups, readPlan)) {
+      readPlan.readColumnChunks(rowGroup).forEach(columnChunk -> {
+        final long start = columnChunk.getStartingPos();
+        final long end = start + columnChunk.getTotalSize();
+        final long[] lastRange = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+        if (lastRange != null && lastRange[1] == start) {
+          lastRange[1] = end; // contiguous
+        } else {
+          ranges.add(new long[]{ start, end });
         }
-        rowStrBuf.setLength(0);
-        int i = 0;
-        for(final String fieldName : fieldNames) {
-          fieldValueFormatter.apply(fields[i++], record.get(fieldName)).append(csvDelimiter);
+      });
+    }
+    return getPrefetcher(optns.prefetchBytes).nioPathToInputFile(inputFile.toPath(), ranges);
+  }
+
+  // the row groups whose statistics don't rule out rows that pass the filter
+  private static List<BlockMetaData> selectRowGroups(final List<BlockMetaData> rowGroups, final ReadPlan readPlan) {
+    return selectRowGroups(rowGroups, readPlan.filter, readPlan.fileSchema);
+  }
+
+  private static List<BlockMetaData> selectRowGroups(final List<BlockMetaData> rowGroups,
+                                                     final FilterCompat.Filter filter,
+                                                     final MessageType fileSchema)
+  {
+    if (!(filter instanceof FilterCompat.FilterPredicateCompat)) {
+      return rowGroups;
+    }
+    // as RowGroupFilter does at its statistics level
+    final FilterPredicate predicate = ((FilterCompat.FilterPredicateCompat) filter).getFilterPredicate();
+    SchemaCompatibilityValidator.validate(predicate, fileSchema);
+    return rowGroups.stream()
+          .filter(rowGroup -> !StatisticsFilter.canDrop(predicate, rowGroup.getColumns()))
+          .collect(Collectors.toList());
+  }
+
+  /**
+   * @param input Parquet file to be read
+   * @param readPlan the columns and rows to be read
+   * @param fileRange start and end file offsets that select the row groups to be read (null for all)
+   */
+  private static ParquetReader<GenericData.Record> makeRecordReader(final org.apache.parquet.io.InputFile input,
+                                                                    final ReadPlan readPlan,
+                                                                    final long[] fileRange)
+        throws IOException
+  {
+    final Configuration conf = ConversionContext.get().newConfiguration();
+    readPlan.readSchemaOptn.ifPresent(readSchema -> {
+      AvroReadSupport.setRequestedProjection(conf, readSchema);
+      AvroReadSupport.setAvroReadSchema(conf, readSchema);
+    });
+    final ParquetReader.Builder<GenericData.Record> builder = AvroParquetReader
+          .<GenericData.Record>builder(input)
+          .withConf(conf)
+          .withFilter(readPlan.filter);
+    if (fileRange != null) {
+      builder.withFileRange(fileRange[0], fileRange[1]);
+    }
+    return builder.build();
+  }
+
+  /**
+   * @param csvOutputStream destination of the csv output
+   * @param meter meters the writes of the (compressed) csv output batches - if metrics are collected, else null
+   */
+  private static BatchedCsvWriter makeCsvOutputWriter(final ConversionOptions optns,
+                                                      final OutputStream csvOutputStream,
+                                                      final ConversionMetrics.SegmentMeter meter)
+        throws IOException
+  {
+    final OutputStream compressedOutputStream =
+          optns.compression.compress(csvOutputStream, ParquetToCsv::getCompressionExecutor);
+    return new BatchedCsvWriter(meter != null ? new MeteredOutputStream(compressedOutputStream, meter::wrote)
+                                              : compressedOutputStream,
+                                BatchedCsvWriter.DEFAULT_BUFFER_SIZE, optns.flushRowInterval, optns.flushByteInterval);
+  }
+
+  /**
+   * Writes all the records obtained from the reader as csv rows.
+   *
+   * @param optns settings that govern how values are rendered
+   * @param reader source of the records to be written
+   * @param projectionOptn the leading fields of the records that are to be written (else all)
+   * @param csvOutputWriter destination of the csv rows
+   * @param isWriteHeader whether to precede the first row with a header line of the field names
+   * @param meter meters the formatting of the rows - if metrics are collected, else null
+   * @return the header line (without line terminator) or null if the reader yielded no records
+   * @throws IOException
+   */
+  private static String writeRecords(final ConversionOptions optns,
+                                     final ParquetReader<GenericData.Record> reader,
+                                     final Optional<Schema> projectionOptn,
+                                     final CsvRowWriter csvOutputWriter,
+                                     final boolean isWriteHeader,
+                                     final ConversionMetrics.SegmentMeter meter)
+        throws IOException
+  {
+    final StringBuilder rowStrBuf = new StringBuilder(1024);
+    FormatterPlan formatterPlan = null;
+    GenericData.Record record;
+    long rowCount = 0;
+    while ((record = reader.read()) != null) {
+      if (meter != null) {
+        meter.beginFormat();
+      }
+      if (formatterPlan == null) {
+        formatterPlan = planCache.formatterPlan(projectionOptn.orElse(record.getSchema()),
+                                                optns.timeZoneId, optns.isExactFloats);
+        if (isWriteHeader) {
+          rowStrBuf.setLength(0);
+          csvOutputWriter.writeRow(rowStrBuf.append(formatterPlan.getHeader()).append('\n'));
         }
-        rowStrBuf.deleteCharAt(rowStrBuf.length() - 1).append('\n');
-        csvOutputWriter.append(rowStrBuf);
-        csvOutputWriter.flush();
       }
-      if (Files.size(csvOutputFilePath) <= 0) {
-        Files.delete(csvOutputFilePath);
-        log.warn("csv data file was empty (and was deleted): \"{}\"", csvOutputFilePath);
+      formatterPlan.formatRow(record, rowStrBuf);
+      csvOutputWriter.writeRow(rowStrBuf);
+      if (meter != null) {
+        meter.endFormat();
+        if ((++rowCount & meteredRowsMask) == 0) {
+          meter.rowsWritten(meteredRowsMask + 1);
+        }
       }
     }
+    if (meter != null) {
+      meter.rowsWritten(rowCount & meteredRowsMask);
+    }
+    return formatterPlan != null ? formatterPlan.getHeader() : null;
   }
 
-  private static String[] getFieldNames(final Schema.Field[] fields) {
-    final String[] fieldNames = new String[fields.length];
-    int i = 0;
-    for(final Schema.Field field : fields) {
-      fieldNames[i++] = field.name().toUpperCase();
+  /**
+   * Writes all the rows of the row groups obtained from the file reader as csv rows.
+   *
+   * @param columnarPlan the compiled rendering of the file's columns
+   * @param fileReader source of the row groups to be written
+   * @param rowGroupBuffers buffers that the file reader reads a row group into
+   * @param csvOutputWriter destination of the csv rows
+   * @param isWriteHeader whether to precede the first row with a header line of the field names
+   * @param meter meters the formatting of the rows - if metrics are collected, else null
+   * @return the header line (without line terminator) or null if the row groups have no rows
+   * @throws IOException
+   */
+  private static String writeColumnarRows(final ColumnarPlan columnarPlan,
+                                          final ParquetFileReader fileReader,
+                                          final RowGroupBuffers rowGroupBuffers,
+                                          final CsvRowWriter csvOutputWriter,
+                                          final boolean isWriteHeader,
+                                          final ConversionMetrics.SegmentMeter meter)
+        throws IOException
+  {
+    final StringBuilder rowStrBuf = new StringBuilder(1024);
+    boolean hasRows = false;
+    int rowGroupIndex = 0;
+    PageReadStore rowGroup;
+    while ((rowGroup = readNextRowGroup(fileReader, rowGroupBuffers, columnarPlan.getRequestedSchema(),
+                                        rowGroupIndex++)) != null)
+    {
+      if (!hasRows && rowGroup.getRowCount() > 0) {
+        hasRows = true;
+        if (isWriteHeader) {
+          rowStrBuf.setLength(0);
+          csvOutputWriter.writeRow(rowStrBuf.append(columnarPlan.getHeader()).append('\n'));
+        }
+      }
+      if (meter != null) {
+        meter.beginFormat();
+        final long rowCount = columnarPlan.writeRowGroup(rowGroup, rowStrBuf, csvOutputWriter);
+        meter.endFormat();
+        meter.rowsWritten(rowCount);
+      } else {
+        columnarPlan.writeRowGroup(rowGroup, rowStrBuf, csvOutputWriter);
+      }
     }
-    return fieldNames;
+    return hasRows ? columnarPlan.getHeader() : null;
   }
 
-  private static BiFunction<Schema.Field, Object, StringBuilder> makeFieldValueFormatter(final ZoneId timeZoneId,
-                                                                                         final StringBuilder rowStrBuf)
+  // reads the column chunks of the next row group - as a JFR event, if enabled - into buffers that
+  // replace those of the prior row group, whose rows have been written
+  private static PageReadStore readNextRowGroup(final ParquetFileReader fileReader,
+                                                final RowGroupBuffers rowGroupBuffers,
+                                                final MessageType requestedSchema,
+                                                final int rowGroupIndex)
+        throws IOException
   {
-    final TimestampISO8601Format dateTimeFormatter = new TimestampISO8601Format(timeZoneId);
-    final Conversions.DecimalConversion decimalConverter = new Conversions.DecimalConversion();
-    final Conversions.UUIDConversion uuidLogicalTypeName = new Conversions.UUIDConversion();
-    return (field, fieldValue) ->
-               formatFieldValue(dateTimeFormatter, decimalConverter, uuidLogicalTypeName, rowStrBuf, field, fieldValue);
-  }
-
-  private static StringBuilder formatFieldValue(final TimestampISO8601Format dateTimeFormatter,
-                                                final Conversions.DecimalConversion decimalConverter,
-                                                final Conversions.UUIDConversion uuidLogicalTypeName,
-                                                final StringBuilder rowStrBuf,
-                                                final Schema.Field field,
-                                                final Object fieldValue)
+    rowGroupBuffers.releaseAll();
+    if (!FlightEvents.isEnabled()) {
+      return fileReader.readNextRowGroup();
+    }
+    final RowGroupReadEvent event = new RowGroupReadEvent();
+    final PageReadStore rowGroup = fileReader.readNextRowGroup();
+    if (rowGroup != null) {
+      final BlockMetaData block = fileReader.getRowGroups().get(rowGroupIndex);
+      final List<ColumnChunkMetaData> columnChunks = block.getColumns();
+      final List<String[]> columnPaths = fileReader.getFileMetaData().getSchema().getPaths();
+      final long compressedSize = IntStream.range(0, columnChunks.size())
+            .filter(i -> requestedSchema.containsPath(columnPaths.get(i)))
+            .mapToLong(i -> columnChunks.get(i).getTotalSize())
+            .sum();
+      event.completed(fileReader.getFile(), block.getStartingPos(), rowGroup.getRowCount(),
+                      requestedSchema.getColumns().size(), compressedSize);
+    }
+    return rowGroup;
+  }
+
+  private static final class RowGroupsSegment {
+    private final Path segmentFilePath;
+    private final String header;
+
+    private RowGroupsSegment(Path segmentFilePath, String header) {
+      this.segmentFilePath = segmentFilePath;
+      this.header = header;
+    }
+  }
+
+  /**
+   * Converts the row groups of a Parquet file in parallel.
+   * <p>
+   * The row groups are partitioned into contiguous file ranges (segments); each
+   * segment is converted by a worker into its own temporary csv file and these are
+   * then appended, in original row order, to the csv output file. When the output
+   * is compressed, each segment (and the header) is compressed on its own - the
+   * concatenation being a valid compressed stream of the whole.
+   *
+   * @param csvOutputFilePath path of the csv output file, which the temporary files are named after
+   * @param csvOutputChannel channel the csv output is written to
+   * @param metrics metrics of the file's conversion - if collected, else null
+   * @return whether any rows were written
+   */
+  private static boolean processRowGroupsToOutput(final ConversionOptions optns,
+                                                  final File inputFile,
+                                                  final List<BlockMetaData> rowGroups,
+                                                  final ReadPlan readPlan,
+                                                  final Path csvOutputFilePath,
+                                                  final FileChannel csvOutputChannel,
+                                                  final ConversionMetrics.FileMetrics metrics)
+        throws IOException
   {
-    final Schema fieldSchema = field.schema();
-    LogicalType logicalType = fieldSchema.getLogicalType();
-    if (logicalType == null) {
-      Schema.Type fieldType = fieldSchema.getType();
-      if (fieldType == Schema.Type.UNION) {
-        fieldType = null;
-        for(final Schema unionType : fieldSchema.getTypes()) {
-          final LogicalType unionLogicalType = unionType.getLogicalType();
-          if (unionLogicalType != null && logicalType == null) {
-            logicalType = unionLogicalType;
-            continue;
+    final ExecutorService executor = getRowGroupExecutor(optns.rowGroupJobs);
+    final Path outputDirPath = csvOutputFilePath.toAbsolutePath().getParent();
+    final String segmentFileNamePrefix = "." + csvOutputFilePath.getFileName() + ".seg";
+    final List<long[]> segmentRanges = makeSegmentRanges(rowGroups, readPlan.segmentCount);
+    log.debug("converting {} row groups as {} parallel segments: \"{}\"",
+              rowGroups.size(), segmentRanges.size(), inputFile);
+
+    final AtomicBoolean isAborted = new AtomicBoolean(false);
+    final List<Future<RowGroupsSegment>> segments = new ArrayList<>(segmentRanges.size());
+    for(final long[] segmentRange : segmentRanges) {
+      segments.add(executor.submit(() -> {
+        if (isAborted.get()) return null;
+        final Path segmentFilePath = Files.createTempFile(outputDirPath, segmentFileNamePrefix, ".tmp");
+        final ConversionMetrics.SegmentMeter meter = metrics != null ? metrics.newSegment() : null;
+        final RowGroupsSegment segment;
+        try (final BatchedCsvWriter csvOutputWriter =
+                   makeCsvOutputWriter(optns, Files.newOutputStream(segmentFilePath, WRITE), meter))
+        {
+          final org.apache.parquet.io.InputFile input =
+                makeInputFile(optns, inputFile, rowGroupsWithin(rowGroups, segmentRange), readPlan);
+          segment = new RowGroupsSegment(segmentFilePath,
+                                         writeRows(optns, input, readPlan, segmentRange, csvOutputWriter, false, meter));
+        } catch (Throwable e) {
+          Files.deleteIfExists(segmentFilePath);
+          throw e;
+        }
+        if (meter != null) {
+          meter.completed();
+        }
+        return segment;
+      }));
+    }
+
+    boolean isHeaderWritten = false;
+    int i = 0;
+    try {
+      for(; i < segments.size(); i++) {
+        final RowGroupsSegment segment = getSegment(segments.get(i));
+        try (final FileChannel segmentChannel = FileChannel.open(segment.segmentFilePath, READ)) {
+          if (segment.header != null && !isHeaderWritten) {
+            writeFully(csvOutputChannel, ByteBuffer.wrap(compressHeader(optns, segment.header)));
+            isHeaderWritten = true;
           }
-          if (unionLogicalType == null && fieldType == null) {
-            fieldType = unionType.getType();
+          final long segmentSize = segmentChannel.size();
+          long position = 0;
+          while (position < segmentSize) {
+            position += segmentChannel.transferTo(position, segmentSize - position, csvOutputChannel);
           }
+        } finally {
+          Files.delete(segment.segmentFilePath);
         }
       }
-      if (logicalType == null) {
-        if (fieldType != null) {
-          switch (fieldType) {
-            case RECORD:
-            case ARRAY:
-            case MAP:
-            case UNION:
-            case FIXED:
-            case BYTES:
-              throw new UnsupportedOperationException();
-            default: {
-              if (fieldValue != null) {
-                switch (fieldType) {
-                  case ENUM:
-                  case STRING:
-                    return rowStrBuf.append('\'').append(fieldValue).append('\'');
-                  case INT:
-                    break;
-                  case LONG:
-                    break;
-                  case FLOAT: {
-                    if (fieldValue instanceof Float) {
-                      // Use of 'new BigDecimal(arg)' may yield different result than 'BigDecimal.valueOf(arg)'
-                      // when the argument is a floating point; the latter usage may produce an appended numeric
-                      // decimal point zero ('.0') when is actually a whole number, while the former may produce
-                      // a whole number without any decimal point numeric component (when converted via toString).
-                      // From: JavaDoc
-                      // When a double must be used as a source for a BigDecimal, note that this constructor
-                      // provides an exact conversion; it does not give the same result as converting the
-                      // double to a String using the Double.toString(double) method and then using the
-                      // BigDecimal(String) constructor. To get that result, use the static valueOf(double) method.
-                      //noinspection UnpredictableBigDecimalConstructorCall
-                      return rowStrBuf.append(new BigDecimal((Float) fieldValue));
-                    } else if (fieldValue instanceof Double) {
-                      //noinspection UnpredictableBigDecimalConstructorCall
-                      return rowStrBuf.append(new BigDecimal((Double) fieldValue));
-                    }
-                    break;
-                  }
-                  case DOUBLE:
-                    if (fieldValue instanceof Double) {
-                      //noinspection UnpredictableBigDecimalConstructorCall
-                      return rowStrBuf.append(new BigDecimal((Double) fieldValue));
-                    }
-                  case BOOLEAN:
-                    break;
-                  case NULL:
-                    break;
-                }
-              }
+    } finally {
+      // on failure, don't leave the remaining segment temporary files behind
+      isAborted.set(true);
+      for(i++; i < segments.size(); i++) {
+        try {
+          final RowGroupsSegment segment = segments.get(i).get();
+          if (segment != null) {
+            Files.deleteIfExists(segment.segmentFilePath);
+          }
+        } catch (Exception ignore) {
+        }
+      }
+    }
+    return isHeaderWritten;
+  }
+
+  // the header line, compressed on its own (when output is compressed)
+  private static byte[] compressHeader(final ConversionOptions optns, final String header) throws IOException {
+    final ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+    try (final OutputStream headerOut = optns.compression.compress(headerBytes, ParquetToCsv::getCompressionExecutor)) {
+      headerOut.write((header + '\n').getBytes(StandardCharsets.UTF_8));
+    }
+    return headerBytes.toByteArray();
+  }
+
+  /**
+   * Converts a Parquet file to csv rows written to the stream output (see {@link StreamOutput}),
+   * with no intermediate files. The header line is only written ahead of the first rows
+   * of the first input file that has rows.
+   * <p>
+   * Should the file fail part way through, the rows written before remain written.
+   */
+  private static void processToStream(final ConversionOptions optns,
+                                      final File inputFile,
+                                      final List<BlockMetaData> rowGroups,
+                                      final ReadPlan readPlan,
+                                      final StreamOutput streamOutput,
+                                      final ConversionMetrics.FileMetrics metrics)
+        throws IOException
+  {
+    if (readPlan.rowGroupJobs > 1 && rowGroups.size() > 1) {
+      processRowGroupsToStream(optns, inputFile, rowGroups, readPlan, streamOutput, metrics);
+      return;
+    }
+    final OutputStream streamOut = streamOutput.getOutputStream();
+    final ConversionMetrics.SegmentMeter meter = metrics != null ? metrics.newSegment() : null;
+    final String header;
+    try (final BatchedCsvWriter rowsWriter = makeCsvOutputWriter(optns, streamOut, meter)) {
+      // the first row written is the header line
+      final CsvRowWriter csvOutputWriter = new CsvRowWriter() {
+        private boolean isHeader = true;
+
+        @Override
+        public void writeRow(CharSequence row) throws IOException {
+          if (isHeader) {
+            isHeader = false;
+            final String fileHeader = row.subSequence(0, row.length() - 1).toString();
+            if (streamOutput.acceptHeader(fileHeader)) {
+              streamOut.write(compressHeader(optns, fileHeader));
             }
+            return;
           }
+          rowsWriter.writeRow(row);
         }
-        return rowStrBuf.append(fieldValue);
+
+        @Override
+        public void flush() throws IOException { rowsWriter.flush(); }
+
+        @Override
+        public void close() {}
+      };
+      header = writeRows(optns, makeInputFile(optns, inputFile, rowGroups, readPlan), readPlan, null,
+                         csvOutputWriter, true, meter);
+    }
+    if (meter != null) {
+      meter.completed();
+    }
+    if (header == null) {
+      log.warn("no csv rows were written for: \"{}\"", inputFile);
+    }
+  }
+
+  /**
+   * Converts the row groups of a Parquet file in parallel, to the stream output.
+   * <p>
+   * As for a csv output file, the row groups are partitioned into segments converted
+   * concurrently - each though into an in-memory pipe of bounded size, rather than a
+   * temporary file. The pipes are drained to the stream output in segment order; a
+   * segment ahead of the one being drained waits once its pipe is full. The segments
+   * being started in order, the one drained is always under way (or done).
+   */
+  private static void processRowGroupsToStream(final ConversionOptions optns,
+                                               final File inputFile,
+                                               final List<BlockMetaData> rowGroups,
+                                               final ReadPlan readPlan,
+                                               final StreamOutput streamOutput,
+                                               final ConversionMetrics.FileMetrics metrics)
+        throws IOException
+  {
+    final ExecutorService executor = getRowGroupExecutor(optns.rowGroupJobs);
+    final List<long[]> segmentRanges = makeSegmentRanges(rowGroups, readPlan.segmentCount);
+    log.debug("converting {} row groups as {} parallel segments: \"{}\"",
+              rowGroups.size(), segmentRanges.size(), inputFile);
+
+    final AtomicBoolean isAborted = new AtomicBoolean(false);
+    final List<BoundedPipe> pipes = new ArrayList<>(segmentRanges.size());
+    final List<Future<Void>> segments = new ArrayList<>(segmentRanges.size());
+    for(final long[] segmentRange : segmentRanges) {
+      final BoundedPipe pipe = new BoundedPipe(segmentPipeChunks);
+      pipes.add(pipe);
+      segments.add(executor.submit(() -> {
+        // the pipe's stream is closed however the segment ends, so that the draining of the
+        // pipes moves on past it - and finds out about its failure, if it failed
+        try (final OutputStream pipeOut = pipe.getOutputStream()) {
+          if (isAborted.get()) return null;
+          final ConversionMetrics.SegmentMeter meter = metrics != null ? metrics.newSegment() : null;
+          try (final BatchedCsvWriter csvOutputWriter = makeCsvOutputWriter(optns, pipeOut, meter)) {
+            final org.apache.parquet.io.InputFile input =
+                  makeInputFile(optns, inputFile, rowGroupsWithin(rowGroups, segmentRange), readPlan);
+            writeRows(optns, input, readPlan, segmentRange, csvOutputWriter, false, meter);
+          }
+          if (meter != null) {
+            meter.completed();
+          }
+          return null;
+        }
+      }));
+    }
+
+    final OutputStream streamOut = streamOutput.getOutputStream();
+    boolean isSuccess = false, hasRows = false;
+    try {
+      for(int i = 0; i < segments.size(); i++) {
+        final BoundedPipe pipe = pipes.get(i);
+        byte[] chunk;
+        while ((chunk = pipe.take()) != null) {
+          if (!hasRows) {
+            hasRows = true;
+            final String header = readPlan.getHeader(optns);
+            if (streamOutput.acceptHeader(header)) {
+              streamOut.write(compressHeader(optns, header));
+            }
+          }
+          streamOut.write(chunk);
+        }
+        getSegment(segments.get(i));
+      }
+      streamOut.close();
+      isSuccess = true;
+    } finally {
+      if (!isSuccess) {
+        // on failure, release the segments waiting on their pipes
+        isAborted.set(true);
+        pipes.forEach(BoundedPipe::abort);
       }
     }
-    if (fieldValue == null) {
-      return rowStrBuf.append("null");
+    if (!hasRows) {
+      log.warn("no csv rows were written for: \"{}\"", inputFile);
     }
-    if (logicalType instanceof LogicalTypes.Date ||
-        logicalType instanceof LogicalTypes.TimestampMillis ||
-        logicalType instanceof LogicalTypes.TimeMillis)
-    {
-      final long epocTimeMS = (Long) fieldValue;
-      String fmtDateTimeText;
-      if (epocTimeMS == spinnakerEpocStart.getMillis()) {
-        fmtDateTimeText = SPINNAKER_EPOC_START;
-      } else if (epocTimeMS == miscDateTimeParseErr.getMillis()) {
-        fmtDateTimeText = MISC_DATETIME_PARSE_ERR;
-      } else {
-        fmtDateTimeText = dateTimeFormatter.format(new Date(epocTimeMS));
+  }
+
+  /**
+   * Writes the rows of the row groups of a Parquet file as csv rows - column by column
+   * if the read plan has a columnar plan, else as read via Avro records.
+   *
+   * @param optns settings that govern how values are rendered
+   * @param input Parquet file to be read
+   * @param readPlan the columns and rows to be read
+   * @param fileRange start and end file offsets that select the row groups to be read (null for all)
+   * @param csvOutputWriter destination of the csv rows
+   * @param isWriteHeader whether to precede the first row with a header line of the field names
+   * @param meter meters the reading and formatting of the rows - if metrics are collected, else null
+   * @return the header line (without line terminator) or null if no rows were read
+   * @throws IOException
+   */
+  private static String writeRows(final ConversionOptions optns,
+                                  final org.apache.parquet.io.InputFile input,
+                                  final ReadPlan readPlan,
+                                  final long[] fileRange,
+                                  final CsvRowWriter csvOutputWriter,
+                                  final boolean isWriteHeader,
+                                  final ConversionMetrics.SegmentMeter meter)
+        throws IOException
+  {
+    if (meter == null) {
+      return readRows(optns, input, readPlan, fileRange, csvOutputWriter, isWriteHeader, null);
+    }
+    meter.beginWork();
+    try {
+      return readRows(optns, new MeteredInputFile(input, meter::read), readPlan, fileRange, csvOutputWriter,
+                      isWriteHeader, meter);
+    } finally {
+      meter.endWork();
+    }
+  }
+
+  private static String readRows(final ConversionOptions optns,
+                                 final org.apache.parquet.io.InputFile input,
+                                 final ReadPlan readPlan,
+                                 final long[] fileRange,
+                                 final CsvRowWriter csvOutputWriter,
+                                 final boolean isWriteHeader,
+                                 final ConversionMetrics.SegmentMeter meter)
+        throws IOException
+  {
+    if (readPlan.columnarPlanOptn.isPresent()) {
+      final ColumnarPlan columnarPlan = readPlan.columnarPlanOptn.get();
+      final ParquetReadOptions.Builder readOptions = ConversionContext.get().newReadOptions();
+      if (fileRange != null) {
+        readOptions.withRange(fileRange[0], fileRange[1]);
+      }
+      // the column chunks and decompressed pages of a row group are leased of the buffer pool
+      try (final RowGroupBuffers rowGroupBuffers = new RowGroupBuffers(ConversionContext.get().getBufferPool());
+           final ParquetFileReader fileReader = ParquetFileReader.open(input, readOptions
+                 .withAllocator(rowGroupBuffers)
+                 .withCodecFactory(new PooledCodecFactory(rowGroupBuffers))
+                 .build()))
+      {
+        fileReader.setRequestedSchema(columnarPlan.getRequestedSchema());
+        return writeColumnarRows(columnarPlan, fileReader, rowGroupBuffers, csvOutputWriter, isWriteHeader, meter);
+      }
+    }
+    try (final ParquetReader<GenericData.Record> reader = makeRecordReader(input, readPlan, fileRange)) {
+      return writeRecords(optns, reader, readPlan.projectionOptn, csvOutputWriter, isWriteHeader, meter);
+    }
+  }
+
+  /**
+   * Converts the row groups of a Parquet file into numbered csv part files (see {@link OutputParts}).
+   * <p>
+   * With row group parallelism, each segment of the row groups is written as parts
+   * of its own, concurrently - the last part of a segment may thus fall short of the
+   * limits.
+   */
+  private static List<Path> processToParts(final ConversionOptions optns,
+                                           final File inputFile,
+                                           final List<BlockMetaData> rowGroups,
+                                           final ReadPlan readPlan,
+                                           final String outputDir,
+                                           final String fileNameBase,
+                                           final ConversionMetrics.FileMetrics metrics)
+        throws IOException
+  {
+    final List<long[]> segmentRanges = readPlan.rowGroupJobs > 1 && rowGroups.size() > 1
+          ? makeSegmentRanges(rowGroups, readPlan.segmentCount) : Collections.singletonList(null);
+    final OutputParts parts = new OutputParts(Paths.get(outputDir).toAbsolutePath(), fileNameBase,
+                                              ".csv" + optns.compression.getFileExtent(), segmentRanges.size());
+    parts.deleteStaleParts();
+    if (segmentRanges.size() == 1) {
+      writeSegmentParts(optns, inputFile, rowGroups, readPlan, parts, 0, null, metrics);
+    } else {
+      log.debug("converting {} row groups as {} parallel segments: \"{}\"",
+                rowGroups.size(), segmentRanges.size(), inputFile);
+      final ExecutorService executor = getRowGroupExecutor(optns.rowGroupJobs);
+      final AtomicBoolean isAborted = new AtomicBoolean(false);
+      final List<Future<Void>> segments = new ArrayList<>(segmentRanges.size());
+      for(int i = 0; i < segmentRanges.size(); i++) {
+        final int segmentIndex = i;
+        segments.add(executor.submit(() -> {
+          if (!isAborted.get()) {
+            writeSegmentParts(optns, inputFile, rowGroups, readPlan, parts, segmentIndex,
+                              segmentRanges.get(segmentIndex), metrics);
+          }
+          return null;
+        }));
       }
-      rowStrBuf.append('\'').append(fmtDateTimeText).append('\'');
-    } else if (logicalType instanceof LogicalTypes.Decimal) {
-      final ByteBuffer byteBufFieldValue = (ByteBuffer) fieldValue;
-      final BigDecimal bigDecimalFieldValue = decimalConverter.fromBytes(byteBufFieldValue, fieldSchema, logicalType);
-      rowStrBuf.append(bigDecimalFieldValue);
-    } else if (logicalType.getName().equals(uuidLogicalTypeName.getLogicalTypeName())) {
-      final CharSequence csFieldValue = (CharSequence) fieldValue;
+      boolean isSuccess = false;
       try {
-        final UUID uuidFieldValue = uuidLogicalTypeName.fromCharSequence(csFieldValue, fieldSchema, logicalType);
-        rowStrBuf.append('\'').append(uuidFieldValue).append('\'');
-      } catch(IllegalArgumentException e) {
-        String unkwn = "unknown";
-        log.warn("{}: {} - using substitute UUID value: \"{}\"", e.getClass().getSimpleName(), e.getMessage(), unkwn);
-        rowStrBuf.append('\'').append(unkwn).append('\'');
+        for(final Future<Void> segment : segments) {
+          getSegment(segment);
+        }
+        isSuccess = true;
+      } finally {
+        if (!isSuccess) {
+          // on failure, await the segments under way so their temporary files are deleted
+          isAborted.set(true);
+          parts.abort();
+          for(final Future<Void> segment : segments) {
+            try {
+              segment.get();
+            } catch (Exception ignore) {
+            }
+          }
+        }
       }
+    }
+    final List<Path> partFilePaths = parts.getPublishedPaths();
+    if (partFilePaths.isEmpty()) {
+      log.warn("no csv rows were written for: \"{}\"", inputFile);
     } else {
-      rowStrBuf.append(fieldValue);
+      log.debug("wrote {} csv part files for: \"{}\"", partFilePaths.size(), inputFile);
+    }
+    return partFilePaths;
+  }
+
+  private static void writeSegmentParts(final ConversionOptions optns,
+                                        final File inputFile,
+                                        final List<BlockMetaData> rowGroups,
+                                        final ReadPlan readPlan,
+                                        final OutputParts parts,
+                                        final int segmentIndex,
+                                        final long[] segmentRange,
+                                        final ConversionMetrics.FileMetrics metrics)
+        throws IOException
+  {
+    final ConversionMetrics.SegmentMeter meter = metrics != null ? metrics.newSegment() : null;
+    final RollingCsvWriter csvOutputWriter = new RollingCsvWriter(
+          parts.segmentParts(segmentIndex, csvOutputStream -> makeCsvOutputWriter(optns, csvOutputStream, meter)),
+          optns.maxPartRows, optns.maxPartBytes);
+    boolean isWritten = false;
+    try {
+      final org.apache.parquet.io.InputFile input = makeInputFile(
+            optns, inputFile, segmentRange != null ? rowGroupsWithin(rowGroups, segmentRange) : rowGroups, readPlan);
+      writeRows(optns, input, readPlan, segmentRange, csvOutputWriter, true, meter);
+      isWritten = true;
+    } finally {
+      if (!isWritten) {
+        parts.abort(); // so that the part being written is not taken to be complete
+      }
+      csvOutputWriter.close();
+    }
+    if (meter != null) {
+      meter.completed();
     }
-    return rowStrBuf;
+    parts.segmentCompleted(segmentIndex);
   }
 
-  @SuppressWarnings("unused")
-  private static final class TimestampISO8601Format extends DateFormat {
-    private final ZoneId timeZoneID;
+  // the row groups that a file range (as made by makeSegmentRanges) selects
+  private static List<BlockMetaData> rowGroupsWithin(final List<BlockMetaData> rowGroups, final long[] fileRange) {
+    final List<BlockMetaData> rowGroupsWithin = new ArrayList<>();
+    for(final BlockMetaData rowGroup : rowGroups) {
+      if (rowGroup.getStartingPos() >= fileRange[0] && rowGroup.getStartingPos() < fileRange[1]) {
+        rowGroupsWithin.add(rowGroup);
+      }
+    }
+    return rowGroupsWithin;
+  }
 
-    TimestampISO8601Format(ZoneId timeZoneID) {
-      this.timeZoneID = timeZoneID;
+  private static <T> T getSegment(final Future<T> segment) throws IOException {
+    try {
+      return segment.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted awaiting conversion of row groups");
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) throw (IOException) cause;
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      if (cause instanceof Error) throw (Error) cause;
+      throw new IOException(cause);
     }
-    TimestampISO8601Format() {
-      this(ZoneId.systemDefault());
+  }
+
+  /**
+   * Partitions the row groups into (at most) the specified number of contiguous
+   * file ranges of roughly equal compressed size. A range always encompasses whole
+   * row groups, and as such can be used to select them via a reader file range.
+   */
+  private static List<long[]> makeSegmentRanges(final List<BlockMetaData> rowGroups, final int segmentCount) {
+    long totalSize = 0;
+    for(final BlockMetaData rowGroup : rowGroups) {
+      totalSize += rowGroup.getCompressedSize();
     }
-    @Override
-    public StringBuffer format(Date date, StringBuffer toAppendTo, FieldPosition fieldPosition) {
-      if (date == null) return toAppendTo;
-      final int fieldIndex = fieldPosition.getField();
-      if (fieldIndex == 0) {
-        @SuppressWarnings("RedundantCast")
-        final Instant instant = date instanceof Timestamp ? ((Timestamp) date).toInstant() : date.toInstant();
-        return toAppendTo.append(OffsetDateTime.ofInstant(instant, timeZoneID));
-      } else {
-        throw new AssertionError(String.format(unsupportedFieldIndexErrMsgFmt, fieldIndex, getClass().getSimpleName()));
+    final long targetSegmentSize = Math.max(1, totalSize / segmentCount);
+    final List<long[]> segmentRanges = new ArrayList<>(segmentCount);
+    long start = -1, end = 0, size = 0;
+    for(final BlockMetaData rowGroup : rowGroups) {
+      if (start < 0) {
+        start = rowGroup.getStartingPos();
       }
+      end = rowGroup.getStartingPos() + rowGroup.getCompressedSize();
+      size += rowGroup.getCompressedSize();
+      if (size >= targetSegmentSize) {
+        segmentRanges.add(new long[]{ start, end });
+        start = -1;
+        size = 0;
+      }
+    }
+    if (start >= 0) {
+      segmentRanges.add(new long[]{ start, end });
+    }
+    return segmentRanges;
+  }
+
+  private static void writeFully(final WritableByteChannel channel, final ByteBuffer byteBuf) throws IOException {
+    while (byteBuf.hasRemaining()) {
+      channel.write(byteBuf);
+    }
+  }
+
+  // bound on the chunks (i.e., csv output batches) held by the in-memory pipe of a segment
+  private static final int segmentPipeChunks = 8;
+
+  // rows read as Avro records are added to the metrics in batches (of 1024), rather than one by one
+  private static final long meteredRowsMask = 1023;
+
+  private static final PlanCache planCache = new PlanCache(PlanCache.DEFAULT_CAPACITY);
+
+  /** @return the compiled csv renderings of the record schemas converted so far, shared by all files */
+  static PlanCache getPlanCache() { return planCache; }
+
+  private static ExecutorService rowGroupExecutor;
+  private static ExecutorService compressionExecutor;
+  private static Prefetcher prefetcher;
+
+  private static synchronized Prefetcher getPrefetcher(final long prefetchBytes) {
+    if (prefetcher == null) {
+      prefetcher = new Prefetcher(prefetchBytes);
+    }
+    return prefetcher;
+  }
+
+  private static synchronized ExecutorService getCompressionExecutor() {
+    if (compressionExecutor == null) {
+      final AtomicInteger threadCount = new AtomicInteger(0);
+      compressionExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+        final Thread thread = new Thread(runnable, "compress-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
     }
-    @Override
-    public Date parse(String source, ParsePosition pos) {
-      throw new UnsupportedOperationException();
+    return compressionExecutor;
+  }
+
+  private static synchronized ExecutorService getRowGroupExecutor(final int rowGroupJobs) {
+    if (rowGroupExecutor == null) {
+      final AtomicInteger threadCount = new AtomicInteger(0);
+      rowGroupExecutor = Executors.newFixedThreadPool(rowGroupJobs, runnable -> {
+        final Thread thread = new Thread(runnable, "row-groups-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
     }
+    return rowGroupExecutor;
   }
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+/* SpoolDirectory.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.tideworks.data_load.util.io.FileUtils.parquetExtent;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Long running conversion of the Parquet files that arrive in a spool directory -
+ * each is a job converted as soon as it appears, in the one JVM (thus warmed up, and
+ * with its caches shared by all the jobs) for as long as the process runs.
+ * <p>
+ * A converted file is moved to the {@code done} subdirectory, a file that failed to
+ * the {@code failed} subdirectory. The files already in the spool directory at start
+ * are converted first. Files are to be renamed into the spool directory once written
+ * in full (or else written under a name that begins with '.', or doesn't end in
+ * .parquet, until then) - as a file is picked up as soon as it is created.
+ * <p>
+ * Serving ends when the process is terminated (e.g., by SIGTERM or Ctrl-C) - the
+ * jobs under way are completed first - or should the spool directory be deleted.
+ */
+final class SpoolDirectory {
+  private static final Logger log = LoggerFactory.getLogger(SpoolDirectory.class.getSimpleName());
+  private static final String doneDirName = "done";
+  private static final String failedDirName = "failed";
+
+  private final Path spoolDirPath;
+  private final Path doneDirPath;
+  private final Path failedDirPath;
+  private final FileConversionPool.FileTask fileTask;
+  private final Map<Path, Long> pendingJobs = new ConcurrentHashMap<>(); // input file path => nano time discovered
+  private final AtomicLong convertedCount = new AtomicLong(0);
+  private final AtomicLong failedCount = new AtomicLong(0);
+  private final AtomicLong totalLatencyMillis = new AtomicLong(0);
+  private final AtomicLong maxLatencyMillis = new AtomicLong(0);
+
+  private SpoolDirectory(Path spoolDirPath, FileConversionPool.FileTask fileTask) {
+    this.spoolDirPath = spoolDirPath;
+    this.doneDirPath = spoolDirPath.resolve(doneDirName);
+    this.failedDirPath = spoolDirPath.resolve(failedDirName);
+    this.fileTask = fileTask;
+  }
+
+  /**
+   * Converts the files arriving in the spool directory until the process is terminated.
+   *
+   * @param spoolDirPath directory watched for Parquet files
+   * @param jobs number of files to convert concurrently
+   * @param fileTask conversion of a file
+   * @param onStopped run once the jobs under way have completed on stopping - before shutdown proceeds
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  static void serve(final Path spoolDirPath, final int jobs, final FileConversionPool.FileTask fileTask,
+                    final Runnable onStopped)
+        throws IOException, InterruptedException
+  {
+    new SpoolDirectory(spoolDirPath.toAbsolutePath(), fileTask).serve(jobs, onStopped);
+  }
+
+  private void serve(final int jobs, final Runnable onStopped) throws IOException, InterruptedException {
+    Files.createDirectories(doneDirPath);
+    Files.createDirectories(failedDirPath);
+    final WatchService watchService = FileSystems.getDefault().newWatchService();
+    spoolDirPath.register(watchService, ENTRY_CREATE); // before the scan - so no file goes unseen
+
+    final CountDownLatch isStopped = new CountDownLatch(1);
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      log.info("stopping - completing the jobs under way...");
+      try {
+        watchService.close();
+        isStopped.await();
+      } catch (IOException | InterruptedException ignore) {
+      }
+    }, "spool-shutdown"));
+
+    log.info("serving spool directory: \"{}\"", spoolDirPath);
+    try (final FileConversionPool pool = new FileConversionPool(jobs, this::convert)) {
+      scan(pool);
+      for(;;) {
+        final WatchKey watchKey;
+        try {
+          watchKey = watchService.take();
+        } catch (ClosedWatchServiceException e) {
+          break;
+        }
+        for(final WatchEvent<?> event : watchKey.pollEvents()) {
+          if (event.kind() == OVERFLOW) {
+            scan(pool);
+          } else {
+            submit(pool, spoolDirPath.resolve((Path) event.context()));
+          }
+        }
+        if (!watchKey.reset()) {
+          log.error("spool directory is no longer accessible - stopping: \"{}\"", spoolDirPath);
+          break;
+        }
+      }
+      pool.awaitCompletion();
+    } finally {
+      final long jobCount = convertedCount.get() + failedCount.get();
+      log.info("spool jobs: {} converted, {} failed; latency: mean {} ms, max {} ms",
+               convertedCount.get(), failedCount.get(),
+               jobCount > 0 ? totalLatencyMillis.get() / jobCount : 0, maxLatencyMillis.get());
+      try {
+        onStopped.run();
+      } finally {
+        isStopped.countDown();
+      }
+    }
+  }
+
+  private void scan(final FileConversionPool pool) throws IOException, InterruptedException {
+    try (final DirectoryStream<Path> dirStream = Files.newDirectoryStream(spoolDirPath)) {
+      for(final Path path : dirStream) {
+        submit(pool, path);
+      }
+    }
+  }
+
+  private void submit(final FileConversionPool pool, final Path path) throws InterruptedException {
+    final String fileName = path.getFileName().toString();
+    if (fileName.startsWith(".") || !fileName.toLowerCase().endsWith(parquetExtent) || !Files.isRegularFile(path)) {
+      return;
+    }
+    if (pendingJobs.putIfAbsent(path, System.nanoTime()) == null) { // not if already seen (e.g., on a rescan)
+      log.debug("spool job queued: \"{}\"", path);
+      pool.submit(path.toFile());
+    }
+  }
+
+  private void convert(final File inputFile) throws Exception {
+    final Path inputPath = inputFile.toPath();
+    final long startNanos = System.nanoTime();
+    boolean isConverted = false;
+    try {
+      fileTask.process(inputFile);
+      isConverted = true;
+    } finally {
+      final long endNanos = System.nanoTime();
+      final long latencyMillis = (endNanos - pendingJobs.get(inputPath)) / 1_000_000;
+      (isConverted ? convertedCount : failedCount).incrementAndGet();
+      totalLatencyMillis.addAndGet(latencyMillis);
+      maxLatencyMillis.accumulateAndGet(latencyMillis, Math::max);
+      log.info("spool job {} in {} ms (converting {} ms): \"{}\"", isConverted ? "converted" : "failed",
+               latencyMillis, (endNanos - startNanos) / 1_000_000, inputPath.getFileName());
+      try {
+        Files.move(inputPath, (isConverted ? doneDirPath : failedDirPath).resolve(inputPath.getFileName()),
+                   StandardCopyOption.REPLACE_EXISTING);
+      } catch (IOException e) {
+        log.warn("failed moving spool job input file out of the spool directory: {}", e.toString());
+      } finally {
+        pendingJobs.remove(inputPath);
+      }
+    }
+  }
+}
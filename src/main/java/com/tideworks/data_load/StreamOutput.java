@@ -0,0 +1,103 @@
+/* StreamOutput.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load;
+
+import com.tideworks.data_load.io.ChannelOutputStream;
+
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * The one csv output stream - stdout, or a named pipe (FIFO) - that the rows of
+ * all the input files are written to, one file after the other, in place of a csv
+ * file per input file. The header line is written once, ahead of the first rows;
+ * the input files must all have the same header.
+ * <p>
+ * Output is written to the channel of the stream through a large direct buffer; a
+ * blocking channel holds up the conversion while its reader falls behind.
+ */
+final class StreamOutput implements Closeable {
+  private final String name;
+  private final ChannelOutputStream out;
+  private String header = null;
+
+  private StreamOutput(String name, WritableByteChannel channel) {
+    this.name = name;
+    this.out = new ChannelOutputStream(channel, ChannelOutputStream.DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Output to the stdout file descriptor - which is to be left to it: {@link System#out}
+   * should have been redirected (e.g., to stderr) beforehand.
+   */
+  static StreamOutput toStdout() {
+    return new StreamOutput("stdout", new FileOutputStream(FileDescriptor.out).getChannel());
+  }
+
+  /**
+   * Output to a named pipe - opening it blocks until there is a reader. A path that
+   * is not that of a pipe is written as a regular file (created or truncated).
+   */
+  static StreamOutput toPipe(final Path pipePath) throws IOException {
+    final FileChannel pipeChannel = Files.isRegularFile(pipePath) || !Files.exists(pipePath)
+          ? FileChannel.open(pipePath, CREATE, TRUNCATE_EXISTING, WRITE)
+          : FileChannel.open(pipePath, WRITE);
+    return new StreamOutput(pipePath.toString(), pipeChannel);
+  }
+
+  String getName() { return name; }
+
+  /**
+   * @param fileHeader header line (without line terminator) of the rows of an input file
+   * @return whether the header line is to be written - i.e., is that of the first rows
+   * @throws IOException if a different header line has already been written
+   */
+  synchronized boolean acceptHeader(final String fileHeader) throws IOException {
+    if (header == null) {
+      header = fileHeader;
+      return true;
+    }
+    if (!header.equals(fileHeader)) {
+      throw new IOException(String.format("csv header differs from that already written to %s:%n\t%s%n\t%s",
+                                          name, header, fileHeader));
+    }
+    return false;
+  }
+
+  /** @return stream onto the output that, when closed, is only flushed - the output stays open */
+  OutputStream getOutputStream() {
+    return new FilterOutputStream(out) {
+      @SuppressWarnings("NullableProblems")
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+      }
+
+      @Override
+      public void close() throws IOException {
+        out.flush();
+      }
+    };
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+}
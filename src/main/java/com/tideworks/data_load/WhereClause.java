@@ -0,0 +1,428 @@
+/* WhereClause.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load;
+
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A row filter, as specified on the command line, that is bound to the Parquet
+ * schema of each file into a {@link FilterPredicate} - so that the Parquet reader
+ * skips the row groups whose column statistics (or dictionaries) rule out a match,
+ * and skips the non-matching rows of the others.
+ * <p>
+ * Grammar (keywords are case-insensitive):
+ * <pre>
+ *   expr       := term { OR term }
+ *   term       := factor { AND factor }
+ *   factor     := NOT factor | '(' expr ')' | comparison
+ *   comparison := column ( '=' | '!=' | '&lt;&gt;' | '&lt;' | '&lt;=' | '&gt;' | '&gt;=' ) literal
+ *               | column IS [NOT] NULL
+ *   literal    := number | 'text' | TRUE | FALSE
+ * </pre>
+ * A column is named as in the csv header (case-insensitive), double-quoted if need be.
+ * A text literal compared to a date or timestamp column is read as an ISO-8601 date,
+ * or date and time (in the conversion time zone unless it has an offset).
+ */
+final class WhereClause {
+  private final String text;
+  private final Node root;
+  private final List<String> fieldNames;
+
+  private WhereClause(String text, Node root, List<String> fieldNames) {
+    this.text = text;
+    this.root = root;
+    this.fieldNames = fieldNames;
+  }
+
+  /**
+   * @param text the where clause text
+   * @return the parsed where clause
+   * @throws IllegalArgumentException if the text is not a valid where clause
+   */
+  static WhereClause parse(final String text) {
+    final Parser parser = new Parser(text);
+    final Node root = parser.parseExpr();
+    if (parser.peek() != null) {
+      throw parser.syntaxError("unexpected '" + parser.peek().text + "'");
+    }
+    final List<String> fieldNames = new ArrayList<>();
+    for(final String columnName : parser.columnNames) {
+      final String fieldName = columnName.split("\\.", 2)[0];
+      if (fieldNames.stream().noneMatch(fieldName::equalsIgnoreCase)) {
+        fieldNames.add(fieldName);
+      }
+    }
+    return new WhereClause(text, root, fieldNames);
+  }
+
+  /** @return names of the (top-level) fields whose columns the where clause compares, as written */
+  List<String> getFieldNames() { return fieldNames; }
+
+  /**
+   * @param fileSchema Parquet schema of the file to be filtered
+   * @param timeZoneId time zone that date/time literals without an offset are read in
+   * @return the filter predicate on the file's columns
+   * @throws IllegalArgumentException if a column is not in the file, or can't be compared to its literal
+   */
+  FilterPredicate bind(final MessageType fileSchema, final ZoneId timeZoneId) {
+    return root.bind(fileSchema, timeZoneId);
+  }
+
+  @Override
+  public String toString() { return text; }
+
+  @FunctionalInterface
+  private interface Node {
+    FilterPredicate bind(MessageType fileSchema, ZoneId timeZoneId);
+  }
+
+  private enum TokenType { WORD, QUOTED_NAME, NUMBER, TEXT, OPERATOR, LPAREN, RPAREN }
+
+  private static final class Token {
+    private final TokenType type;
+    private final String text;
+    private final int offset;
+
+    private Token(TokenType type, String text, int offset) {
+      this.type = type;
+      this.text = text;
+      this.offset = offset;
+    }
+
+    private boolean isKeyword(final String keyword) {
+      return type == TokenType.WORD && text.equalsIgnoreCase(keyword);
+    }
+  }
+
+  private static final class Parser {
+    private final String text;
+    private final List<Token> tokens;
+    private final List<String> columnNames = new ArrayList<>();
+    private int next = 0;
+
+    private Parser(String text) {
+      this.text = text;
+      this.tokens = tokenize(text);
+    }
+
+    private IllegalArgumentException syntaxError(final String reason) {
+      final Token token = peek();
+      final int offset = token != null ? token.offset : text.length();
+      return new IllegalArgumentException(String.format("invalid where clause at offset %d: %s", offset, reason));
+    }
+
+    private Token peek() { return next < tokens.size() ? tokens.get(next) : null; }
+
+    private boolean acceptKeyword(final String keyword) {
+      final Token token = peek();
+      if (token != null && token.isKeyword(keyword)) {
+        next++;
+        return true;
+      }
+      return false;
+    }
+
+    private Token expect(final TokenType type, final String expected) {
+      final Token token = peek();
+      if (token == null || token.type != type) {
+        throw syntaxError("expected " + expected);
+      }
+      next++;
+      return token;
+    }
+
+    private Node parseExpr() {
+      Node node = parseTerm();
+      while (acceptKeyword("OR")) {
+        final Node left = node, right = parseTerm();
+        node = (schema, zoneId) -> FilterApi.or(left.bind(schema, zoneId), right.bind(schema, zoneId));
+      }
+      return node;
+    }
+
+    private Node parseTerm() {
+      Node node = parseFactor();
+      while (acceptKeyword("AND")) {
+        final Node left = node, right = parseFactor();
+        node = (schema, zoneId) -> FilterApi.and(left.bind(schema, zoneId), right.bind(schema, zoneId));
+      }
+      return node;
+    }
+
+    private Node parseFactor() {
+      if (acceptKeyword("NOT")) {
+        final Node operand = parseFactor();
+        return (schema, zoneId) -> FilterApi.not(operand.bind(schema, zoneId));
+      }
+      final Token token = peek();
+      if (token != null && token.type == TokenType.LPAREN) {
+        next++;
+        final Node node = parseExpr();
+        expect(TokenType.RPAREN, "')'");
+        return node;
+      }
+      return parseComparison();
+    }
+
+    private Node parseComparison() {
+      final Token column = peek();
+      if (column == null || (column.type != TokenType.WORD && column.type != TokenType.QUOTED_NAME)) {
+        throw syntaxError("expected column name");
+      }
+      next++;
+      columnNames.add(column.text);
+      if (acceptKeyword("IS")) {
+        final boolean isNot = acceptKeyword("NOT");
+        if (!acceptKeyword("NULL")) {
+          throw syntaxError("expected NULL");
+        }
+        return (schema, zoneId) -> nullComparison(resolveColumn(schema, column.text), isNot);
+      }
+      final String op = expect(TokenType.OPERATOR, "comparison operator").text;
+      final Token literal = peek();
+      if (literal == null ||
+          !(literal.type == TokenType.NUMBER || literal.type == TokenType.TEXT ||
+            literal.isKeyword("TRUE") || literal.isKeyword("FALSE")))
+      {
+        throw syntaxError("expected literal value");
+      }
+      next++;
+      return (schema, zoneId) -> comparison(resolveColumn(schema, column.text), op, literal, zoneId);
+    }
+  }
+
+  private static List<Token> tokenize(final String text) {
+    final List<Token> tokens = new ArrayList<>();
+    int i = 0;
+    while (i < text.length()) {
+      final char c = text.charAt(i);
+      final int start = i;
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (c == '(' || c == ')') {
+        tokens.add(new Token(c == '(' ? TokenType.LPAREN : TokenType.RPAREN, String.valueOf(c), start));
+        i++;
+      } else if (c == '\'' || c == '"') {
+        // quoted - a doubled quote character stands for itself
+        final StringBuilder quoted = new StringBuilder();
+        for(i++; ; i++) {
+          if (i >= text.length()) {
+            throw new IllegalArgumentException(
+                  String.format("invalid where clause at offset %d: unterminated quoted text", start));
+          }
+          if (text.charAt(i) == c) {
+            if (i + 1 < text.length() && text.charAt(i + 1) == c) {
+              i++;
+            } else {
+              i++;
+              break;
+            }
+          }
+          quoted.append(text.charAt(i));
+        }
+        tokens.add(new Token(c == '\'' ? TokenType.TEXT : TokenType.QUOTED_NAME, quoted.toString(), start));
+      } else if ("=!<>".indexOf(c) >= 0) {
+        i++;
+        if (i < text.length() && (text.charAt(i) == '=' || (c == '<' && text.charAt(i) == '>'))) {
+          i++;
+        }
+        String op = text.substring(start, i);
+        if (op.equals("!")) {
+          throw new IllegalArgumentException(String.format("invalid where clause at offset %d: '!'", start));
+        }
+        op = op.equals("==") ? "=" : op.equals("<>") ? "!=" : op;
+        tokens.add(new Token(TokenType.OPERATOR, op, start));
+      } else if (Character.isDigit(c) || ((c == '-' || c == '+' || c == '.') && i + 1 < text.length() &&
+                                          (Character.isDigit(text.charAt(i + 1)) || text.charAt(i + 1) == '.')))
+      {
+        for(i++; i < text.length(); i++) {
+          final char n = text.charAt(i);
+          if (!(Character.isLetterOrDigit(n) || n == '.' ||
+                ((n == '-' || n == '+') && Character.toLowerCase(text.charAt(i - 1)) == 'e')))
+          {
+            break;
+          }
+        }
+        tokens.add(new Token(TokenType.NUMBER, text.substring(start, i), start));
+      } else if (Character.isLetter(c) || c == '_' || c == '$') {
+        for(i++; i < text.length(); i++) {
+          final char n = text.charAt(i);
+          if (!(Character.isLetterOrDigit(n) || n == '_' || n == '$' || n == '.')) {
+            break;
+          }
+        }
+        tokens.add(new Token(TokenType.WORD, text.substring(start, i), start));
+      } else {
+        throw new IllegalArgumentException(String.format("invalid where clause at offset %d: '%c'", start, c));
+      }
+    }
+    return tokens;
+  }
+
+  // the column of the name (case-insensitive, an exact match preferred) - as a dot-separated path if nested
+  private static ColumnDescriptor resolveColumn(final MessageType fileSchema, final String name) {
+    ColumnDescriptor match = null;
+    for(final ColumnDescriptor column : fileSchema.getColumns()) {
+      final String path = String.join(".", column.getPath());
+      if (path.equals(name)) {
+        match = column;
+        break;
+      }
+      if (match == null && path.equalsIgnoreCase(name)) {
+        match = column;
+      }
+    }
+    if (match == null) {
+      throw new IllegalArgumentException(String.format("where clause column \"%s\" is not in schema: %s",
+                                                       name, fileSchema.getName()));
+    }
+    if (match.getMaxRepetitionLevel() > 0) {
+      throw new IllegalArgumentException(String.format("where clause column \"%s\" is a repeated field", name));
+    }
+    return match;
+  }
+
+  private static FilterPredicate nullComparison(final ColumnDescriptor column, final boolean isNot) {
+    final String path = String.join(".", column.getPath());
+    switch (column.getPrimitiveType().getPrimitiveTypeName()) {
+      case BOOLEAN:
+        return equality(FilterApi.booleanColumn(path), isNot ? "!=" : "=", null);
+      case INT32:
+        return equality(FilterApi.intColumn(path), isNot ? "!=" : "=", null);
+      case INT64:
+        return equality(FilterApi.longColumn(path), isNot ? "!=" : "=", null);
+      case FLOAT:
+        return equality(FilterApi.floatColumn(path), isNot ? "!=" : "=", null);
+      case DOUBLE:
+        return equality(FilterApi.doubleColumn(path), isNot ? "!=" : "=", null);
+      case BINARY:
+      case FIXED_LEN_BYTE_ARRAY:
+        return equality(FilterApi.binaryColumn(path), isNot ? "!=" : "=", null);
+      default:
+        throw new IllegalArgumentException(String.format("where clause column \"%s\" of type %s is not supported",
+                                                         path, column.getPrimitiveType()));
+    }
+  }
+
+  private static FilterPredicate comparison(final ColumnDescriptor column, final String op, final Token literal,
+                                            final ZoneId timeZoneId)
+  {
+    final PrimitiveType columnType = column.getPrimitiveType();
+    final OriginalType originalType = columnType.getOriginalType();
+    final String path = String.join(".", column.getPath());
+    try {
+      if (originalType != OriginalType.DECIMAL && originalType != OriginalType.INTERVAL) {
+        switch (columnType.getPrimitiveTypeName()) {
+          case BOOLEAN:
+            if (literal.isKeyword("TRUE") || literal.isKeyword("FALSE")) {
+              return equality(FilterApi.booleanColumn(path), op, Boolean.valueOf(literal.text.toLowerCase()));
+            }
+            break;
+          case INT32:
+            if (literal.type == TokenType.NUMBER) {
+              return ordering(FilterApi.intColumn(path), op, Integer.valueOf(literal.text));
+            }
+            if (literal.type == TokenType.TEXT && originalType == OriginalType.DATE) {
+              return ordering(FilterApi.intColumn(path), op, Math.toIntExact(LocalDate.parse(literal.text).toEpochDay()));
+            }
+            break;
+          case INT64:
+            if (literal.type == TokenType.NUMBER) {
+              return ordering(FilterApi.longColumn(path), op, Long.valueOf(literal.text));
+            }
+            if (literal.type == TokenType.TEXT && originalType == OriginalType.TIMESTAMP_MILLIS) {
+              return ordering(FilterApi.longColumn(path), op, toEpoch(literal.text, timeZoneId, ChronoUnit.MILLIS));
+            }
+            if (literal.type == TokenType.TEXT && originalType == OriginalType.TIMESTAMP_MICROS) {
+              return ordering(FilterApi.longColumn(path), op, toEpoch(literal.text, timeZoneId, ChronoUnit.MICROS));
+            }
+            break;
+          case FLOAT:
+            if (literal.type == TokenType.NUMBER) {
+              return ordering(FilterApi.floatColumn(path), op, Float.valueOf(literal.text));
+            }
+            break;
+          case DOUBLE:
+            if (literal.type == TokenType.NUMBER) {
+              return ordering(FilterApi.doubleColumn(path), op, Double.valueOf(literal.text));
+            }
+            break;
+          case BINARY:
+            if (literal.type == TokenType.TEXT) {
+              return ordering(FilterApi.binaryColumn(path), op, Binary.fromString(literal.text));
+            }
+            break;
+        }
+      }
+    } catch (NumberFormatException | ArithmeticException | DateTimeParseException e) {
+      throw new IllegalArgumentException(String.format("where clause literal %s is not a valid value of column \"%s\"",
+                                                       literal.text, path), e);
+    }
+    throw new IllegalArgumentException(String.format("where clause column \"%s\" of type %s can't be compared to %s",
+                                                     path, columnType, literal.text));
+  }
+
+  // an ISO-8601 date or date-time, with or without offset, as time since the epoch
+  private static long toEpoch(final String text, final ZoneId timeZoneId, final ChronoUnit unit) {
+    final String dateTimeText = text.trim().replace(' ', 'T');
+    OffsetDateTime dateTime;
+    try {
+      dateTime = OffsetDateTime.parse(dateTimeText);
+    } catch (DateTimeParseException e) {
+      dateTime = dateTimeText.indexOf('T') >= 0
+                   ? LocalDateTime.parse(dateTimeText).atZone(timeZoneId).toOffsetDateTime()
+                   : LocalDate.parse(dateTimeText).atStartOfDay(timeZoneId).toOffsetDateTime();
+    }
+    return unit.between(Instant.EPOCH, dateTime.toInstant());
+  }
+
+  private static <T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsEqNotEq>
+  FilterPredicate equality(final C column, final String op, final T value) {
+    switch (op) {
+      case "=":
+        return FilterApi.eq(column, value);
+      case "!=":
+        return FilterApi.notEq(column, value);
+      default:
+        throw new IllegalArgumentException(String.format("where clause column \"%s\" can't be compared with '%s'",
+                                                         column.getColumnPath().toDotString(), op));
+    }
+  }
+
+  private static <T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsLtGt>
+  FilterPredicate ordering(final C column, final String op, final T value) {
+    switch (op) {
+      case "<":
+        return FilterApi.lt(column, value);
+      case "<=":
+        return FilterApi.ltEq(column, value);
+      case ">":
+        return FilterApi.gt(column, value);
+      case ">=":
+        return FilterApi.gtEq(column, value);
+      default:
+        return equality(column, op, value);
+    }
+  }
+}
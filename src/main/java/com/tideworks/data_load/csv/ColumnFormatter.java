@@ -0,0 +1,17 @@
+/* ColumnFormatter.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.csv;
+
+/**
+ * Renders the values of one particular column as csv text. An implementation is
+ * specialized for its column's schema at plan compile time, so rendering a value
+ * involves no inspection of the schema.
+ */
+@FunctionalInterface
+interface ColumnFormatter {
+  void format(Object fieldValue, StringBuilder rowStrBuf);
+}
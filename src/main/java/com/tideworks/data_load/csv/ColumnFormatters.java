@@ -0,0 +1,298 @@
+/* ColumnFormatters.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.csv;
+
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.ZoneId;
+import java.util.UUID;
+
+/**
+ * Compiles the schema of a column into the {@link ColumnFormatter} specialized
+ * for rendering that column's values.
+ */
+final class ColumnFormatters {
+  private static final Logger log = LoggerFactory.getLogger(ColumnFormatters.class.getSimpleName());
+  private static final String NULL_TEXT = "null";
+  private static final ColumnFormatter unsupportedFormatter =
+        (fieldValue, rowStrBuf) -> { throw new UnsupportedOperationException(); };
+  private static final String SPINNAKER_EPOC_START = "1900-01-01T00:00:00.000-00:00";
+  private static final String MISC_DATETIME_PARSE_ERR = "1900-01-02T00:00:00.000-00:00";
+  private static final long spinnakerEpocStartMillis;
+  private static final long miscDateTimeParseErrMillis;
+
+  static {
+    final DateTimeFormatter dateTimeFormatter = ISODateTimeFormat.dateTime().withOffsetParsed();
+    final DateTime spinnakerEpocStart = dateTimeFormatter.parseDateTime(SPINNAKER_EPOC_START);
+    final DateTime miscDateTimeParseErr = dateTimeFormatter.parseDateTime(MISC_DATETIME_PARSE_ERR);
+    spinnakerEpocStartMillis = spinnakerEpocStart.getMillis();
+    miscDateTimeParseErrMillis = miscDateTimeParseErr.getMillis();
+  }
+
+  private ColumnFormatters() {}
+
+  /**
+   * Determines, once per column, what used to be worked out for every value of the column:
+   * the (possibly UNION branch) logical type or else the effective field type.
+   *
+   * @param field column whose values are to be rendered
+   * @param timeZoneId time zone that date/time values are rendered in
+   * @param isExactFloats whether float/double values are rendered as their exact decimal
+   *                      expansion rather than as the round trip digits of Double.toString()
+   * @return formatter specialized for the column
+   */
+  static ColumnFormatter compile(final Schema.Field field, final ZoneId timeZoneId, final boolean isExactFloats) {
+    final Schema fieldSchema = field.schema();
+    final FieldTyping typing = FieldTyping.of(fieldSchema);
+    final LogicalType logicalType = typing.logicalType;
+    if (logicalType == null) {
+      return typing.fieldType != null
+               ? nullable(typing.isNullable, compile(typing.fieldType, isExactFloats))
+               : ColumnFormatters::appendValue;
+    }
+    final ColumnFormatter formatter;
+    if (isTimestamp(logicalType)) {
+      formatter = new TimestampFormatter(timeZoneId);
+    } else if (logicalType instanceof LogicalTypes.Decimal) {
+      formatter = new DecimalFormatter(fieldSchema, logicalType);
+    } else if (isUuid(logicalType)) {
+      formatter = new UuidFormatter(fieldSchema, logicalType);
+    } else {
+      return ColumnFormatters::appendValue;
+    }
+    return new NullableFormatter(formatter);
+  }
+
+  /**
+   * What the rendering of a column is determined by: the logical type of the field
+   * (or else of its first UNION branch having one), otherwise the field type (or else
+   * that of its first UNION branch without a logical type), and whether the field is
+   * a UNION that includes NULL.
+   */
+  static final class FieldTyping {
+    final LogicalType logicalType;
+    final Schema.Type fieldType;
+    final boolean isNullable;
+
+    private FieldTyping(LogicalType logicalType, Schema.Type fieldType, boolean isNullable) {
+      this.logicalType = logicalType;
+      this.fieldType = fieldType;
+      this.isNullable = isNullable;
+    }
+
+    static FieldTyping of(final Schema fieldSchema) {
+      LogicalType logicalType = fieldSchema.getLogicalType();
+      Schema.Type fieldType = fieldSchema.getType();
+      boolean isNullable = false;
+      if (logicalType == null && fieldType == Schema.Type.UNION) {
+        fieldType = null;
+        for(final Schema unionType : fieldSchema.getTypes()) {
+          isNullable |= unionType.getType() == Schema.Type.NULL;
+          final LogicalType unionLogicalType = unionType.getLogicalType();
+          if (unionLogicalType != null && logicalType == null) {
+            logicalType = unionLogicalType;
+            continue;
+          }
+          if (unionLogicalType == null && fieldType == null) {
+            fieldType = unionType.getType();
+          }
+        }
+      }
+      return new FieldTyping(logicalType, fieldType, isNullable);
+    }
+  }
+
+  static boolean isTimestamp(final LogicalType logicalType) {
+    return logicalType instanceof LogicalTypes.Date ||
+           logicalType instanceof LogicalTypes.TimestampMillis ||
+           logicalType instanceof LogicalTypes.TimeMillis;
+  }
+
+  static boolean isUuid(final LogicalType logicalType) {
+    return logicalType.getName().equals(UuidFormatter.uuidConversion.getLogicalTypeName());
+  }
+
+  private static ColumnFormatter compile(final Schema.Type fieldType, final boolean isExactFloats) {
+    switch (fieldType) {
+      case RECORD:
+      case ARRAY:
+      case MAP:
+      case UNION:
+      case FIXED:
+      case BYTES:
+        return unsupportedFormatter;
+      case ENUM:
+      case STRING:
+        return (fieldValue, rowStrBuf) -> rowStrBuf.append('\'').append(fieldValue).append('\'');
+      case FLOAT:
+        return isExactFloats ? ColumnFormatters::appendExactFloatValue : ColumnFormatters::appendFloatValue;
+      case DOUBLE:
+        return isExactFloats ? ColumnFormatters::appendExactDoubleValue : ColumnFormatters::appendDoubleValue;
+      default:
+        return ColumnFormatters::appendValue;
+    }
+  }
+
+  private static ColumnFormatter nullable(final boolean isNullable, final ColumnFormatter formatter) {
+    // an unsupported column type is rejected even when its value is null
+    return isNullable && formatter != unsupportedFormatter ? new NullableFormatter(formatter) : formatter;
+  }
+
+  private static void appendValue(final Object fieldValue, final StringBuilder rowStrBuf) {
+    rowStrBuf.append(fieldValue);
+  }
+
+  private static void appendFloatValue(final Object fieldValue, final StringBuilder rowStrBuf) {
+    if (fieldValue instanceof Float) {
+      NumericText.appendFloat((Float) fieldValue, rowStrBuf);
+    } else {
+      appendDoubleValue(fieldValue, rowStrBuf);
+    }
+  }
+
+  private static void appendDoubleValue(final Object fieldValue, final StringBuilder rowStrBuf) {
+    if (fieldValue instanceof Double) {
+      NumericText.appendDouble((Double) fieldValue, rowStrBuf);
+    } else {
+      rowStrBuf.append(fieldValue);
+    }
+  }
+
+  static void appendExactFloatValue(final Object fieldValue, final StringBuilder rowStrBuf) {
+    if (fieldValue instanceof Float) {
+      // Use of 'new BigDecimal(arg)' may yield different result than 'BigDecimal.valueOf(arg)'
+      // when the argument is a floating point; the latter usage may produce an appended numeric
+      // decimal point zero ('.0') when is actually a whole number, while the former may produce
+      // a whole number without any decimal point numeric component (when converted via toString).
+      // From: JavaDoc
+      // When a double must be used as a source for a BigDecimal, note that this constructor
+      // provides an exact conversion; it does not give the same result as converting the
+      // double to a String using the Double.toString(double) method and then using the
+      // BigDecimal(String) constructor. To get that result, use the static valueOf(double) method.
+      //noinspection UnpredictableBigDecimalConstructorCall
+      rowStrBuf.append(new BigDecimal((Float) fieldValue));
+    } else {
+      appendExactDoubleValue(fieldValue, rowStrBuf);
+    }
+  }
+
+  static void appendExactDoubleValue(final Object fieldValue, final StringBuilder rowStrBuf) {
+    if (fieldValue instanceof Double) {
+      //noinspection UnpredictableBigDecimalConstructorCall
+      rowStrBuf.append(new BigDecimal((Double) fieldValue));
+    } else {
+      rowStrBuf.append(fieldValue);
+    }
+  }
+
+  private static final class NullableFormatter implements ColumnFormatter {
+    private final ColumnFormatter nonNullFormatter;
+
+    private NullableFormatter(ColumnFormatter nonNullFormatter) {
+      this.nonNullFormatter = nonNullFormatter;
+    }
+
+    @Override
+    public void format(Object fieldValue, StringBuilder rowStrBuf) {
+      if (fieldValue == null) {
+        rowStrBuf.append(NULL_TEXT);
+      } else {
+        nonNullFormatter.format(fieldValue, rowStrBuf);
+      }
+    }
+  }
+
+  static final class TimestampFormatter implements ColumnFormatter {
+    private final Iso8601TimestampFormatter dateTimeFormatter;
+
+    TimestampFormatter(ZoneId timeZoneId) {
+      this.dateTimeFormatter = new Iso8601TimestampFormatter(timeZoneId);
+    }
+
+    @Override
+    public void format(Object fieldValue, StringBuilder rowStrBuf) {
+      format((long) (Long) fieldValue, rowStrBuf);
+    }
+
+    void format(final long epocTimeMS, final StringBuilder rowStrBuf) {
+      rowStrBuf.append('\'');
+      if (epocTimeMS == spinnakerEpocStartMillis) {
+        rowStrBuf.append(SPINNAKER_EPOC_START);
+      } else if (epocTimeMS == miscDateTimeParseErrMillis) {
+        rowStrBuf.append(MISC_DATETIME_PARSE_ERR);
+      } else {
+        dateTimeFormatter.format(epocTimeMS, rowStrBuf);
+      }
+      rowStrBuf.append('\'');
+    }
+  }
+
+  static final class DecimalFormatter implements ColumnFormatter {
+    private static final Conversions.DecimalConversion decimalConverter = new Conversions.DecimalConversion();
+    private final Schema fieldSchema;
+    private final LogicalType logicalType;
+    private final int scale;
+
+    DecimalFormatter(Schema fieldSchema, LogicalType logicalType) {
+      this.fieldSchema = fieldSchema;
+      this.logicalType = logicalType;
+      this.scale = ((LogicalTypes.Decimal) logicalType).getScale();
+    }
+
+    @Override
+    public void format(Object fieldValue, StringBuilder rowStrBuf) {
+      final ByteBuffer byteBufFieldValue = (ByteBuffer) fieldValue;
+      final int len = byteBufFieldValue.remaining();
+      if (len > 0 && len <= Long.BYTES) {
+        // the two's complement unscaled value fits in a long - read it without consuming the buffer
+        final int pos = byteBufFieldValue.position();
+        long unscaled = byteBufFieldValue.get(pos); // sign extended
+        for(int i = 1; i < len; i++) {
+          unscaled = (unscaled << 8) | (byteBufFieldValue.get(pos + i) & 0xff);
+        }
+        NumericText.appendDecimal(unscaled, scale, rowStrBuf);
+        return;
+      }
+      final BigDecimal bigDecimalFieldValue = decimalConverter.fromBytes(byteBufFieldValue, fieldSchema, logicalType);
+      rowStrBuf.append(bigDecimalFieldValue);
+    }
+  }
+
+  static final class UuidFormatter implements ColumnFormatter {
+    private static final Conversions.UUIDConversion uuidConversion = new Conversions.UUIDConversion();
+    private final Schema fieldSchema;
+    private final LogicalType logicalType;
+
+    UuidFormatter(Schema fieldSchema, LogicalType logicalType) {
+      this.fieldSchema = fieldSchema;
+      this.logicalType = logicalType;
+    }
+
+    @Override
+    public void format(Object fieldValue, StringBuilder rowStrBuf) {
+      final CharSequence csFieldValue = (CharSequence) fieldValue;
+      try {
+        final UUID uuidFieldValue = uuidConversion.fromCharSequence(csFieldValue, fieldSchema, logicalType);
+        rowStrBuf.append('\'').append(uuidFieldValue).append('\'');
+      } catch(IllegalArgumentException e) {
+        String unkwn = "unknown";
+        log.warn("{}: {} - using substitute UUID value: \"{}\"", e.getClass().getSimpleName(), e.getMessage(), unkwn);
+        rowStrBuf.append('\'').append(unkwn).append('\'');
+      }
+    }
+  }
+}
@@ -0,0 +1,19 @@
+/* ColumnarFormatter.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.csv;
+
+import org.apache.parquet.column.ColumnReader;
+
+/**
+ * Renders the current value of a Parquet column reader as csv text - the columnar
+ * counterpart of {@link ColumnFormatter}, reading the primitive value straight
+ * from the column (no record or boxed value is materialized).
+ */
+@FunctionalInterface
+interface ColumnarFormatter {
+  void format(ColumnReader column, StringBuilder rowStrBuf);
+}
@@ -0,0 +1,248 @@
+/* ColumnarFormatters.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.csv;
+
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+
+import java.nio.ByteBuffer;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compiles the schema of a column into the {@link ColumnarFormatter} that renders
+ * its values exactly as the {@link ColumnFormatter} compiled by {@link ColumnFormatters}
+ * would render them once read as an Avro record.
+ * <p>
+ * Only a column whose Avro type (or the non-null branch of a nullable UNION) directly
+ * corresponds to its Parquet primitive type is supported - where instead the Avro
+ * reader would have converted (or rejected) the value, no formatter is compiled.
+ */
+final class ColumnarFormatters {
+  private static final String NULL_TEXT = "null";
+
+  private ColumnarFormatters() {}
+
+  /**
+   * @param field Avro field of the column
+   * @param column Parquet column that holds the field's values
+   * @param timeZoneId time zone that date/time values are rendered in
+   * @param isExactFloats whether float/double values are rendered as their exact decimal expansion
+   * @return formatter specialized for the column, or empty if the column is not supported
+   */
+  static Optional<ColumnarFormatter> compile(final Schema.Field field,
+                                             final ColumnDescriptor column,
+                                             final ZoneId timeZoneId,
+                                             final boolean isExactFloats)
+  {
+    final Schema fieldSchema = field.schema();
+    final Schema valueSchema = nonNullSchema(fieldSchema);
+    final PrimitiveType columnType = column.getPrimitiveType();
+    if (valueSchema == null || columnType.getRepetition() == Type.Repetition.REPEATED) {
+      return Optional.empty();
+    }
+    final boolean isOptional = valueSchema != fieldSchema;
+    final Schema.Type valueType = valueSchema.getType();
+    if (isOptional != (columnType.getRepetition() == Type.Repetition.OPTIONAL) ||
+        !isMatchingPrimitive(valueType, columnType.getPrimitiveTypeName()))
+    {
+      return Optional.empty();
+    }
+
+    final ColumnFormatters.FieldTyping typing = ColumnFormatters.FieldTyping.of(fieldSchema);
+    final LogicalType logicalType = typing.logicalType;
+    final ColumnarFormatter formatter;
+    if (logicalType != null) {
+      if (ColumnFormatters.isTimestamp(logicalType)) {
+        if (valueType != Schema.Type.LONG) return Optional.empty(); // the Avro path fails on an int value
+        final ColumnFormatters.TimestampFormatter timestampFormatter =
+              new ColumnFormatters.TimestampFormatter(timeZoneId);
+        formatter = (col, rowStrBuf) -> timestampFormatter.format(col.getLong(), rowStrBuf);
+      } else if (logicalType instanceof LogicalTypes.Decimal) {
+        if (valueType != Schema.Type.BYTES) return Optional.empty();
+        final ColumnFormatters.DecimalFormatter decimalFormatter =
+              new ColumnFormatters.DecimalFormatter(fieldSchema, logicalType);
+        formatter = (col, rowStrBuf) -> decimalFormatter.format(col.getBinary().toByteBuffer(), rowStrBuf);
+      } else if (ColumnFormatters.isUuid(logicalType)) {
+        if (valueType != Schema.Type.STRING) return Optional.empty();
+        final ColumnFormatters.UuidFormatter uuidFormatter =
+              new ColumnFormatters.UuidFormatter(fieldSchema, logicalType);
+        formatter = (col, rowStrBuf) -> uuidFormatter.format(col.getBinary().toStringUsingUTF8(), rowStrBuf);
+      } else {
+        formatter = valueFormatter(valueType);
+      }
+    } else {
+      switch (typing.fieldType) {
+        case ENUM:
+        case STRING:
+          formatter = (col, rowStrBuf) -> {
+            rowStrBuf.append('\'');
+            appendUtf8(col.getBinary(), rowStrBuf);
+            rowStrBuf.append('\'');
+          };
+          break;
+        case FLOAT:
+          formatter = isExactFloats
+                ? (col, rowStrBuf) -> ColumnFormatters.appendExactFloatValue(col.getFloat(), rowStrBuf)
+                : (col, rowStrBuf) -> NumericText.appendFloat(col.getFloat(), rowStrBuf);
+          break;
+        case DOUBLE:
+          formatter = isExactFloats
+                ? (col, rowStrBuf) -> ColumnFormatters.appendExactDoubleValue(col.getDouble(), rowStrBuf)
+                : (col, rowStrBuf) -> NumericText.appendDouble(col.getDouble(), rowStrBuf);
+          break;
+        case NULL:
+        case INT:
+        case LONG:
+        case BOOLEAN:
+          formatter = valueFormatter(valueType);
+          break;
+        default:
+          formatter = null;
+      }
+    }
+    if (formatter == null) {
+      return Optional.empty();
+    }
+    return Optional.of(isOptional ? nullable(column.getMaxDefinitionLevel(), formatter) : formatter);
+  }
+
+  // the schema itself when not a UNION, else the other branch of a two-way UNION with NULL (if is one)
+  private static Schema nonNullSchema(final Schema fieldSchema) {
+    if (fieldSchema.getType() != Schema.Type.UNION) {
+      return fieldSchema;
+    }
+    final List<Schema> unionTypes = fieldSchema.getTypes();
+    if (unionTypes.size() != 2) {
+      return null;
+    }
+    final Schema first = unionTypes.get(0), second = unionTypes.get(1);
+    if (first.getType() == Schema.Type.NULL && second.getType() != Schema.Type.UNION) {
+      return second;
+    }
+    return second.getType() == Schema.Type.NULL && first.getType() != Schema.Type.UNION ? first : null;
+  }
+
+  private static boolean isMatchingPrimitive(final Schema.Type valueType,
+                                             final PrimitiveType.PrimitiveTypeName primitiveTypeName)
+  {
+    switch (valueType) {
+      case BOOLEAN:
+        return primitiveTypeName == PrimitiveType.PrimitiveTypeName.BOOLEAN;
+      case INT:
+        return primitiveTypeName == PrimitiveType.PrimitiveTypeName.INT32;
+      case LONG:
+        return primitiveTypeName == PrimitiveType.PrimitiveTypeName.INT64;
+      case FLOAT:
+        return primitiveTypeName == PrimitiveType.PrimitiveTypeName.FLOAT;
+      case DOUBLE:
+        return primitiveTypeName == PrimitiveType.PrimitiveTypeName.DOUBLE;
+      case ENUM:
+      case STRING:
+      case BYTES:
+        return primitiveTypeName == PrimitiveType.PrimitiveTypeName.BINARY;
+      default:
+        return false;
+    }
+  }
+
+  // renders the value as its toString() text, as ColumnFormatters.appendValue() would the Avro value
+  private static ColumnarFormatter valueFormatter(final Schema.Type valueType) {
+    switch (valueType) {
+      case BOOLEAN:
+        return (col, rowStrBuf) -> rowStrBuf.append(col.getBoolean());
+      case INT:
+        return (col, rowStrBuf) -> rowStrBuf.append(col.getInteger());
+      case LONG:
+        return (col, rowStrBuf) -> rowStrBuf.append(col.getLong());
+      case FLOAT:
+        return (col, rowStrBuf) -> rowStrBuf.append(col.getFloat());
+      case DOUBLE:
+        return (col, rowStrBuf) -> rowStrBuf.append(col.getDouble());
+      case ENUM:
+      case STRING:
+        return (col, rowStrBuf) -> appendUtf8(col.getBinary(), rowStrBuf);
+      default:
+        return null;
+    }
+  }
+
+  private static ColumnarFormatter nullable(final int maxDefinitionLevel, final ColumnarFormatter formatter) {
+    return (col, rowStrBuf) -> {
+      if (col.getCurrentDefinitionLevel() < maxDefinitionLevel) {
+        rowStrBuf.append(NULL_TEXT);
+      } else {
+        formatter.format(col, rowStrBuf);
+      }
+    };
+  }
+
+  /**
+   * Decodes UTF-8 text straight into the buffer. Should the bytes not be well-formed
+   * UTF-8, the text is instead decoded via a String, so that malformed input is
+   * substituted exactly as when the Avro reader decodes it.
+   */
+  private static void appendUtf8(final Binary value, final StringBuilder strBuf) {
+    final ByteBuffer bytes = value.toByteBuffer();
+    final int start = strBuf.length();
+    final int end = bytes.limit();
+    int i = bytes.position();
+    while (i < end) {
+      final int b1 = bytes.get(i);
+      if (b1 >= 0) {
+        strBuf.append((char) b1);
+        i++;
+        continue;
+      }
+      if ((b1 & 0xe0) == 0xc0) {
+        if (i + 1 < end && isContinuation(bytes.get(i + 1))) {
+          final int codePoint = ((b1 & 0x1f) << 6) | (bytes.get(i + 1) & 0x3f);
+          if (codePoint >= 0x80) {
+            strBuf.append((char) codePoint);
+            i += 2;
+            continue;
+          }
+        }
+      } else if ((b1 & 0xf0) == 0xe0) {
+        if (i + 2 < end && isContinuation(bytes.get(i + 1)) && isContinuation(bytes.get(i + 2))) {
+          final int codePoint = ((b1 & 0x0f) << 12) | ((bytes.get(i + 1) & 0x3f) << 6) | (bytes.get(i + 2) & 0x3f);
+          if (codePoint >= 0x800 && !Character.isSurrogate((char) codePoint)) {
+            strBuf.append((char) codePoint);
+            i += 3;
+            continue;
+          }
+        }
+      } else if ((b1 & 0xf8) == 0xf0) {
+        if (i + 3 < end && isContinuation(bytes.get(i + 1)) && isContinuation(bytes.get(i + 2)) &&
+            isContinuation(bytes.get(i + 3)))
+        {
+          final int codePoint = ((b1 & 0x07) << 18) | ((bytes.get(i + 1) & 0x3f) << 12) |
+                      ((bytes.get(i + 2) & 0x3f) << 6) | (bytes.get(i + 3) & 0x3f);
+          if (codePoint >= 0x10000 && codePoint <= Character.MAX_CODE_POINT) {
+            strBuf.append(Character.highSurrogate(codePoint)).append(Character.lowSurrogate(codePoint));
+            i += 4;
+            continue;
+          }
+        }
+      }
+      // malformed
+      strBuf.setLength(start);
+      strBuf.append(value.toStringUsingUTF8());
+      return;
+    }
+  }
+
+  private static boolean isContinuation(final byte b) {
+    return (b & 0xc0) == 0x80;
+  }
+}
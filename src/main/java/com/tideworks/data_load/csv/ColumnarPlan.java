@@ -0,0 +1,166 @@
+/* ColumnarPlan.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.csv;
+
+import com.tideworks.data_load.io.CsvRowWriter;
+import com.tideworks.data_load.util.AvroSchemas;
+import org.apache.avro.Schema;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.hadoop.metadata.FileMetaData;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The csv rendering of a flat Parquet file, compiled once per file, that reads the
+ * primitive column values of each row group page by page and renders them straight
+ * into the row buffer - bypassing the materialization of an Avro record per row
+ * (and of a boxed value, or Utf8, per column).
+ * <p>
+ * The output is identical to that of a {@link FormatterPlan} fed by the Avro reader;
+ * the Avro schema the Avro reader would use (see {@link AvroSchemas#fileAvroSchema},
+ * or a projection of it) determines the rendering of each column - only the columns
+ * of its fields are read. A schema the plan cannot render identically, such as one
+ * with nested or repeated fields, does not compile - the Avro reader path is then to
+ * be used instead.
+ * <p>
+ * A plan holds no mutable state and so may be shared by threads.
+ */
+public final class ColumnarPlan {
+  private static final Logger log = LoggerFactory.getLogger(ColumnarPlan.class.getSimpleName());
+  private static final String csvDelimiter = ",";
+  private static final GroupConverter noOpConverter = new GroupConverter() {
+    private final PrimitiveConverter primitiveConverter = new PrimitiveConverter() {};
+    @Override
+    public Converter getConverter(int fieldIndex) { return primitiveConverter; }
+    @Override
+    public void start() {}
+    @Override
+    public void end() {}
+  };
+
+  private final MessageType fileSchema;
+  private final MessageType requestedSchema;
+  private final String createdBy;
+  private final ColumnDescriptor[] columns;
+  private final ColumnarFormatter[] formatters;
+  private final String header;
+
+  private ColumnarPlan(MessageType fileSchema, MessageType requestedSchema, String createdBy, String[] fieldNames,
+                       ColumnDescriptor[] columns, ColumnarFormatter[] formatters)
+  {
+    this.fileSchema = fileSchema;
+    this.requestedSchema = requestedSchema;
+    this.createdBy = createdBy;
+    this.columns = columns;
+    this.formatters = formatters;
+    this.header = String.join(csvDelimiter, fieldNames);
+  }
+
+  /**
+   * @param fileMetaData metadata of the Parquet file (as per its footer)
+   * @param recordSchema Avro schema of the records as read from the file (projected or not)
+   * @param timeZoneId time zone that date/time values are rendered in
+   * @param isExactFloats whether float/double values are rendered as their exact decimal expansion
+   * @return the plan, or empty if the file schema is not one the plan supports
+   */
+  public static Optional<ColumnarPlan> compile(final FileMetaData fileMetaData,
+                                               final Schema recordSchema,
+                                               final ZoneId timeZoneId,
+                                               final boolean isExactFloats)
+  {
+    final MessageType fileSchema = fileMetaData.getSchema();
+    if (recordSchema.getType() != Schema.Type.RECORD) {
+      log.debug("Avro schema does not correspond to Parquet schema - columnar reading not supported");
+      return Optional.empty();
+    }
+    final List<Schema.Field> fields = recordSchema.getFields();
+    final String[] fieldNames = new String[fields.size()];
+    final ColumnDescriptor[] columns = new ColumnDescriptor[fields.size()];
+    final ColumnarFormatter[] formatters = new ColumnarFormatter[fields.size()];
+    final List<Type> columnTypes = new ArrayList<>(fields.size());
+    int i = 0;
+    for(final Schema.Field field : fields) {
+      final Type columnType = fileSchema.containsField(field.name()) ? fileSchema.getType(field.name()) : null;
+      if (columnType == null || !columnType.isPrimitive()) {
+        log.debug("field \"{}\" is not a primitive Parquet column - columnar reading not supported", field.name());
+        return Optional.empty();
+      }
+      final ColumnDescriptor column = fileSchema.getColumnDescription(new String[]{ columnType.getName() });
+      final Optional<ColumnarFormatter> formatterOptn =
+            ColumnarFormatters.compile(field, column, timeZoneId, isExactFloats);
+      if (!formatterOptn.isPresent()) {
+        log.debug("field \"{}\" of type {} is not supported - columnar reading not supported",
+                  field.name(), column.getPrimitiveType());
+        return Optional.empty();
+      }
+      columnTypes.add(columnType);
+      fieldNames[i] = field.name().toUpperCase();
+      columns[i] = column;
+      formatters[i++] = formatterOptn.get();
+    }
+    final MessageType requestedSchema = new MessageType(fileSchema.getName(), columnTypes);
+    return Optional.of(new ColumnarPlan(fileSchema, requestedSchema, fileMetaData.getCreatedBy(),
+                                        fieldNames, columns, formatters));
+  }
+
+  /** @return csv header line of the upper-cased field names (without line terminator) */
+  public String getHeader() { return header; }
+
+  /** @return the Parquet schema of just the columns that the plan reads */
+  public MessageType getRequestedSchema() { return requestedSchema; }
+
+  /**
+   * Renders all the rows of a row group as csv rows.
+   *
+   * @param rowGroup pages of the row group (as read from a file of the plan's schema)
+   * @param rowStrBuf buffer that rows are rendered in
+   * @param csvOutputWriter destination of the csv rows
+   * @return number of rows written
+   * @throws IOException
+   */
+  public long writeRowGroup(final PageReadStore rowGroup,
+                            final StringBuilder rowStrBuf,
+                            final CsvRowWriter csvOutputWriter)
+        throws IOException
+  {
+    final ColumnReadStoreImpl columnReadStore = new ColumnReadStoreImpl(rowGroup, noOpConverter, fileSchema, createdBy);
+    final ColumnarFormatter[] formatters = this.formatters;
+    final ColumnReader[] columnReaders = new ColumnReader[columns.length];
+    for(int i = 0; i < columns.length; i++) {
+      columnReaders[i] = columnReadStore.getColumnReader(columns[i]);
+    }
+    final long rowCount = rowGroup.getRowCount();
+    for(long row = 0; row < rowCount; row++) {
+      rowStrBuf.setLength(0);
+      for(int i = 0; i < formatters.length; i++) {
+        if (i > 0) {
+          rowStrBuf.append(csvDelimiter);
+        }
+        final ColumnReader columnReader = columnReaders[i];
+        formatters[i].format(columnReader, rowStrBuf);
+        columnReader.consume();
+      }
+      rowStrBuf.append('\n');
+      csvOutputWriter.writeRow(rowStrBuf);
+    }
+    return rowCount;
+  }
+}
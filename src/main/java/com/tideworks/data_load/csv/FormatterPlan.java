@@ -0,0 +1,77 @@
+/* FormatterPlan.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.csv;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * The csv rendering of a record schema, compiled once per file: the header line
+ * plus an array holding one specialized {@link ColumnFormatter} per column. Field
+ * values are accessed by their resolved schema position.
+ * <p>
+ * A plan holds no mutable state and so may be shared by threads.
+ */
+public final class FormatterPlan {
+  private static final String csvDelimiter = ",";
+
+  private final Schema schema;
+  private final int[] fieldPositions;
+  private final ColumnFormatter[] formatters;
+  private final String header;
+
+  private FormatterPlan(Schema schema, String[] fieldNames, int[] fieldPositions, ColumnFormatter[] formatters) {
+    this.schema = schema;
+    this.fieldPositions = fieldPositions;
+    this.formatters = formatters;
+    this.header = String.join(csvDelimiter, fieldNames);
+  }
+
+  public static FormatterPlan compile(final Schema recordSchema, final ZoneId timeZoneId, final boolean isExactFloats) {
+    final List<Schema.Field> fields = recordSchema.getFields();
+    final String[] fieldNames = new String[fields.size()];
+    final int[] fieldPositions = new int[fields.size()];
+    final ColumnFormatter[] formatters = new ColumnFormatter[fields.size()];
+    int i = 0;
+    for(final Schema.Field field : fields) {
+      fieldNames[i] = field.name().toUpperCase();
+      fieldPositions[i] = field.pos();
+      formatters[i++] = ColumnFormatters.compile(field, timeZoneId, isExactFloats);
+    }
+    return new FormatterPlan(recordSchema, fieldNames, fieldPositions, formatters);
+  }
+
+  public Schema getSchema() { return schema; }
+
+  /** @return csv header line of the upper-cased field names (without line terminator) */
+  public String getHeader() { return header; }
+
+  /**
+   * Renders a record as a csv row, including its line terminator.
+   *
+   * @param record record to be rendered; its schema must be the one the plan was compiled from
+   *               (or one that only has more fields following those)
+   * @param rowStrBuf buffer that is reset to hold the rendered row
+   */
+  public void formatRow(final GenericData.Record record, final StringBuilder rowStrBuf) {
+    final int[] fieldPositions = this.fieldPositions;
+    final ColumnFormatter[] formatters = this.formatters;
+    rowStrBuf.setLength(0);
+    for(int i = 0; i < formatters.length; i++) {
+      if (i > 0) {
+        rowStrBuf.append(csvDelimiter);
+      }
+      // by position - a look up by name would be a hash look up per value, and
+      // the upper-cased header names don't match fields whose names are not
+      formatters[i].format(record.get(fieldPositions[i]), rowStrBuf);
+    }
+    rowStrBuf.append('\n');
+  }
+}
@@ -0,0 +1,161 @@
+/* Iso8601TimestampFormatter.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.csv;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Renders epoch milliseconds as ISO-8601 date/time text, as the digits are
+ * computed, straight into a {@link StringBuilder} - no objects are allocated per value.
+ * <p>
+ * The text is identical to that of {@link TimestampISO8601Format} (i.e., of
+ * {@link java.time.OffsetDateTime#toString()} for the instant in the time zone).
+ * <p>
+ * The zone offset in effect is cached together with the window of time, bounded
+ * by the zone's offset transitions, for which it remains in effect; it only has
+ * to be looked up again for a value outside of that window. The cached window is
+ * an immutable object, so an instance may be shared by threads.
+ */
+final class Iso8601TimestampFormatter {
+  private static final int SECONDS_PER_DAY = 86400;
+  private static final long DAYS_PER_CYCLE = 146097; // days in a 400 year cycle
+  private static final long DAYS_0000_TO_1970 = (DAYS_PER_CYCLE * 5L) - (30L * 365L + 7L);
+
+  private static final class OffsetWindow {
+    private final long startMillis; // inclusive
+    private final long endMillis;   // exclusive
+    private final int offsetSeconds;
+    private final String offsetId;
+
+    private OffsetWindow(long startMillis, long endMillis, ZoneOffset offset) {
+      this.startMillis = startMillis;
+      this.endMillis = endMillis;
+      this.offsetSeconds = offset.getTotalSeconds();
+      this.offsetId = offset.getId();
+    }
+  }
+
+  private final ZoneRules zoneRules;
+  private volatile OffsetWindow offsetWindow;
+
+  Iso8601TimestampFormatter(ZoneId timeZoneId) {
+    this.zoneRules = timeZoneId.getRules();
+    this.offsetWindow = makeOffsetWindow(0L);
+  }
+
+  private OffsetWindow makeOffsetWindow(final long epochMillis) {
+    final Instant instant = Instant.ofEpochMilli(epochMillis);
+    final ZoneOffset offset = zoneRules.getOffset(instant);
+    if (zoneRules.isFixedOffset()) {
+      return new OffsetWindow(Long.MIN_VALUE, Long.MAX_VALUE, offset);
+    }
+    final ZoneOffsetTransition next = zoneRules.nextTransition(instant);
+    // previousTransition() is exclusive of its argument, so a transition happening at exactly
+    // the instant itself is only found by looking back from just after the instant
+    final ZoneOffsetTransition prev = zoneRules.previousTransition(instant.plusMillis(1));
+    final long startMillis = prev != null ? toEpochMillis(prev) : Long.MIN_VALUE;
+    final long endMillis = next != null ? toEpochMillis(next) : Long.MAX_VALUE;
+    return new OffsetWindow(startMillis, endMillis, offset);
+  }
+
+  private static long toEpochMillis(final ZoneOffsetTransition transition) {
+    final long epochSecond = transition.toEpochSecond(); // transitions are always on a whole second
+    if (epochSecond > Long.MAX_VALUE / 1000) {
+      return Long.MAX_VALUE;
+    }
+    return epochSecond < Long.MIN_VALUE / 1000 ? Long.MIN_VALUE : epochSecond * 1000;
+  }
+
+  /**
+   * Appends the ISO-8601 text of the instant, as rendered in the time zone.
+   *
+   * @param epochMillis instant as milliseconds since the epoch
+   * @param strBuf buffer that the text is appended to
+   * @return the buffer
+   */
+  StringBuilder format(final long epochMillis, final StringBuilder strBuf) {
+    OffsetWindow window = offsetWindow;
+    if (epochMillis < window.startMillis || epochMillis >= window.endMillis) {
+      offsetWindow = window = makeOffsetWindow(epochMillis);
+    }
+
+    final long localSeconds = Math.floorDiv(epochMillis, 1000L) + window.offsetSeconds;
+    final int millis = (int) Math.floorMod(epochMillis, 1000L);
+    final long epochDay = Math.floorDiv(localSeconds, SECONDS_PER_DAY);
+    final int secondOfDay = (int) Math.floorMod(localSeconds, SECONDS_PER_DAY);
+
+    appendDate(epochDay, strBuf);
+    strBuf.append('T');
+
+    final int hour = secondOfDay / 3600;
+    final int minute = (secondOfDay / 60) % 60;
+    final int second = secondOfDay % 60;
+    append2Digits(hour, strBuf).append(':');
+    append2Digits(minute, strBuf);
+    if (second > 0 || millis > 0) {
+      append2Digits(second, strBuf.append(':'));
+      if (millis > 0) {
+        strBuf.append('.').append((char) ('0' + millis / 100));
+        append2Digits(millis % 100, strBuf);
+      }
+    }
+    return strBuf.append(window.offsetId);
+  }
+
+  // same algorithm as java.time.LocalDate.ofEpochDay() and LocalDate.toString()
+  private static void appendDate(final long epochDay, final StringBuilder strBuf) {
+    long zeroDay = epochDay + DAYS_0000_TO_1970;
+    // find the march-based year
+    zeroDay -= 60;  // adjust to 0000-03-01 so leap day is at end of four year cycle
+    long adjust = 0;
+    if (zeroDay < 0) {
+      // adjust negative years to positive for calculation
+      final long adjustCycles = (zeroDay + 1) / DAYS_PER_CYCLE - 1;
+      adjust = adjustCycles * 400;
+      zeroDay += -adjustCycles * DAYS_PER_CYCLE;
+    }
+    long yearEst = (400 * zeroDay + 591) / DAYS_PER_CYCLE;
+    long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+    if (doyEst < 0) {
+      // fix estimate
+      yearEst--;
+      doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+    }
+    yearEst += adjust;  // reset any negative year
+    final int marchDoy0 = (int) doyEst;
+
+    // convert march-based values back to january-based
+    final int marchMonth0 = (marchDoy0 * 5 + 2) / 153;
+    final int month = (marchMonth0 + 2) % 12 + 1;
+    final int dom = marchDoy0 - (marchMonth0 * 306 + 5) / 10 + 1;
+    yearEst += marchMonth0 / 10;
+    final int year = (int) yearEst;
+
+    final int absYear = Math.abs(year);
+    if (year < 0) {
+      strBuf.append('-');
+    } else if (year > 9999) {
+      strBuf.append('+');
+    }
+    if (absYear < 1000) {
+      strBuf.append('0');
+      append2Digits(absYear / 10, strBuf).append((char) ('0' + absYear % 10));
+    } else {
+      strBuf.append(absYear);
+    }
+    append2Digits(month, strBuf.append('-'));
+    append2Digits(dom, strBuf.append('-'));
+  }
+
+  private static StringBuilder append2Digits(final int value, final StringBuilder strBuf) {
+    return strBuf.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+  }
+}
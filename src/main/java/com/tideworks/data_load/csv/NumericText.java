@@ -0,0 +1,142 @@
+/* NumericText.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.csv;
+
+/**
+ * Renders numeric values as text straight into a {@link StringBuilder}, without
+ * allocating a {@link java.math.BigDecimal} (or {@link java.math.BigInteger}) per value.
+ * <p>
+ * The layout of the text is that of {@link java.math.BigDecimal#toString()} for a
+ * non-negative scale - i.e., plain notation, except for a value whose leading digit
+ * lies more than six places right of the decimal point, which is put in scientific
+ * notation (e.g., 1.5E-7).
+ */
+final class NumericText {
+  private static final String ZERO_POINT_ZEROS = "0.000000";
+
+  private NumericText() {}
+
+  /**
+   * Appends the decimal digits of {@link Double#toString(double)}, which parse back to the
+   * same double value - though, in Java 8, are not always the fewest that do (JDK-4511638).
+   *
+   * @param value finite double value
+   * @param strBuf buffer that the text is appended to
+   * @throws NumberFormatException if the value is infinite or NaN (just as {@code new BigDecimal(value)})
+   */
+  static void appendDouble(final double value, final StringBuilder strBuf) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      throw new NumberFormatException("Infinite or NaN");
+    }
+    final int start = strBuf.length();
+    layoutDigits(start, strBuf.append(value));
+  }
+
+  /**
+   * Appends the decimal digits of {@link Float#toString(float)}, which parse back to the
+   * same float value - though, in Java 8, are not always the fewest that do (JDK-4511638).
+   *
+   * @param value finite float value
+   * @param strBuf buffer that the text is appended to
+   * @throws NumberFormatException if the value is infinite or NaN (just as {@code new BigDecimal(value)})
+   */
+  static void appendFloat(final float value, final StringBuilder strBuf) {
+    if (Float.isNaN(value) || Float.isInfinite(value)) {
+      throw new NumberFormatException("Infinite or NaN");
+    }
+    final int start = strBuf.length();
+    layoutDigits(start, strBuf.append(value));
+  }
+
+  // re-lays out the Double.toString() (or Float.toString()) text at the end of the buffer, with
+  // the same digits less any trailing zeros
+  private static void layoutDigits(final int start, final StringBuilder strBuf) {
+    final int end = strBuf.length();
+    int i = start;
+    final boolean isNegative = strBuf.charAt(i) == '-';
+    if (isNegative) {
+      i++;
+    }
+    long unscaled = 0; // at most 17 significant digits, so cannot overflow
+    int exponent = 0;  // value is unscaled * 10^exponent
+    boolean isFraction = false;
+    for(; i < end; i++) {
+      final char c = strBuf.charAt(i);
+      if (c == '.') {
+        isFraction = true;
+      } else if (c == 'E') {
+        exponent += parseExponent(strBuf, i + 1, end);
+        break;
+      } else {
+        unscaled = unscaled * 10 + (c - '0');
+        if (isFraction) {
+          exponent--;
+        }
+      }
+    }
+    strBuf.setLength(start);
+    if (unscaled == 0) {
+      strBuf.append('0'); // negative zero too, as with BigDecimal
+      return;
+    }
+    while (unscaled % 10 == 0) {
+      unscaled /= 10;
+      exponent++;
+    }
+    if (exponent >= 0) {
+      strBuf.append(isNegative ? -unscaled : unscaled);
+      for(; exponent > 0; exponent--) {
+        strBuf.append('0');
+      }
+    } else {
+      appendDecimal(isNegative ? -unscaled : unscaled, -exponent, strBuf);
+    }
+  }
+
+  private static int parseExponent(final StringBuilder strBuf, int i, final int end) {
+    final boolean isNegative = strBuf.charAt(i) == '-';
+    if (isNegative) {
+      i++;
+    }
+    int exponent = 0;
+    for(; i < end; i++) {
+      exponent = exponent * 10 + (strBuf.charAt(i) - '0');
+    }
+    return isNegative ? -exponent : exponent;
+  }
+
+  /**
+   * Appends the text of the decimal value {@code unscaled * 10^-scale}, identical
+   * to that of {@code BigDecimal.valueOf(unscaled, scale).toString()}.
+   *
+   * @param unscaled unscaled value
+   * @param scale non-negative scale
+   * @param strBuf buffer that the text is appended to
+   */
+  static void appendDecimal(final long unscaled, final int scale, final StringBuilder strBuf) {
+    final int pos = strBuf.length() + (unscaled < 0 ? 1 : 0); // position of the leading digit
+    strBuf.append(unscaled);
+    if (scale == 0) {
+      return;
+    }
+    final int digits = strBuf.length() - pos;
+    final int adjusted = digits - 1 - scale; // exponent of the leading digit
+    if (adjusted >= -6) {
+      final int point = digits - scale;
+      if (point > 0) {
+        strBuf.insert(pos + point, '.');
+      } else {
+        strBuf.insert(pos, ZERO_POINT_ZEROS, 0, 2 - point);
+      }
+    } else {
+      if (digits > 1) {
+        strBuf.insert(pos + 1, '.');
+      }
+      strBuf.append('E').append(adjusted);
+    }
+  }
+}
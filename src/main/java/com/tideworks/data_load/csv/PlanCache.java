@@ -0,0 +1,174 @@
+/* PlanCache.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.csv;
+
+import com.tideworks.data_load.jfr.FlightEvents;
+import com.tideworks.data_load.jfr.PlanCompileEvent;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.parquet.hadoop.metadata.FileMetaData;
+import org.apache.parquet.schema.MessageType;
+
+import javax.annotation.Nonnull;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compiled csv renderings ({@link FormatterPlan} and {@link ColumnarPlan}, each with
+ * its header line) of the record schemas seen so far - so that the files of a schema
+ * already seen reuse its plan rather than compile their own. The plans hold no
+ * mutable state, so are shared by all threads.
+ * <p>
+ * Plans are looked up by the Avro parsing fingerprint of the record schema. The
+ * parsing canonical form leaves out the schema attributes (logical types included)
+ * that a plan depends on, so a plan is only reused for a schema equal in full to
+ * that it was compiled from. The least recently used plan is evicted once the cache
+ * holds its capacity.
+ */
+public final class PlanCache {
+  public static final int DEFAULT_CAPACITY = 256;
+
+  private static final class Key {
+    private final long fingerprint;
+    private final Schema recordSchema;
+    private final ZoneId timeZoneId;
+    private final boolean isExactFloats;
+    private final MessageType fileSchema; // for a columnar plan, else null
+    private final String createdBy;       // for a columnar plan, else null
+
+    private Key(Schema recordSchema, ZoneId timeZoneId, boolean isExactFloats, MessageType fileSchema,
+                String createdBy)
+    {
+      this.fingerprint = SchemaNormalization.parsingFingerprint64(recordSchema);
+      this.recordSchema = recordSchema;
+      this.timeZoneId = timeZoneId;
+      this.isExactFloats = isExactFloats;
+      this.fileSchema = fileSchema;
+      this.createdBy = createdBy;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (!(obj instanceof Key)) return false;
+      final Key other = (Key) obj;
+      return fingerprint == other.fingerprint && isExactFloats == other.isExactFloats &&
+             timeZoneId.equals(other.timeZoneId) && (fileSchema == null) == (other.fileSchema == null) &&
+             Objects.equals(createdBy, other.createdBy) && recordSchema.equals(other.recordSchema) &&
+             Objects.equals(fileSchema, other.fileSchema);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(fingerprint, timeZoneId, isExactFloats, fileSchema == null, createdBy);
+    }
+  }
+
+  // the plan cached for a key - a formatter plan for a key without a file schema, else a
+  // columnar plan (empty if the schema does not compile to one)
+  private static final class Entry {
+    private final FormatterPlan formatterPlan;
+    private final Optional<ColumnarPlan> columnarPlanOptn;
+
+    private Entry(FormatterPlan formatterPlan, Optional<ColumnarPlan> columnarPlanOptn) {
+      this.formatterPlan = formatterPlan;
+      this.columnarPlanOptn = columnarPlanOptn;
+    }
+  }
+
+  private static final class LruMap extends LinkedHashMap<Key, Entry> {
+    private static final long serialVersionUID = 1L;
+    private final int capacity;
+
+    private LruMap(int capacity) {
+      super(16, 0.75f, true);
+      this.capacity = capacity;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+      return size() > capacity;
+    }
+  }
+
+  private final LruMap plans;
+  private final AtomicLong hitCount = new AtomicLong(0);
+  private final AtomicLong missCount = new AtomicLong(0);
+
+  /** @param capacity number of plans the cache holds, at most */
+  public PlanCache(final int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("plan cache capacity must be positive: " + capacity);
+    }
+    this.plans = new LruMap(capacity);
+  }
+
+  /** @see FormatterPlan#compile */
+  public FormatterPlan formatterPlan(@Nonnull Schema recordSchema, @Nonnull ZoneId timeZoneId, boolean isExactFloats) {
+    final Key key = new Key(recordSchema, timeZoneId, isExactFloats, null, null);
+    final Entry entry = lookup(key);
+    if (entry != null) {
+      return entry.formatterPlan;
+    }
+    final PlanCompileEvent event = FlightEvents.isEnabled() ? new PlanCompileEvent() : null;
+    final FormatterPlan plan = FormatterPlan.compile(recordSchema, timeZoneId, isExactFloats);
+    if (event != null) {
+      event.completed("formatter", recordSchema.getFullName(), recordSchema.getFields().size(), true);
+    }
+    store(key, new Entry(plan, null));
+    return plan;
+  }
+
+  /** @see ColumnarPlan#compile */
+  public Optional<ColumnarPlan> columnarPlan(@Nonnull FileMetaData fileMetaData, @Nonnull Schema recordSchema,
+                                             @Nonnull ZoneId timeZoneId, boolean isExactFloats)
+  {
+    final Key key = new Key(recordSchema, timeZoneId, isExactFloats, fileMetaData.getSchema(),
+                            String.valueOf(fileMetaData.getCreatedBy()));
+    final Entry entry = lookup(key);
+    if (entry != null) {
+      return entry.columnarPlanOptn;
+    }
+    final PlanCompileEvent event = FlightEvents.isEnabled() ? new PlanCompileEvent() : null;
+    final Optional<ColumnarPlan> planOptn = ColumnarPlan.compile(fileMetaData, recordSchema, timeZoneId, isExactFloats);
+    if (event != null) {
+      event.completed("columnar", recordSchema.getFullName(), recordSchema.getFields().size(), planOptn.isPresent());
+    }
+    store(key, new Entry(null, planOptn)); // a schema that does not compile is not attempted again
+    return planOptn;
+  }
+
+  private Entry lookup(final Key key) {
+    final Entry entry;
+    synchronized (plans) {
+      entry = plans.get(key);
+    }
+    (entry != null ? hitCount : missCount).incrementAndGet();
+    return entry;
+  }
+
+  private void store(final Key key, final Entry entry) {
+    synchronized (plans) {
+      plans.put(key, entry);
+    }
+  }
+
+  public long getHitCount() { return hitCount.get(); }
+
+  public long getMissCount() { return missCount.get(); }
+
+  /** @return number of plans cached */
+  public int size() {
+    synchronized (plans) {
+      return plans.size();
+    }
+  }
+}
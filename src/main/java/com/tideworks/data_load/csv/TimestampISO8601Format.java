@@ -0,0 +1,45 @@
+/* TimestampISO8601Format.java
+ *
+ * Copyright June 2018 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.csv;
+
+import java.sql.Timestamp;
+import java.text.DateFormat;
+import java.text.FieldPosition;
+import java.text.ParsePosition;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+@SuppressWarnings("unused")
+final class TimestampISO8601Format extends DateFormat {
+  private static final String unsupportedFieldIndexErrMsgFmt = "Unsupported field index %d - %s only supports index 0";
+  private final ZoneId timeZoneID;
+
+  TimestampISO8601Format(ZoneId timeZoneID) {
+    this.timeZoneID = timeZoneID;
+  }
+  TimestampISO8601Format() {
+    this(ZoneId.systemDefault());
+  }
+  @Override
+  public StringBuffer format(Date date, StringBuffer toAppendTo, FieldPosition fieldPosition) {
+    if (date == null) return toAppendTo;
+    final int fieldIndex = fieldPosition.getField();
+    if (fieldIndex == 0) {
+      @SuppressWarnings("RedundantCast")
+      final Instant instant = date instanceof Timestamp ? ((Timestamp) date).toInstant() : date.toInstant();
+      return toAppendTo.append(OffsetDateTime.ofInstant(instant, timeZoneID));
+    } else {
+      throw new AssertionError(String.format(unsupportedFieldIndexErrMsgFmt, fieldIndex, getClass().getSimpleName()));
+    }
+  }
+  @Override
+  public Date parse(String source, ParsePosition pos) {
+    throw new UnsupportedOperationException();
+  }
+}
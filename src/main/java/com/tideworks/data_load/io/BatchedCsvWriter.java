@@ -0,0 +1,193 @@
+/* BatchedCsvWriter.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import com.tideworks.data_load.jfr.CsvFlushEvent;
+import com.tideworks.data_load.jfr.FlightEvents;
+import com.tideworks.data_load.util.ConversionContext;
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Output stage for csv rows: rows are encoded as UTF-8 directly into a large byte
+ * buffer, which is written to the underlying output stream as a whole batch once
+ * it fills up. The buffer is leased of the shared {@link BufferPool}, and returned
+ * to it upon close. The chars of a row are first copied in bulk ranges into a staging
+ * array, so the encoding loop does not go through {@link CharSequence#charAt(int)}.
+ * <p>
+ * Optionally, the output is also flushed each time a given number of rows, or of
+ * bytes, has been written since the previous flush (a value of zero disables the
+ * respective interval). Otherwise the output is only flushed upon close.
+ * <p>
+ * The encoding yields the same bytes as an {@link java.io.OutputStreamWriter} for
+ * UTF-8 would, including the substitution of '?' for a malformed surrogate.
+ * <p>
+ * An instance is not thread safe - it is intended for use by a single worker thread.
+ */
+public class BatchedCsvWriter implements CsvRowWriter {
+  public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+  private static final int MAX_BYTES_PER_CHAR = 3; // a surrogate pair (two chars) encodes as four bytes
+  private static final byte REPLACEMENT_BYTE = '?';
+  private static final int CHAR_STAGING_SIZE = 8192;
+
+  private final OutputStream out;
+  private final ByteBuffer bufLease; // leased of the shared buffer pool - returned upon close
+  private final byte[] buf;
+  private final int bufSize;
+  private final char[] chars = new char[CHAR_STAGING_SIZE];
+  private final long flushRowInterval;
+  private final long flushByteInterval;
+  private int count = 0;
+  private long rowCount = 0;
+  private long drainedRowCount = 0; // rows completed as of the last write of the buffer
+  private long byteCount = 0;
+  private long rowsSinceFlush = 0;
+  private long bytesSinceFlush = 0;
+  private boolean isReleased = false;
+
+  public BatchedCsvWriter(@Nonnull OutputStream out) {
+    this(out, DEFAULT_BUFFER_SIZE, 0, 0);
+  }
+
+  public BatchedCsvWriter(@Nonnull OutputStream out, int bufferSize, long flushRowInterval, long flushByteInterval) {
+    if (bufferSize < 16) {
+      throw new IllegalArgumentException("buffer size is too small: " + bufferSize);
+    }
+    this.out = out;
+    this.bufLease = ConversionContext.get().getBufferPool().lease(bufferSize, false);
+    this.buf = bufLease.array();
+    this.bufSize = bufferSize;
+    this.flushRowInterval = flushRowInterval;
+    this.flushByteInterval = flushByteInterval;
+  }
+
+  @Override
+  public void writeRow(@Nonnull CharSequence row) throws IOException {
+    final long startByteCount = byteCount + count;
+    encode(row, 0, row.length());
+    rowCount++;
+    rowsSinceFlush++;
+    bytesSinceFlush += byteCount + count - startByteCount;
+    if ((flushRowInterval > 0 && rowsSinceFlush >= flushRowInterval) ||
+        (flushByteInterval > 0 && bytesSinceFlush >= flushByteInterval))
+    {
+      flush();
+    }
+  }
+
+  private void encode(final CharSequence csq, int start, final int end) throws IOException {
+    final char[] chars = this.chars;
+    while (start < end) {
+      // stage the chars in bulk, taking care not to separate the halves of a surrogate pair
+      int n = Math.min(end - start, chars.length);
+      UnsynchronizedBufferedWriter.getChars(csq, start, start + n, chars, 0);
+      if (n > 1 && start + n < end && Character.isHighSurrogate(chars[n - 1])) {
+        n--;
+      }
+      encode(chars, n);
+      start += n;
+    }
+  }
+
+  private void encode(final char[] chars, final int len) throws IOException {
+    int i = 0;
+    while (i < len) {
+      // encode as many chars as are assured to fit without further capacity checks
+      final int space = bufSize - count;
+      if (space < MAX_BYTES_PER_CHAR + 1) {
+        drain();
+        continue;
+      }
+      i = encodeChunk(chars, i, Math.min(len, i + (space - 1) / MAX_BYTES_PER_CHAR), len);
+    }
+  }
+
+  private int encodeChunk(final char[] chars, int i, final int chunkEnd, final int end) {
+    final byte[] buf = this.buf;
+    int n = count;
+    while (i < chunkEnd) {
+      final char c = chars[i++];
+      if (c < 0x80) {
+        buf[n++] = (byte) c;
+      } else if (c < 0x800) {
+        buf[n++] = (byte) (0xc0 | (c >> 6));
+        buf[n++] = (byte) (0x80 | (c & 0x3f));
+      } else if (Character.isSurrogate(c)) {
+        final char low;
+        if (Character.isHighSurrogate(c) && i < end && Character.isLowSurrogate(low = chars[i])) {
+          i++;
+          final int cp = Character.toCodePoint(c, low);
+          buf[n++] = (byte) (0xf0 | (cp >> 18));
+          buf[n++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+          buf[n++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+          buf[n++] = (byte) (0x80 | (cp & 0x3f));
+        } else {
+          buf[n++] = REPLACEMENT_BYTE;
+        }
+      } else {
+        buf[n++] = (byte) (0xe0 | (c >> 12));
+        buf[n++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+        buf[n++] = (byte) (0x80 | (c & 0x3f));
+      }
+    }
+    count = n;
+    return i;
+  }
+
+  private void drain() throws IOException {
+    if (count > 0) {
+      final CsvFlushEvent event = FlightEvents.isEnabled() ? new CsvFlushEvent() : null;
+      out.write(buf, 0, count);
+      if (event != null) {
+        event.completed(count, rowCount - drainedRowCount);
+        drainedRowCount = rowCount;
+      }
+      byteCount += count;
+      count = 0;
+    }
+  }
+
+  /** @return number of rows written so far */
+  public long getRowCount() { return rowCount; }
+
+  /** @return number of bytes written so far (including those still buffered) */
+  public long getByteCount() { return byteCount + count; }
+
+  @Override
+  public void flush() throws IOException {
+    drain();
+    out.flush();
+    rowsSinceFlush = 0;
+    bytesSinceFlush = 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      drain();
+    } catch (Throwable e) {
+      releaseBuffer();
+      try {
+        out.close();
+      } catch (Throwable closeFailure) {
+        e.addSuppressed(closeFailure);
+      }
+      throw e;
+    }
+    releaseBuffer();
+    out.close();
+  }
+
+  private void releaseBuffer() {
+    if (!isReleased) {
+      isReleased = true;
+      ConversionContext.get().getBufferPool().release(bufLease);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/* BoundedPipe.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An in-memory pipe of bytes from one producer thread to one consumer thread,
+ * holding at most a given number of chunks (i.e., of the producer's writes) -
+ * the producer blocks while the pipe is full.
+ * <p>
+ * Should the consumer abort the pipe, writes by the producer fail (rather than
+ * block forever), and what it had written is discarded.
+ */
+public final class BoundedPipe {
+  private static final byte[] END = new byte[0];
+
+  private final BlockingQueue<byte[]> chunks;
+  private volatile boolean isAborted = false;
+
+  /** @param maxChunks number of chunks the pipe holds, at most, before the producer blocks */
+  public BoundedPipe(int maxChunks) {
+    this.chunks = new ArrayBlockingQueue<>(maxChunks);
+  }
+
+  private void put(final byte[] chunk) throws IOException {
+    try {
+      while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+        if (isAborted) {
+          throw new IOException("pipe has been aborted by its consumer");
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted writing to pipe");
+    }
+  }
+
+  /** @return stream that the producer writes to; closing it marks the end of the bytes */
+  public OutputStream getOutputStream() {
+    return new OutputStream() {
+      private boolean isClosed = false;
+
+      @Override
+      public void write(int b) throws IOException {
+        write(new byte[]{ (byte) b }, 0, 1);
+      }
+
+      @SuppressWarnings("NullableProblems")
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        if (isClosed) {
+          throw new IOException("Stream closed");
+        }
+        if (len > 0) {
+          put(Arrays.copyOfRange(b, off, off + len));
+        }
+      }
+
+      @Override
+      public void close() throws IOException {
+        if (!isClosed) {
+          isClosed = true;
+          put(END);
+        }
+      }
+    };
+  }
+
+  /**
+   * @return the next chunk of bytes, waiting on the producer if need be; null once
+   *         the producer has closed its stream and all its bytes have been taken
+   * @throws InterruptedIOException
+   */
+  public byte[] take() throws InterruptedIOException {
+    try {
+      final byte[] chunk = chunks.take();
+      return chunk != END ? chunk : null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted reading from pipe");
+    }
+  }
+
+  /** The consumer is not taking any more bytes - the producer's writes now fail. */
+  public void abort() {
+    isAborted = true;
+    chunks.clear();
+  }
+}
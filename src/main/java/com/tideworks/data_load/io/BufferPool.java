@@ -0,0 +1,135 @@
+/* BufferPool.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of byte buffers, direct or heap, that are leased and then returned to be
+ * leased again - so that the large buffers of reading and writing are allocated
+ * once for the run, rather than once per file (or row group), however many files
+ * are converted.
+ * <p>
+ * Buffers come in size classes of the powers of two from {@link #MIN_BUFFER_SIZE}
+ * to {@link #MAX_BUFFER_SIZE}; a lease is of the smallest class that holds the
+ * requested size, with its limit set to that size. A larger size is allocated for
+ * the lease, and not pooled. The buffers that are returned are kept for reuse up
+ * to a bound on the bytes kept - beyond that they are left to the garbage collector.
+ * <p>
+ * Thread safe - the pool is shared by all the worker threads.
+ */
+public final class BufferPool {
+  public static final int MIN_BUFFER_SIZE = 4 * 1024;
+  public static final int MAX_BUFFER_SIZE = 64 * 1024 * 1024;
+  public static final long DEFAULT_MAX_RETAINED_BYTES = 256L * 1024 * 1024;
+  private static final int minSizeShift = Integer.numberOfTrailingZeros(MIN_BUFFER_SIZE);
+  private static final int sizeClassCount = Integer.numberOfTrailingZeros(MAX_BUFFER_SIZE) - minSizeShift + 1;
+
+  private final long maxRetainedBytes;
+  private final ArrayDeque<ByteBuffer>[] directBuffers = newSizeClasses();
+  private final ArrayDeque<ByteBuffer>[] heapBuffers = newSizeClasses();
+  private long retainedBytes = 0; // guarded by this
+  private final AtomicLong leaseCount = new AtomicLong();
+  private final AtomicLong reuseCount = new AtomicLong();
+  private final AtomicLong allocatedBytes = new AtomicLong();
+  private final AtomicLong inUseBytes = new AtomicLong();
+  private final AtomicLong highWaterBytes = new AtomicLong();
+
+  /** @param maxRetainedBytes bound on the bytes of the returned buffers that are kept for reuse */
+  public BufferPool(long maxRetainedBytes) {
+    this.maxRetainedBytes = maxRetainedBytes;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"}) // a generic array is created raw
+  private static ArrayDeque<ByteBuffer>[] newSizeClasses() {
+    final ArrayDeque<ByteBuffer>[] sizeClasses = new ArrayDeque[sizeClassCount];
+    for(int i = 0; i < sizeClassCount; i++) {
+      sizeClasses[i] = new ArrayDeque<>();
+    }
+    return sizeClasses;
+  }
+
+  // index of the smallest size class that holds the size, or -1 if none does
+  private static int sizeClassOf(final int size) {
+    if (size > MAX_BUFFER_SIZE) {
+      return -1;
+    }
+    final int shift = size <= MIN_BUFFER_SIZE ? minSizeShift : 32 - Integer.numberOfLeadingZeros(size - 1);
+    return shift - minSizeShift;
+  }
+
+  /**
+   * @param size number of bytes needed
+   * @param isDirect whether a direct buffer (else a heap buffer, whose array is at offset zero)
+   * @return buffer of at least the capacity, positioned at zero and with its limit at the size
+   */
+  public ByteBuffer lease(final int size, final boolean isDirect) {
+    if (size < 0) {
+      throw new IllegalArgumentException("negative buffer size: " + size);
+    }
+    leaseCount.incrementAndGet();
+    final int sizeClass = sizeClassOf(size);
+    ByteBuffer buffer = null;
+    if (sizeClass >= 0) {
+      synchronized (this) {
+        buffer = (isDirect ? directBuffers : heapBuffers)[sizeClass].pollLast();
+        if (buffer != null) {
+          retainedBytes -= buffer.capacity();
+        }
+      }
+    }
+    if (buffer != null) {
+      reuseCount.incrementAndGet();
+    } else {
+      final int capacity = sizeClass >= 0 ? 1 << (sizeClass + minSizeShift) : size;
+      buffer = isDirect ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+      allocatedBytes.addAndGet(capacity);
+    }
+    final long inUse = inUseBytes.addAndGet(buffer.capacity());
+    highWaterBytes.accumulateAndGet(inUse, Math::max);
+    buffer.clear();
+    buffer.limit(size);
+    return buffer;
+  }
+
+  /** @param buffer buffer leased of the pool - no longer to be used once returned */
+  public void release(@Nonnull final ByteBuffer buffer) {
+    final int capacity = buffer.capacity();
+    inUseBytes.addAndGet(-capacity);
+    final int sizeClass = sizeClassOf(capacity);
+    if (sizeClass < 0 || capacity != 1 << (sizeClass + minSizeShift)) {
+      return; // not of a size class
+    }
+    synchronized (this) {
+      if (retainedBytes + capacity <= maxRetainedBytes) {
+        (buffer.isDirect() ? directBuffers : heapBuffers)[sizeClass].addLast(buffer);
+        retainedBytes += capacity;
+      }
+    }
+  }
+
+  /** @return number of leases so far */
+  public long getLeaseCount() { return leaseCount.get(); }
+
+  /** @return number of leases that were of a returned buffer (the others were allocated) */
+  public long getReuseCount() { return reuseCount.get(); }
+
+  /** @return number of bytes of the buffers allocated so far */
+  public long getAllocatedBytes() { return allocatedBytes.get(); }
+
+  /** @return number of bytes of the buffers leased and not yet returned */
+  public long getInUseBytes() { return inUseBytes.get(); }
+
+  /** @return most bytes of buffers that were leased at once */
+  public long getHighWaterBytes() { return highWaterBytes.get(); }
+
+  /** @return number of bytes of the returned buffers kept for reuse */
+  public synchronized long getRetainedBytes() { return retainedBytes; }
+}
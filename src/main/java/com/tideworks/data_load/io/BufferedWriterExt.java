@@ -10,6 +10,11 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.Writer;
 
+/**
+ * @deprecated superseded by {@link UnsynchronizedBufferedWriter}, which appends
+ * character sequences via bulk copies and without locking per character
+ */
+@Deprecated
 public class BufferedWriterExt extends BufferedWriter {
 
   public BufferedWriterExt(Writer out) {
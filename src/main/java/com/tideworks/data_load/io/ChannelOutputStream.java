@@ -0,0 +1,112 @@
+/* ChannelOutputStream.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * An output stream onto a {@link WritableByteChannel} (such as that of stdout, or
+ * of a named pipe) that gathers its output in a large direct buffer, so that the
+ * channel is written in large writes with no further copying by the JDK.
+ * <p>
+ * Writes to a blocking channel block while the reader falls behind (e.g., while a
+ * pipe is full) - so a slow consumer throttles the conversion, rather than output
+ * accumulating in memory.
+ * <p>
+ * An instance is not thread safe.
+ */
+public final class ChannelOutputStream extends OutputStream {
+  public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+  private final WritableByteChannel channel;
+  private final ByteBuffer buf;
+  private boolean isClosed = false;
+
+  public ChannelOutputStream(@Nonnull WritableByteChannel channel, int bufferSize) {
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("buffer size must be positive: " + bufferSize);
+    }
+    this.channel = channel;
+    this.buf = ByteBuffer.allocateDirect(bufferSize);
+  }
+
+  private void ensureOpen() throws IOException {
+    if (isClosed) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    if (!buf.hasRemaining()) {
+      drain();
+    }
+    buf.put((byte) b);
+  }
+
+  @SuppressWarnings("NullableProblems")
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (off < 0 || len < 0 || off > b.length - len) {
+      throw new IndexOutOfBoundsException();
+    }
+    ensureOpen();
+    while (len > 0) {
+      if (!buf.hasRemaining()) {
+        drain();
+      }
+      final int n = Math.min(len, buf.remaining());
+      buf.put(b, off, n);
+      off += n;
+      len -= n;
+    }
+  }
+
+  private void drain() throws IOException {
+    buf.flip();
+    try {
+      while (buf.hasRemaining()) {
+        channel.write(buf);
+      }
+    } finally {
+      buf.clear();
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    if (buf.position() > 0) {
+      drain();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (isClosed) {
+      return;
+    }
+    try {
+      flush();
+    } catch (Throwable e) {
+      isClosed = true;
+      try {
+        channel.close();
+      } catch (Throwable closeFailure) {
+        e.addSuppressed(closeFailure);
+      }
+      throw e;
+    }
+    isClosed = true;
+    channel.close();
+  }
+}
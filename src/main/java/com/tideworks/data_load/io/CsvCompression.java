@@ -0,0 +1,136 @@
+/* CsvCompression.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import com.tideworks.data_load.util.ConversionContext;
+import org.apache.hadoop.io.compress.CompressionCodec;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Compression of csv output files.
+ * <p>
+ * Gzip output is compressed block by block in parallel (see {@link ParallelGzipOutputStream}).
+ * Zstandard and LZ4 output is compressed via the Hadoop codec for it - which
+ * relies on the native Hadoop library having been built with support for it. The
+ * zstd output is standard Zstandard frames; the lz4 output is in the block framing
+ * of the Hadoop codec (as read by {@code hadoop fs -text}).
+ * <p>
+ * The compressed output of separately compressed parts, concatenated, is a valid
+ * compressed stream of the concatenated parts in all cases.
+ */
+public enum CsvCompression {
+  NONE("", null),
+  GZIP(".gz", null),
+  ZSTD(".zst", "org.apache.hadoop.io.compress.ZStandardCodec"),
+  LZ4(".lz4", "org.apache.hadoop.io.compress.Lz4Codec");
+
+  private final String fileExtent;
+  private final String hadoopCodecClassName;
+
+  CsvCompression(String fileExtent, String hadoopCodecClassName) {
+    this.fileExtent = fileExtent;
+    this.hadoopCodecClassName = hadoopCodecClassName;
+  }
+
+  /** @return file name extension that designates the compression (empty if none) */
+  public String getFileExtent() { return fileExtent; }
+
+  /**
+   * @param name name of the compression: none, gzip (or gz), zstd (or zst), lz4 (case-insensitive)
+   * @return the compression, or null if the name is not that of one
+   */
+  public static CsvCompression of(@Nonnull String name) {
+    switch (name.toLowerCase()) {
+      case "none":
+        return NONE;
+      case "gz":
+      case "gzip":
+        return GZIP;
+      case "zst":
+      case "zstd":
+        return ZSTD;
+      case "lz4":
+        return LZ4;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Verifies that output can be compressed - i.e., that the Hadoop codec (and its
+   * native library) is available, where one is used.
+   *
+   * @throws IllegalStateException if not available, stating why
+   */
+  public void ensureAvailable() {
+    if (hadoopCodecClassName == null) {
+      return;
+    }
+    final CompressionCodec codec = getHadoopCodec();
+    try {
+      codec.createCompressor().end();
+    } catch (RuntimeException | LinkageError e) {
+      throw new IllegalStateException(String.format("%s compression is not available (%s): %s",
+                                                    name().toLowerCase(), hadoopCodecClassName, e.getMessage()), e);
+    }
+  }
+
+  private CompressionCodec getHadoopCodec() {
+    try {
+      final Class<? extends CompressionCodec> codecClass =
+            Class.forName(hadoopCodecClassName).asSubclass(CompressionCodec.class);
+      return ConversionContext.get().getHadoopCodec(codecClass);
+    } catch (ClassNotFoundException | ClassCastException e) {
+      throw new IllegalStateException(String.format("%s compression is not available: no Hadoop codec %s",
+                                                    name().toLowerCase(), hadoopCodecClassName), e);
+    }
+  }
+
+  private static int gzipPendingBlocks() {
+    return 2 * Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * @return estimate of the memory that the compression of an output stream holds,
+   *         at most - for gzip, the blocks compressed ahead of their output
+   */
+  public long bufferMemory() {
+    switch (this) {
+      case NONE:
+        return 0;
+      case GZIP:
+        return 2L * ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE * gzipPendingBlocks(); // blocks and their output
+      default:
+        return 256 * 1024; // the codec's compression buffers
+    }
+  }
+
+  /**
+   * @param out destination of the compressed output - closed when the returned stream is closed
+   * @param gzipExecutor supplies the executor that runs the parallel compression of gzip output
+   * @return stream that compresses the output written to it
+   * @throws IOException
+   */
+  public OutputStream compress(@Nonnull OutputStream out, @Nonnull Supplier<ExecutorService> gzipExecutor)
+        throws IOException
+  {
+    switch (this) {
+      case NONE:
+        return out;
+      case GZIP:
+        return new ParallelGzipOutputStream(out, gzipExecutor.get(), ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE,
+                                            gzipPendingBlocks());
+      default:
+        return getHadoopCodec().createOutputStream(out);
+    }
+  }
+}
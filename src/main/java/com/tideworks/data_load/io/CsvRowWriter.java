@@ -0,0 +1,23 @@
+/* CsvRowWriter.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+/** Destination of csv rows - each row written as a whole, including its line terminator. */
+public interface CsvRowWriter extends Closeable, Flushable {
+  /**
+   * Writes a row of csv text; the row is expected to include its line terminator.
+   *
+   * @param row csv text of the row
+   * @throws IOException
+   */
+  void writeRow(@Nonnull CharSequence row) throws IOException;
+}
@@ -6,173 +6,323 @@
  */
 package com.tideworks.data_load.io;
 
+import com.tideworks.data_load.jfr.FlightEvents;
+import com.tideworks.data_load.jfr.InputReadEvent;
+import com.tideworks.data_load.util.ConversionContext;
 import org.apache.parquet.io.SeekableInputStream;
 
 import javax.annotation.Nonnull;
+import java.io.Closeable;
 import java.io.EOFException;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * A Parquet {@link org.apache.parquet.io.InputFile} of a local file, read via
+ * positional reads of a {@link FileChannel}.
+ * <p>
+ * Every stream has its own position, so any number of streams (e.g., one per
+ * column chunk, or one per thread) can be reading the file at the same time.
+ * The streams share the one channel, which is opened with the first stream and
+ * closed once the last open stream is closed.
+ * <p>
+ * A read into a {@link ByteBuffer} (direct or not) goes from the channel straight
+ * into the buffer, without copying through an intermediate array. Small reads,
+ * such as a byte at a time, are served from a per stream read buffer - a direct
+ * buffer leased of the shared {@link BufferPool} (and returned upon close). Bytes
+ * that have been read ahead (see {@link Prefetcher}) are served before the channel
+ * is read.
+ */
 public final class InputFile {
-  private static final int COPY_BUFFER_SIZE = 8192;
+  private static final int READ_BUFFER_SIZE = 8192;
 
-  public static org.apache.parquet.io.InputFile nioPathToInputFile(@Nonnull Path file) throws FileNotFoundException {
+  public static org.apache.parquet.io.InputFile nioPathToInputFile(@Nonnull Path file) throws IOException {
     //noinspection ConstantConditions
     assert file != null;
 
-    final RandomAccessFile input = new RandomAccessFile(file.toFile(), "r");
+    return new ChannelInputFile(file, Files.size(file), null);
+  }
 
-    return new org.apache.parquet.io.InputFile() {
-      @Override
-      public long getLength() throws IOException {
-        return input.length();
-      }
+  static org.apache.parquet.io.InputFile nioPathToInputFile(@Nonnull Path file, @Nonnull ReadAhead readAhead)
+        throws IOException
+  {
+    return new ChannelInputFile(file, Files.size(file), readAhead);
+  }
 
-      @Override
-      public SeekableInputStream newStream() throws IOException {
-        return new SeekableInputStream() {
-          private final byte[] tmpBuf = new byte[COPY_BUFFER_SIZE];
-          private long markPos = 0;
+  /** Source of file bytes that have been read ahead of the streams of an input file. */
+  interface ReadAhead extends Closeable {
+    /** Starts reading ahead - upon the first stream of the input file being opened. */
+    void start();
 
-          @Override
-          public int read() throws IOException {
-            return input.read();
-          }
+    /**
+     * Copies file bytes starting at the position, if they have been read ahead.
+     *
+     * @param position file position of the bytes
+     * @param dst buffer that the bytes are copied into
+     * @return number of bytes copied - zero if bytes at the position are not available
+     */
+    int read(long position, ByteBuffer dst);
 
-          @SuppressWarnings("NullableProblems")
-          @Override
-          public int read(byte[] b) throws IOException {
-            return input.read(b);
-          }
+    /**
+     * Notes bytes that have been read of the file itself (not having been read ahead).
+     *
+     * @param position file position of the bytes
+     * @param byteCount number of bytes read
+     */
+    void readOnDemand(long position, int byteCount);
 
-          @SuppressWarnings("NullableProblems")
-          @Override
-          public int read(byte[] b, int off, int len) throws IOException {
-            return input.read(b, off, len);
-          }
+    /** Stops reading ahead, for good - upon the last open stream of the input file being closed. */
+    @Override
+    void close();
+  }
 
-          @Override
-          public long skip(long n) throws IOException {
-            final long savPos = input.getFilePointer();
-            final long amtLeft = input.length() - savPos;
-            n = Math.min(n, amtLeft);
-            final long newPos = savPos + n;
-            input.seek(newPos);
-            final long curPos = input.getFilePointer();
-            return curPos - savPos;
-          }
+  private static final class ChannelInputFile implements org.apache.parquet.io.InputFile {
+    private final Path file;
+    private final long length;
+    private final ReadAhead readAhead;
+    private FileChannel channel = null;
+    private int openStreamCount = 0;
 
-          @Override
-          public int available() throws IOException {
-            return 0;
-          }
+    private ChannelInputFile(Path file, long length, ReadAhead readAhead) {
+      this.file = file;
+      this.length = length;
+      this.readAhead = readAhead;
+    }
 
-          @Override
-          public void close() throws IOException {
-            input.close();
-          }
+    @Override
+    public long getLength() {
+      return length;
+    }
 
-          @SuppressWarnings({"unchecked", "unused", "UnusedReturnValue"})
-          private <T extends Throwable, R> R uncheckedExceptionThrow(Throwable t) throws T {
-            throw (T) t;
-          }
+    @Override
+    public SeekableInputStream newStream() throws IOException {
+      return new ChannelInputStream(this, acquireChannel());
+    }
 
-          @Override
-          public synchronized void mark(int readlimit) {
-            try {
-              markPos = input.getFilePointer();
-            } catch (IOException e) {
-              uncheckedExceptionThrow(e);
-            }
-          }
+    @Override
+    public String toString() {
+      return file.toString();
+    }
 
-          @Override
-          public synchronized void reset() throws IOException {
-            input.seek(markPos);
-          }
+    private synchronized FileChannel acquireChannel() throws IOException {
+      if (channel == null) {
+        channel = FileChannel.open(file, READ);
+        if (readAhead != null) {
+          readAhead.start(); // no-op once closed
+        }
+      }
+      openStreamCount++;
+      return channel;
+    }
 
-          @Override
-          public boolean markSupported() {
-            return true;
-          }
+    private synchronized void releaseChannel() throws IOException {
+      if (--openStreamCount == 0) {
+        final FileChannel closingChannel = channel;
+        channel = null;
+        if (readAhead != null) {
+          readAhead.close(); // whatever is read next is read on demand
+        }
+        closingChannel.close();
+      }
+    }
+  }
 
-          @Override
-          public long getPos() throws IOException {
-            return input.getFilePointer();
-          }
+  private static final class ChannelInputStream extends SeekableInputStream {
+    private final ChannelInputFile inputFile;
+    private final FileChannel channel;
+    private final ReadAhead readAhead;
+    // holds the file bytes starting at file position bufStart, up to its limit
+    private final ByteBuffer buf;
+    private long bufStart = 0;
+    private long pos = 0;
+    private long markPos = 0;
+    private boolean isClosed = false;
 
-          @Override
-          public void seek(long l) throws IOException {
-            input.seek(l);
-          }
+    private ChannelInputStream(ChannelInputFile inputFile, FileChannel channel) {
+      this.inputFile = inputFile;
+      this.channel = channel;
+      this.readAhead = inputFile.readAhead;
+      this.buf = ConversionContext.get().getBufferPool().lease(READ_BUFFER_SIZE, true);
+      this.buf.limit(0);
+    }
 
-          @Override
-          public void readFully(byte[] bytes) throws IOException {
-            input.readFully(bytes);
-          }
+    private void ensureOpen() throws IOException {
+      if (isClosed) {
+        throw new IOException("Stream closed");
+      }
+    }
 
-          @Override
-          public void readFully(byte[] bytes, int i, int i1) throws IOException {
-            input.readFully(bytes, i, i1);
-          }
+    // the number of bytes, at the current position, that the read buffer holds
+    private int buffered() {
+      final long offset = pos - bufStart;
+      return offset >= 0 && offset < buf.limit() ? buf.limit() - (int) offset : 0;
+    }
 
-          @Override
-          public int read(ByteBuffer byteBuffer) throws IOException {
-            return readDirectBuffer(byteBuffer, tmpBuf, input::read);
-          }
+    private int fillBuffer() throws IOException {
+      buf.clear();
+      bufStart = pos;
+      while (buf.hasRemaining()) {
+        if (readChannel(buf, bufStart + buf.position()) <= 0) {
+          break; // end of file
+        }
+      }
+      buf.flip();
+      return buf.limit();
+    }
 
-          @Override
-          public void readFully(ByteBuffer byteBuffer) throws IOException {
-            readFullyDirectBuffer(byteBuffer, tmpBuf, input::read);
+    private int readChannel(final ByteBuffer dst, final long position) throws IOException {
+      if (!FlightEvents.isEnabled()) {
+        return readAt(dst, position);
+      }
+      final InputReadEvent event = new InputReadEvent();
+      final int n = readAt(dst, position);
+      event.completed(inputFile.toString(), position, Math.max(n, 0));
+      return n;
+    }
+
+    private int readAt(final ByteBuffer dst, final long position) throws IOException {
+      if (readAhead != null) {
+        final int n = readAhead.read(position, dst);
+        if (n > 0) {
+          return n;
+        }
+        final int readCount = channel.read(dst, position);
+        readAhead.readOnDemand(position, readCount);
+        return readCount;
+      }
+      return channel.read(dst, position);
+    }
+
+    @Override
+    public int read() throws IOException {
+      ensureOpen();
+      if (buffered() <= 0 && fillBuffer() <= 0) {
+        return -1;
+      }
+      return buf.get((int) (pos++ - bufStart)) & 0xff;
+    }
+
+    @SuppressWarnings("NullableProblems")
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (off < 0 || len < 0 || off > b.length - len) {
+        throw new IndexOutOfBoundsException();
+      }
+      if (len == 0) {
+        return 0;
+      }
+      return read(ByteBuffer.wrap(b, off, len));
+    }
+
+    @Override
+    public int read(ByteBuffer byteBuffer) throws IOException {
+      ensureOpen();
+      if (!byteBuffer.hasRemaining()) {
+        return 0;
+      }
+      int available = buffered();
+      if (available <= 0) {
+        if (byteBuffer.remaining() >= READ_BUFFER_SIZE) {
+          // no point in copying through the read buffer
+          final int n = readChannel(byteBuffer, pos);
+          if (n > 0) {
+            pos += n;
           }
-        };
+          return n;
+        }
+        if ((available = fillBuffer()) <= 0) {
+          return -1;
+        }
       }
-    };
-  }
+      final int n = Math.min(available, byteBuffer.remaining());
+      final int offset = (int) (pos - bufStart);
+      final int limit = buf.limit();
+      buf.limit(offset + n);
+      buf.position(offset);
+      byteBuffer.put(buf);
+      buf.limit(limit);
+      buf.position(0);
+      pos += n;
+      return n;
+    }
 
-  @FunctionalInterface
-  private interface ByteBufReader {
-    int read(byte[] b, int off, int len) throws IOException;
-  }
+    @Override
+    public void readFully(byte[] bytes) throws IOException {
+      readFully(bytes, 0, bytes.length);
+    }
 
-  private static int readDirectBuffer(ByteBuffer byteBufr, byte[] tmpBuf, ByteBufReader rdr) throws IOException {
-    // copy all the bytes that return immediately, stopping at the first
-    // read that doesn't return a full buffer.
-    int nextReadLength = Math.min(byteBufr.remaining(), tmpBuf.length);
-    int totalBytesRead = 0;
-    int bytesRead;
+    @Override
+    public void readFully(byte[] bytes, int start, int len) throws IOException {
+      if (start < 0 || len < 0 || start > bytes.length - len) {
+        throw new IndexOutOfBoundsException();
+      }
+      readFully(ByteBuffer.wrap(bytes, start, len));
+    }
 
-    while ((bytesRead = rdr.read(tmpBuf, 0, nextReadLength)) == tmpBuf.length) {
-      byteBufr.put(tmpBuf);
-      totalBytesRead += bytesRead;
-      nextReadLength = Math.min(byteBufr.remaining(), tmpBuf.length);
+    @Override
+    public void readFully(ByteBuffer byteBuffer) throws IOException {
+      while (byteBuffer.hasRemaining()) {
+        if (read(byteBuffer) < 0) {
+          throw new EOFException("Reached the end of stream with " + byteBuffer.remaining() + " bytes left to read");
+        }
+      }
     }
 
-    if (bytesRead < 0) {
-      // return -1 if nothing was read
-      return totalBytesRead == 0 ? -1 : totalBytesRead;
-    } else {
-      // copy the last partial buffer
-      byteBufr.put(tmpBuf, 0, bytesRead);
-      totalBytesRead += bytesRead;
-      return totalBytesRead;
+    @Override
+    public long skip(long n) throws IOException {
+      ensureOpen();
+      n = Math.max(0, Math.min(n, inputFile.length - pos));
+      pos += n;
+      return n;
     }
-  }
 
-  private static void readFullyDirectBuffer(ByteBuffer byteBufr, byte[] tmpBuf, ByteBufReader rdr) throws IOException {
-    int nextReadLength = Math.min(byteBufr.remaining(), tmpBuf.length);
-    int bytesRead = 0;
+    @Override
+    public int available() throws IOException {
+      ensureOpen();
+      return buffered();
+    }
 
-    while (nextReadLength > 0 && (bytesRead = rdr.read(tmpBuf, 0, nextReadLength)) >= 0) {
-      byteBufr.put(tmpBuf, 0, bytesRead);
-      nextReadLength = Math.min(byteBufr.remaining(), tmpBuf.length);
+    @Override
+    public long getPos() throws IOException {
+      return pos;
     }
 
-    if (bytesRead < 0 && byteBufr.remaining() > 0) {
-      throw new EOFException("Reached the end of stream with " + byteBufr.remaining() + " bytes left to read");
+    @Override
+    public void seek(long newPos) throws IOException {
+      ensureOpen();
+      if (newPos < 0) {
+        throw new EOFException("Cannot seek to a negative position: " + newPos);
+      }
+      pos = newPos;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+      markPos = pos;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+      pos = markPos;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!isClosed) {
+        isClosed = true;
+        ConversionContext.get().getBufferPool().release(buf);
+        inputFile.releaseChannel();
+      }
     }
   }
-}
\ No newline at end of file
+}
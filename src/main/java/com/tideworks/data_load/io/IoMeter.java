@@ -0,0 +1,13 @@
+/* IoMeter.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+/** Receives the time taken, and the number of bytes transferred, by each metered I/O call. */
+@FunctionalInterface
+public interface IoMeter {
+  void record(long nanos, long byteCount);
+}
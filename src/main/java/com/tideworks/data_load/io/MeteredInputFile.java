@@ -0,0 +1,123 @@
+/* MeteredInputFile.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import org.apache.parquet.io.SeekableInputStream;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A Parquet {@link org.apache.parquet.io.InputFile} that meters the reads of the
+ * streams of the input file it wraps - the time each read takes (to the nanosecond)
+ * and the number of bytes read. Seeks, being no more than a change of position,
+ * are not metered.
+ */
+public final class MeteredInputFile implements org.apache.parquet.io.InputFile {
+  private final org.apache.parquet.io.InputFile inputFile;
+  private final IoMeter meter;
+
+  public MeteredInputFile(@Nonnull org.apache.parquet.io.InputFile inputFile, @Nonnull IoMeter meter) {
+    this.inputFile = inputFile;
+    this.meter = meter;
+  }
+
+  @Override
+  public long getLength() throws IOException {
+    return inputFile.getLength();
+  }
+
+  @Override
+  public SeekableInputStream newStream() throws IOException {
+    return new MeteredInputStream(inputFile.newStream(), meter);
+  }
+
+  @Override
+  public String toString() {
+    return inputFile.toString();
+  }
+
+  private static final class MeteredInputStream extends SeekableInputStream {
+    private final SeekableInputStream in;
+    private final IoMeter meter;
+
+    private MeteredInputStream(SeekableInputStream in, IoMeter meter) {
+      this.in = in;
+      this.meter = meter;
+    }
+
+    @Override
+    public long getPos() throws IOException {
+      return in.getPos();
+    }
+
+    @Override
+    public void seek(long newPos) throws IOException {
+      in.seek(newPos);
+    }
+
+    @Override
+    public int read() throws IOException {
+      final long start = System.nanoTime();
+      final int b = in.read();
+      meter.record(System.nanoTime() - start, b < 0 ? 0 : 1);
+      return b;
+    }
+
+    @Override
+    public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+      final long start = System.nanoTime();
+      final int n = in.read(b, off, len);
+      meter.record(System.nanoTime() - start, Math.max(n, 0));
+      return n;
+    }
+
+    @Override
+    public int read(ByteBuffer buf) throws IOException {
+      final long start = System.nanoTime();
+      final int n = in.read(buf);
+      meter.record(System.nanoTime() - start, Math.max(n, 0));
+      return n;
+    }
+
+    @Override
+    public void readFully(byte[] bytes) throws IOException {
+      readFully(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void readFully(byte[] bytes, int start, int len) throws IOException {
+      final long startNanos = System.nanoTime();
+      in.readFully(bytes, start, len);
+      meter.record(System.nanoTime() - startNanos, len);
+    }
+
+    @Override
+    public void readFully(ByteBuffer buf) throws IOException {
+      final int len = buf.remaining();
+      final long start = System.nanoTime();
+      in.readFully(buf);
+      meter.record(System.nanoTime() - start, len);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      return in.skip(n);
+    }
+
+    @Override
+    public int available() throws IOException {
+      return in.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
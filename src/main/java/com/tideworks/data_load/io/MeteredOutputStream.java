@@ -0,0 +1,56 @@
+/* MeteredOutputStream.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream that meters the calls made on the stream it wraps - the time
+ * each takes (to the nanosecond) and the number of bytes written.
+ * <p>
+ * Intended to wrap the destination of a buffered writer, so that there is one
+ * metered call per batch of output rather than per row.
+ */
+public final class MeteredOutputStream extends OutputStream {
+  private final OutputStream out;
+  private final IoMeter meter;
+
+  public MeteredOutputStream(@Nonnull OutputStream out, @Nonnull IoMeter meter) {
+    this.out = out;
+    this.meter = meter;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    final long start = System.nanoTime();
+    out.write(b);
+    meter.record(System.nanoTime() - start, 1);
+  }
+
+  @Override
+  public void write(@Nonnull byte[] b, int off, int len) throws IOException {
+    final long start = System.nanoTime();
+    out.write(b, off, len);
+    meter.record(System.nanoTime() - start, len);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    final long start = System.nanoTime();
+    out.flush();
+    meter.record(System.nanoTime() - start, 0);
+  }
+
+  @Override
+  public void close() throws IOException {
+    final long start = System.nanoTime();
+    out.close();
+    meter.record(System.nanoTime() - start, 0);
+  }
+}
@@ -0,0 +1,226 @@
+/* ParallelGzipOutputStream.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import com.tideworks.data_load.util.ConversionContext;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A gzip output stream that compresses blocks of its input concurrently (in the
+ * manner of pigz), so that compression is not bound to the one writing thread.
+ * <p>
+ * Each block is compressed into a gzip member of its own; the members are written
+ * in input order, which makes the output a valid multi-member gzip stream (as is
+ * read by gzip, zcat and {@link java.util.zip.GZIPInputStream}). The number of
+ * blocks being compressed, or awaiting their turn to be written, is bounded - the
+ * writing thread waits on the oldest of them once the bound is reached. The blocks
+ * are heap buffers leased of the shared {@link BufferPool}.
+ * <p>
+ * A flush writes out the blocks that have been compressed, but leaves the block
+ * being filled to be filled - so flushing, however often, doesn't cut the output
+ * into small members. Only {@link #finish()} (or close) compresses a partial block.
+ * <p>
+ * Nothing is written for an empty input. An instance is not thread safe.
+ */
+public final class ParallelGzipOutputStream extends OutputStream {
+  public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+  private final OutputStream out;
+  private final ExecutorService executor;
+  private final int blockSize;
+  private final int maxPendingBlocks;
+  private final BufferPool bufferPool = ConversionContext.get().getBufferPool();
+  private final ArrayDeque<PendingBlock> pendingBlocks = new ArrayDeque<>();
+  private ByteBuffer blockLease;
+  private byte[] block;
+  private int count = 0;
+  private boolean isClosed = false;
+
+  /**
+   * @param out destination of the compressed output
+   * @param executor runs the compression of the blocks
+   * @param blockSize number of input bytes that are compressed as one gzip member
+   * @param maxPendingBlocks bound on the number of blocks compressed ahead of their output
+   */
+  public ParallelGzipOutputStream(@Nonnull OutputStream out, @Nonnull ExecutorService executor,
+                                  int blockSize, int maxPendingBlocks)
+  {
+    if (blockSize <= 0 || maxPendingBlocks <= 0) {
+      throw new IllegalArgumentException("block size and pending block count must be positive");
+    }
+    this.out = out;
+    this.executor = executor;
+    this.blockSize = blockSize;
+    this.maxPendingBlocks = maxPendingBlocks;
+    leaseBlock();
+  }
+
+  // a block submitted for compression - its buffer is returned to the pool once compressed
+  private static final class PendingBlock {
+    private final ByteBuffer lease;
+    private final Future<byte[]> member;
+
+    private PendingBlock(ByteBuffer lease, Future<byte[]> member) {
+      this.lease = lease;
+      this.member = member;
+    }
+  }
+
+  private void leaseBlock() {
+    blockLease = bufferPool.lease(blockSize, false);
+    block = blockLease.array();
+    count = 0;
+  }
+
+  private void ensureOpen() throws IOException {
+    if (isClosed) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    block[count++] = (byte) b;
+    if (count == blockSize) {
+      submitBlock();
+    }
+  }
+
+  @SuppressWarnings("NullableProblems")
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (off < 0 || len < 0 || off > b.length - len) {
+      throw new IndexOutOfBoundsException();
+    }
+    ensureOpen();
+    while (len > 0) {
+      final int n = Math.min(len, blockSize - count);
+      System.arraycopy(b, off, block, count, n);
+      count += n;
+      off += n;
+      len -= n;
+      if (count == blockSize) {
+        submitBlock();
+      }
+    }
+  }
+
+  private void submitBlock() throws IOException {
+    final ByteBuffer lease = blockLease;
+    final byte[] data = block;
+    final int length = count;
+    pendingBlocks.add(new PendingBlock(lease, executor.submit(() -> compress(lease, data, length))));
+    leaseBlock();
+    while (pendingBlocks.size() > maxPendingBlocks) {
+      writeOldestBlock();
+    }
+  }
+
+  private byte[] compress(final ByteBuffer lease, final byte[] data, final int length) throws IOException {
+    try {
+      final ByteArrayOutputStream member = new ByteArrayOutputStream(length / 3 + 64);
+      try (final GZIPOutputStream gzipOut = new GZIPOutputStream(member, 64 * 1024)) {
+        gzipOut.write(data, 0, length);
+      }
+      return member.toByteArray();
+    } finally {
+      bufferPool.release(lease);
+    }
+  }
+
+  private void writeOldestBlock() throws IOException {
+    final Future<byte[]> pendingBlock = pendingBlocks.peek().member;
+    final byte[] member;
+    try {
+      member = pendingBlock.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted awaiting compression of gzip block");
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) throw (IOException) cause;
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      if (cause instanceof Error) throw (Error) cause;
+      throw new IOException(cause);
+    }
+    pendingBlocks.remove();
+    out.write(member);
+  }
+
+  private void writeAllBlocks() throws IOException {
+    if (count > 0) {
+      submitBlock();
+    }
+    while (!pendingBlocks.isEmpty()) {
+      writeOldestBlock();
+    }
+  }
+
+  /**
+   * Writes out, and flushes, the blocks whose compression is done (in order, up to
+   * the first that is not) - the block being filled, and those being compressed, are
+   * written later.
+   */
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    while (!pendingBlocks.isEmpty() && pendingBlocks.peek().member.isDone()) {
+      writeOldestBlock();
+    }
+    out.flush();
+  }
+
+  /** Compresses, and writes out, all the input so far - ending the current gzip member - without closing. */
+  public void finish() throws IOException {
+    ensureOpen();
+    writeAllBlocks();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (isClosed) {
+      return;
+    }
+    isClosed = true;
+    try {
+      writeAllBlocks();
+    } catch (Throwable e) {
+      releaseBlocks();
+      try {
+        out.close();
+      } catch (Throwable closeFailure) {
+        e.addSuppressed(closeFailure);
+      }
+      throw e;
+    }
+    releaseBlocks();
+    out.close();
+  }
+
+  private void releaseBlocks() {
+    for(final PendingBlock pendingBlock : pendingBlocks) {
+      if (pendingBlock.member.cancel(false)) {
+        bufferPool.release(pendingBlock.lease); // its compression never started
+      }
+    }
+    pendingBlocks.clear();
+    bufferPool.release(blockLease);
+    block = null;
+  }
+}
@@ -0,0 +1,129 @@
+/* PooledCodecFactory.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import com.tideworks.data_load.util.ConversionContext;
+import org.apache.hadoop.io.compress.CodecPool;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.Decompressor;
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+import javax.annotation.Nonnull;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Codecs of a Parquet file reader that decompress pages into heap buffers leased of
+ * the reader's {@link RowGroupBuffers}, rather than into newly allocated arrays. The
+ * pages are decompressed by the same Hadoop codecs as otherwise.
+ * <p>
+ * Only decompresses - for a reader. An instance is not thread safe.
+ */
+public final class PooledCodecFactory implements CompressionCodecFactory {
+  private final RowGroupBuffers buffers;
+  private final Map<CompressionCodecName, BytesInputDecompressor> decompressors =
+        new EnumMap<>(CompressionCodecName.class);
+
+  public PooledCodecFactory(@Nonnull RowGroupBuffers buffers) {
+    this.buffers = buffers;
+  }
+
+  private final class PooledDecompressor implements BytesInputDecompressor {
+    private final CompressionCodec codec;
+    private Decompressor decompressor;
+
+    private PooledDecompressor(CompressionCodec codec) {
+      this.codec = codec;
+      this.decompressor = CodecPool.getDecompressor(codec);
+    }
+
+    @Override
+    public BytesInput decompress(BytesInput bytes, int uncompressedSize) throws IOException {
+      final ByteBuffer page = buffers.leaseHeap(uncompressedSize);
+      if (decompressor != null) {
+        decompressor.reset();
+      }
+      final InputStream in = codec.createInputStream(bytes.toInputStream(), decompressor);
+      final byte[] array = page.array();
+      int n = 0;
+      while (n < uncompressedSize) {
+        final int count = in.read(array, n, uncompressedSize - n);
+        if (count < 0) {
+          throw new EOFException(String.format("decompressed page has %d bytes of the expected %d", n, uncompressedSize));
+        }
+        n += count;
+      }
+      return BytesInput.from(array, 0, uncompressedSize);
+    }
+
+    @Override
+    public void decompress(ByteBuffer input, int compressedSize, ByteBuffer output, int uncompressedSize)
+          throws IOException
+    {
+      output.put(decompress(BytesInput.from(input), uncompressedSize).toByteBuffer());
+    }
+
+    @Override
+    public void release() {
+      if (decompressor != null) {
+        CodecPool.returnDecompressor(decompressor);
+        decompressor = null;
+      }
+    }
+  }
+
+  private static final class NoDecompressor implements BytesInputDecompressor {
+    @Override
+    public BytesInput decompress(BytesInput bytes, int uncompressedSize) {
+      return bytes;
+    }
+
+    @Override
+    public void decompress(ByteBuffer input, int compressedSize, ByteBuffer output, int uncompressedSize) {
+      output.put(input);
+    }
+
+    @Override
+    public void release() {}
+  }
+
+  @Override
+  public BytesInputCompressor getCompressor(CompressionCodecName codecName) {
+    throw new UnsupportedOperationException("only decompresses");
+  }
+
+  @Override
+  public BytesInputDecompressor getDecompressor(CompressionCodecName codecName) {
+    return decompressors.computeIfAbsent(codecName, this::makeDecompressor);
+  }
+
+  private BytesInputDecompressor makeDecompressor(final CompressionCodecName codecName) {
+    final String codecClassName = codecName.getHadoopCompressionCodecClassName();
+    if (codecClassName == null) {
+      return new NoDecompressor();
+    }
+    final Class<? extends CompressionCodec> codecClass;
+    try {
+      codecClass = Class.forName(codecClassName).asSubclass(CompressionCodec.class);
+    } catch (ClassNotFoundException | ClassCastException e) {
+      throw new IllegalArgumentException("no Hadoop codec of Parquet compression " + codecName + ": " + codecClassName, e);
+    }
+    return new PooledDecompressor(ConversionContext.get().getHadoopCodec(codecClass));
+  }
+
+  @Override
+  public void release() {
+    decompressors.values().forEach(BytesInputDecompressor::release);
+    decompressors.clear();
+  }
+}
@@ -0,0 +1,306 @@
+/* Prefetcher.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import com.tideworks.data_load.util.ConversionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Reads ahead the byte ranges of a Parquet file that are about to be read (i.e.,
+ * the column chunks of its row groups, as located by the footer), on a background
+ * thread, so that reading from disk overlaps the decoding and formatting of the
+ * rows read before.
+ * <p>
+ * The ranges are read in order, in blocks of at most {@link #MAX_BLOCK_SIZE} bytes.
+ * A block is released once the reader has read it through - from its start to its
+ * end, whether served from the block or read of the file itself - along with the
+ * blocks before it, which the reader has skipped. A read that does not follow on
+ * from the bytes of a block read so far is no progress: the Parquet file reader
+ * reads the dictionary pages of every row group upon opening the file (to filter
+ * the row groups by a record filter), before it reads the row groups in order.
+ * The bytes held by
+ * the blocks of all the files being read ahead are bounded by one budget; the
+ * background reading waits for budget to be released, and a read of a block that
+ * has not been started yet simply goes to the file itself. The blocks are direct
+ * buffers leased of the shared {@link BufferPool}.
+ * <p>
+ * Reading ahead starts once the first stream of the input file is opened, and
+ * stops once its last open stream is closed - so an input file that is never read
+ * holds no budget.
+ */
+public final class Prefetcher {
+  private static final Logger log = LoggerFactory.getLogger(Prefetcher.class.getSimpleName());
+  public static final int MAX_BLOCK_SIZE = 4 * 1024 * 1024;
+
+  private final long budgetBytes;
+  private final int blockSize;
+  private final ExecutorService executor;
+  private final AtomicLong servedBytes = new AtomicLong();
+  private long usedBytes = 0;
+
+  public Prefetcher(long budgetBytes) {
+    if (budgetBytes <= 0) {
+      throw new IllegalArgumentException("read ahead budget must be positive: " + budgetBytes);
+    }
+    this.budgetBytes = budgetBytes;
+    this.blockSize = (int) Math.min(MAX_BLOCK_SIZE, budgetBytes);
+    final AtomicInteger threadCount = new AtomicInteger(0);
+    this.executor = Executors.newCachedThreadPool(runnable -> {
+      final Thread thread = new Thread(runnable, "prefetch-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public long getBudgetBytes() { return budgetBytes; }
+
+  /** @return number of bytes that reads have been served from blocks read ahead */
+  public long getServedBytes() { return servedBytes.get(); }
+
+  /** @return number of bytes of the budget that blocks hold (or are being loaded into) */
+  synchronized long getUsedBytes() { return usedBytes; }
+
+  /**
+   * Makes an input file (see {@link InputFile}) whose streams are served from the
+   * blocks read ahead of the specified ranges.
+   *
+   * @param file Parquet file to be read
+   * @param ranges start and end file offsets of the byte ranges to be read ahead, in read order
+   * @return the input file
+   * @throws IOException
+   */
+  public org.apache.parquet.io.InputFile nioPathToInputFile(@Nonnull Path file, @Nonnull List<long[]> ranges)
+        throws IOException
+  {
+    final List<Block> blocks = new ArrayList<>();
+    for(final long[] range : ranges) {
+      for(long start = range[0]; start < range[1]; start += blockSize) {
+        blocks.add(new Block(start, (int) Math.min(blockSize, range[1] - start)));
+      }
+    }
+    if (blocks.isEmpty()) {
+      return InputFile.nioPathToInputFile(file);
+    }
+    return InputFile.nioPathToInputFile(file, new RangesReadAhead(file, blocks));
+  }
+
+  private synchronized void acquire(final int n) throws InterruptedException {
+    while (usedBytes + n > budgetBytes) {
+      wait();
+    }
+    usedBytes += n;
+  }
+
+  private synchronized void release(final int n) {
+    usedBytes -= n;
+    notifyAll();
+  }
+
+  private enum BlockState { PENDING, LOADING, LOADED, RELEASED }
+
+  private static final class Block {
+    private final long start;
+    private final long end;
+    private final int length;
+    private BlockState state = BlockState.PENDING;
+    private ByteBuffer data = null;
+    private long readThrough;            // the reader has read the block's bytes from its start up to here
+
+    private Block(long start, int length) {
+      this.start = start;
+      this.end = start + length;
+      this.length = length;
+      this.readThrough = start;
+    }
+  }
+
+  private final class RangesReadAhead implements InputFile.ReadAhead {
+    private final Path file;
+    private final List<Block> blocks;
+    private final long spanStart;
+    private final long spanEnd;
+    private final BufferPool bufferPool = ConversionContext.get().getBufferPool();
+    private Future<?> task = null;
+    private int firstHeldBlock = 0;      // blocks before this index have been released
+    private boolean isClosed = false;
+
+    private RangesReadAhead(Path file, List<Block> blocks) {
+      this.file = file;
+      this.blocks = blocks;
+      this.spanStart = blocks.get(0).start;
+      this.spanEnd = blocks.get(blocks.size() - 1).end;
+    }
+
+    @Override
+    public synchronized void start() {
+      if (task == null && !isClosed) {
+        task = executor.submit(this::prefetch);
+      }
+    }
+
+    private void prefetch() {
+      try (final FileChannel channel = FileChannel.open(file, READ)) {
+        for(int i = 0; i < blocks.size(); i++) {
+          final Block block = blocks.get(i);
+          synchronized (this) {
+            if (isClosed) return;
+            if (i < firstHeldBlock) continue; // the reader has already moved past it
+          }
+          acquire(block.length);
+          synchronized (this) {
+            if (isClosed || block.state != BlockState.PENDING || i < firstHeldBlock) {
+              release(block.length);
+              if (isClosed) return;
+              continue;
+            }
+            block.state = BlockState.LOADING;
+          }
+          final ByteBuffer data = bufferPool.lease(block.length, true);
+          boolean isLoaded = false;
+          try {
+            while (data.hasRemaining() && channel.read(data, block.start + data.position()) > 0) {
+              isLoaded = !data.hasRemaining();
+            }
+          } finally {
+            synchronized (this) {
+              if (isLoaded && block.state == BlockState.LOADING) { // i.e., not released meanwhile
+                data.flip();
+                block.data = data;
+                block.state = BlockState.LOADED;
+              } else {
+                block.state = BlockState.RELEASED;
+                bufferPool.release(data);
+                release(block.length);
+              }
+              notifyAll();
+            }
+          }
+          if (!isLoaded) return; // the file is shorter than the footer said - leave it to the reader
+        }
+      } catch (InterruptedException | ClosedByInterruptException e) {
+        // closed
+      } catch (IOException e) {
+        log.debug("read ahead of \"{}\" failed - reading on demand instead: {}", file, e.toString());
+      }
+    }
+
+    @Override
+    public synchronized int read(final long position, final ByteBuffer dst) {
+      if (isClosed || position < spanStart || position >= spanEnd) {
+        return 0;
+      }
+      final int index = indexOfBlockEndingAfter(position);
+      if (index < firstHeldBlock || position < blocks.get(index).start) {
+        return 0; // released, or between ranges
+      }
+      final Block block = blocks.get(index);
+      try {
+        while (block.state == BlockState.LOADING) {
+          wait();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return 0;
+      }
+      if (block.state != BlockState.LOADED) {
+        return 0;
+      }
+      final int offset = (int) (position - block.start);
+      final int n = Math.min(dst.remaining(), block.length - offset);
+      block.data.limit(offset + n).position(offset);
+      dst.put(block.data);
+      block.data.limit(block.length).position(0);
+      servedBytes.addAndGet(n);
+      readThrough(index, position, position + n);
+      return n;
+    }
+
+    @Override
+    public synchronized void readOnDemand(final long position, final int byteCount) {
+      if (isClosed || byteCount <= 0 || position >= spanEnd || position + byteCount <= spanStart) {
+        return;
+      }
+      readThrough(indexOfBlockEndingAfter(position), position, position + byteCount);
+    }
+
+    // index of the first block that ends after the position (the block count if there is none)
+    private int indexOfBlockEndingAfter(final long position) {
+      int low = 0;
+      int high = blocks.size();
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        if (blocks.get(mid).end <= position) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    // the reader has read the bytes from start to end, the first of the blocks they fall in being at the
+    // index - a block whose bytes have now been read through to its end is released, with those before it
+    private void readThrough(int index, final long start, final long end) {
+      for(index = Math.max(index, firstHeldBlock); index < blocks.size(); index++) {
+        final Block block = blocks.get(index);
+        if (block.start >= end || Math.max(start, block.start) > block.readThrough) {
+          return; // beyond the bytes read, or not following on from the bytes of the block read so far
+        }
+        block.readThrough = Math.max(block.readThrough, Math.min(end, block.end));
+        if (block.readThrough < block.end) {
+          return;
+        }
+        while (firstHeldBlock <= index) {
+          releaseBlock(blocks.get(firstHeldBlock++));
+        }
+      }
+    }
+
+    private void releaseBlock(final Block block) {
+      if (block.state == BlockState.LOADED) {
+        bufferPool.release(block.data);
+        block.data = null;
+        release(block.length);
+      }
+      block.state = BlockState.RELEASED;
+    }
+
+    @Override
+    public void close() {
+      final Future<?> prefetchTask;
+      synchronized (this) {
+        if (isClosed) return;
+        isClosed = true;
+        for(final Block block : blocks) {
+          releaseBlock(block);
+        }
+        notifyAll();
+        prefetchTask = task;
+      }
+      if (prefetchTask != null) {
+        prefetchTask.cancel(true);
+      }
+    }
+  }
+}
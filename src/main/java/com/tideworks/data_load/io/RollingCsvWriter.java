@@ -0,0 +1,119 @@
+/* RollingCsvWriter.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+
+/**
+ * Writes csv rows as a sequence of parts - a new part is started once the current
+ * one has reached a limit on its number of rows, or of (uncompressed) bytes.
+ * <p>
+ * The first row written is taken to be the header line; it is repeated as the first
+ * line of every part. A part is only started once there is a row to write into it,
+ * so no part is empty (and when no rows are written, there are no parts).
+ * <p>
+ * An instance is not thread safe - it is intended for use by a single worker thread.
+ */
+public final class RollingCsvWriter implements CsvRowWriter {
+  /** Where the parts go. */
+  public interface PartFactory {
+    /**
+     * @param partIndex zero-based index of the part, among the parts of this writer
+     * @return writer of the part's output
+     * @throws IOException
+     */
+    BatchedCsvWriter openPart(int partIndex) throws IOException;
+
+    /**
+     * The part's writer has been closed - its output is complete.
+     *
+     * @param partIndex zero-based index of the part, among the parts of this writer
+     * @throws IOException
+     */
+    void partCompleted(int partIndex) throws IOException;
+
+    /**
+     * Closing the part's writer failed - its output is incomplete.
+     *
+     * @param partIndex zero-based index of the part, among the parts of this writer
+     * @throws IOException
+     */
+    void partFailed(int partIndex) throws IOException;
+  }
+
+  private final PartFactory partFactory;
+  private final long maxPartRows;
+  private final long maxPartBytes;
+  private String header = null;
+  private BatchedCsvWriter part = null;
+  private int partCount = 0;
+  private long partRows = 0;
+
+  /**
+   * @param partFactory where the parts go
+   * @param maxPartRows number of rows (not counting the header) at which a part is complete (0 for no limit)
+   * @param maxPartBytes number of bytes at which a part is complete (0 for no limit) - a part
+   *                     ends with the row that brings it to this size
+   */
+  public RollingCsvWriter(@Nonnull PartFactory partFactory, long maxPartRows, long maxPartBytes) {
+    this.partFactory = partFactory;
+    this.maxPartRows = maxPartRows;
+    this.maxPartBytes = maxPartBytes;
+  }
+
+  /** @return number of parts started so far */
+  public int getPartCount() { return partCount; }
+
+  @Override
+  public void writeRow(@Nonnull CharSequence row) throws IOException {
+    if (header == null) {
+      header = row.toString();
+      return;
+    }
+    if (part == null) {
+      part = partFactory.openPart(partCount++);
+      part.writeRow(header);
+      partRows = 0;
+    }
+    part.writeRow(row);
+    partRows++;
+    if ((maxPartRows > 0 && partRows >= maxPartRows) || (maxPartBytes > 0 && part.getByteCount() >= maxPartBytes)) {
+      closePart();
+    }
+  }
+
+  private void closePart() throws IOException {
+    final BatchedCsvWriter closingPart = part;
+    part = null;
+    try {
+      closingPart.close();
+    } catch (Throwable e) {
+      try {
+        partFactory.partFailed(partCount - 1);
+      } catch (Throwable failure) {
+        e.addSuppressed(failure);
+      }
+      throw e;
+    }
+    partFactory.partCompleted(partCount - 1);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (part != null) {
+      part.flush();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (part != null) {
+      closePart();
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/* RowGroupBuffers.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import org.apache.parquet.bytes.ByteBufferAllocator;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The buffers, leased of a {@link BufferPool}, that a Parquet file reader reads a
+ * row group into: as its {@link ByteBufferAllocator}, the direct buffers of the
+ * column chunks, and (see {@link PooledCodecFactory}) the heap buffers of the
+ * decompressed pages.
+ * <p>
+ * The reader doesn't release the buffers that it allocates - they are referenced by
+ * the pages of the row group until its rows have been read. So the buffers are all
+ * returned to the pool at once: by {@link #releaseAll()}, once the rows of the row
+ * group have been read (i.e., before the next row group is read), and upon close.
+ * <p>
+ * An instance is not thread safe - it is intended for the reader of a single worker thread.
+ */
+public final class RowGroupBuffers implements ByteBufferAllocator, Closeable {
+  private final BufferPool pool;
+  private final List<ByteBuffer> leased = new ArrayList<>();
+
+  public RowGroupBuffers(@Nonnull BufferPool pool) {
+    this.pool = pool;
+  }
+
+  @Override
+  public ByteBuffer allocate(int size) {
+    return lease(size, true);
+  }
+
+  /** @return heap buffer, whose array is at offset zero, of at least the size - with its limit at the size */
+  ByteBuffer leaseHeap(int size) {
+    return lease(size, false);
+  }
+
+  private ByteBuffer lease(final int size, final boolean isDirect) {
+    final ByteBuffer buffer = pool.lease(size, isDirect);
+    leased.add(buffer);
+    return buffer;
+  }
+
+  @Override
+  public void release(ByteBuffer buffer) {
+    for(int i = leased.size() - 1; i >= 0; i--) {
+      if (leased.get(i) == buffer) {
+        leased.remove(i);
+        pool.release(buffer);
+        return;
+      }
+    }
+  }
+
+  @Override
+  public boolean isDirect() {
+    return true;
+  }
+
+  /** Returns all the buffers leased so far to the pool - they are no longer referenced. */
+  public void releaseAll() {
+    leased.forEach(pool::release);
+    leased.clear();
+  }
+
+  @Override
+  public void close() {
+    releaseAll();
+  }
+}
@@ -0,0 +1,163 @@
+/* UnsynchronizedBufferedWriter.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A buffered writer intended for use by a single thread - supersedes {@link BufferedWriterExt}.
+ * <p>
+ * Unlike {@link java.io.BufferedWriter}, no lock is taken on any call. Characters
+ * of a {@link String}, {@link StringBuilder} or {@link StringBuffer} are copied in
+ * bulk ranges (via their getChars() method) straight into the internal buffer,
+ * rather than one {@link #write(int)} call per character.
+ */
+public class UnsynchronizedBufferedWriter extends Writer {
+  private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  private Writer out;
+  private final char[] buf;
+  private int count = 0;
+
+  public UnsynchronizedBufferedWriter(@Nonnull Writer out) {
+    this(out, DEFAULT_BUFFER_SIZE);
+  }
+
+  public UnsynchronizedBufferedWriter(@Nonnull Writer out, int sz) {
+    if (sz <= 0) {
+      throw new IllegalArgumentException("Buffer size <= 0");
+    }
+    this.out = out;
+    this.buf = new char[sz];
+  }
+
+  private void ensureOpen() throws IOException {
+    if (out == null) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+  private void flushBuffer() throws IOException {
+    ensureOpen();
+    if (count > 0) {
+      out.write(buf, 0, count);
+      count = 0;
+    }
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    if (count >= buf.length) {
+      flushBuffer();
+    }
+    buf[count++] = (char) c;
+  }
+
+  @Override
+  public void write(@Nonnull char[] cbuf, int off, int len) throws IOException {
+    if (off < 0 || len < 0 || off > cbuf.length - len) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (len >= buf.length) {
+      // no point in copying through the buffer
+      flushBuffer();
+      out.write(cbuf, off, len);
+      return;
+    }
+    if (len > buf.length - count) {
+      flushBuffer();
+    }
+    System.arraycopy(cbuf, off, buf, count, len);
+    count += len;
+  }
+
+  @Override
+  public void write(@Nonnull String str, int off, int len) throws IOException {
+    append(str, off, off + len);
+  }
+
+  @Override
+  public Writer append(CharSequence csq) throws IOException {
+    if (csq == null) {
+      csq = "null";
+    }
+    return append(csq, 0, csq.length());
+  }
+
+  @Override
+  public Writer append(CharSequence csq, int start, int end) throws IOException {
+    if (csq == null) {
+      csq = "null";
+    }
+    if (start < 0 || start > end || end > csq.length()) {
+      throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + csq.length());
+    }
+    while (start < end) {
+      if (count >= buf.length) {
+        flushBuffer();
+      }
+      final int n = Math.min(end - start, buf.length - count);
+      getChars(csq, start, start + n, buf, count);
+      count += n;
+      start += n;
+    }
+    return this;
+  }
+
+  @Override
+  public Writer append(char c) throws IOException {
+    write(c);
+    return this;
+  }
+
+  /**
+   * Copies a range of characters of a character sequence into an array, in bulk
+   * for the character sequence classes that support doing so.
+   */
+  static void getChars(final CharSequence csq, final int start, final int end, final char[] dst, final int dstBegin) {
+    if (csq instanceof String) {
+      ((String) csq).getChars(start, end, dst, dstBegin);
+    } else if (csq instanceof StringBuilder) {
+      ((StringBuilder) csq).getChars(start, end, dst, dstBegin);
+    } else if (csq instanceof StringBuffer) {
+      ((StringBuffer) csq).getChars(start, end, dst, dstBegin);
+    } else {
+      for(int i = start, j = dstBegin; i < end; i++, j++) {
+        dst[j] = csq.charAt(i);
+      }
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    flushBuffer();
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (out == null) {
+      return;
+    }
+    final Writer w = out;
+    try {
+      flushBuffer();
+    } catch (Throwable e) {
+      out = null;
+      try {
+        w.close();
+      } catch (Throwable closeFailure) {
+        e.addSuppressed(closeFailure);
+      }
+      throw e;
+    }
+    out = null;
+    w.close();
+  }
+}
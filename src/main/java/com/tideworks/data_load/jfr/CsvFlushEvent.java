@@ -0,0 +1,47 @@
+/* CsvFlushEvent.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Write of a batch of encoded csv output to the output stream - which, when the
+ * output is compressed, includes handing it over to the compression.
+ */
+@Name("com.tideworks.data_load.CsvFlush")
+@Label("CSV Output Flush")
+@Category("prq2csv")
+@Description("Write of a batch of csv output from the output buffer")
+@StackTrace(false)
+public final class CsvFlushEvent extends Event {
+  @Label("Size")
+  @DataAmount
+  long size;
+
+  @Label("Rows")
+  @Description("Rows completed since the prior flush")
+  long rows;
+
+  public CsvFlushEvent() {
+    begin();
+  }
+
+  public void completed(long size, long rowCount) {
+    end();
+    if (shouldCommit()) {
+      this.size = size;
+      this.rows = rowCount;
+      commit();
+    }
+  }
+}
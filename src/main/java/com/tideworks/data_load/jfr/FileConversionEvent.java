@@ -0,0 +1,77 @@
+/* FileConversionEvent.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+/** Conversion of a Parquet input file to csv output - timed from construction to {@link #completed}. */
+@Name("com.tideworks.data_load.FileConversion")
+@Label("File Conversion")
+@Category("prq2csv")
+@Description("Conversion of a Parquet file to csv output")
+@StackTrace(false)
+public final class FileConversionEvent extends Event {
+  @Label("Input File")
+  String inputFile;
+
+  @Label("Input Size")
+  @DataAmount
+  long inputSize;
+
+  @Label("Row Groups")
+  @Description("Row groups read - those that the where clause can't rule out")
+  int rowGroups;
+
+  @Label("Rows")
+  @Description("Rows of the row groups read")
+  long rows;
+
+  @Label("Output Files")
+  int outputFiles;
+
+  @Label("Output Size")
+  @DataAmount
+  long outputSize;
+
+  @Label("Converted")
+  boolean converted;
+
+  public FileConversionEvent(File inputFile) {
+    this.inputFile = inputFile.getPath();
+    this.inputSize = inputFile.length();
+    begin();
+  }
+
+  public void setRowGroups(int rowGroupCount, long rowCount) {
+    this.rowGroups = rowGroupCount;
+    this.rows = rowCount;
+  }
+
+  /**
+   * @param outputs csv files written (none for stream output)
+   * @param isConverted false if the conversion failed
+   */
+  public void completed(List<Path> outputs, boolean isConverted) {
+    end();
+    if (shouldCommit()) {
+      outputFiles = outputs.size();
+      outputSize = outputs.stream().mapToLong(path -> path.toFile().length()).sum();
+      converted = isConverted;
+      commit();
+    }
+  }
+}
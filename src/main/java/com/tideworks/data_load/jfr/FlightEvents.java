@@ -0,0 +1,46 @@
+/* FlightEvents.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.jfr;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Switch of the custom Java Flight Recorder events of the conversion (see the event
+ * classes of this package) - they are only emitted once enabled, so a JFR recording
+ * (e.g., as started by {@code -XX:StartFlightRecording}, or from JMC) has them.
+ * <p>
+ * The event classes are only loaded once enabled: while disabled, what an event
+ * costs is a check of {@link #isEnabled()} - and the tool still runs on a Java 8
+ * runtime that has no {@code jdk.jfr} package.
+ */
+public final class FlightEvents {
+  private static boolean isEnabled = false; // set on startup, before the worker threads are started
+
+  private FlightEvents() {}
+
+  /** @return whether the events are emitted */
+  public static boolean isEnabled() { return isEnabled; }
+
+  /**
+   * Registers the event types with the flight recorder and turns their emitting on.
+   *
+   * @throws IllegalStateException if the Java runtime has no flight recorder events API
+   */
+  public static void enable() {
+    try {
+      FlightRecorder.register(FileConversionEvent.class);
+      FlightRecorder.register(RowGroupReadEvent.class);
+      FlightRecorder.register(InputReadEvent.class);
+      FlightRecorder.register(CsvFlushEvent.class);
+      FlightRecorder.register(PlanCompileEvent.class);
+    } catch (LinkageError e) {
+      throw new IllegalStateException("JFR events require a Java runtime with the jdk.jfr API (8u262 or later): " +
+                                      e, e);
+    }
+    isEnabled = true;
+  }
+}
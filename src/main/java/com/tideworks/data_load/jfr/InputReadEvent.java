@@ -0,0 +1,51 @@
+/* InputReadEvent.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Read of input file bytes - from the file, or from bytes read ahead of it - that
+ * isn't served from a stream's small read buffer.
+ */
+@Name("com.tideworks.data_load.InputRead")
+@Label("Input File Read")
+@Category("prq2csv")
+@Description("Positional read of Parquet input file bytes")
+@StackTrace(false)
+public final class InputReadEvent extends Event {
+  @Label("Input File")
+  String inputFile;
+
+  @Label("Position")
+  long position;
+
+  @Label("Size")
+  @Description("Number of bytes read")
+  @DataAmount
+  long size;
+
+  public InputReadEvent() {
+    begin();
+  }
+
+  public void completed(String inputFile, long position, long size) {
+    end();
+    if (shouldCommit()) {
+      this.inputFile = inputFile;
+      this.position = position;
+      this.size = size;
+      commit();
+    }
+  }
+}
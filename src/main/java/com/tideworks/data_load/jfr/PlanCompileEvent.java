@@ -0,0 +1,51 @@
+/* PlanCompileEvent.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Compilation of the csv rendering plan of a record schema not found in the plan cache. */
+@Name("com.tideworks.data_load.PlanCompile")
+@Label("Plan Compile")
+@Category("prq2csv")
+@Description("Compilation of the csv rendering plan of a record schema")
+@StackTrace(false)
+public final class PlanCompileEvent extends Event {
+  @Label("Plan Kind")
+  @Description("formatter (rows read as Avro records) or columnar (rows read column by column)")
+  String kind;
+
+  @Label("Schema")
+  String schema;
+
+  @Label("Fields")
+  int fields;
+
+  @Label("Compiled")
+  @Description("False if the schema has no plan of the kind (its rows are read as Avro records)")
+  boolean compiled;
+
+  public PlanCompileEvent() {
+    begin();
+  }
+
+  public void completed(String kind, String schemaName, int fieldCount, boolean isCompiled) {
+    end();
+    if (shouldCommit()) {
+      this.kind = kind;
+      this.schema = schemaName;
+      this.fields = fieldCount;
+      this.compiled = isCompiled;
+      commit();
+    }
+  }
+}
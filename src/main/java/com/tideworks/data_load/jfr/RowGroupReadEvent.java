@@ -0,0 +1,61 @@
+/* RowGroupReadEvent.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Read of the column chunks of a row group (the columns that are read of it), as
+ * rows are read column by column - timed from construction to {@link #completed}.
+ */
+@Name("com.tideworks.data_load.RowGroupRead")
+@Label("Row Group Read")
+@Category("prq2csv")
+@Description("Read of the column chunks of a Parquet row group")
+@StackTrace(false)
+public final class RowGroupReadEvent extends Event {
+  @Label("Input File")
+  String inputFile;
+
+  @Label("File Offset")
+  @Description("File position of the row group")
+  long fileOffset;
+
+  @Label("Rows")
+  long rows;
+
+  @Label("Columns")
+  @Description("Columns read of the row group")
+  int columns;
+
+  @Label("Compressed Size")
+  @Description("Size of the column chunks read")
+  @DataAmount
+  long compressedSize;
+
+  public RowGroupReadEvent() {
+    begin();
+  }
+
+  public void completed(String inputFile, long fileOffset, long rowCount, int columnCount, long compressedSize) {
+    end();
+    if (shouldCommit()) {
+      this.inputFile = inputFile;
+      this.fileOffset = fileOffset;
+      this.rows = rowCount;
+      this.columns = columnCount;
+      this.compressedSize = compressedSize;
+      commit();
+    }
+  }
+}
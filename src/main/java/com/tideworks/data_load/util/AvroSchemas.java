@@ -0,0 +1,75 @@
+/* AvroSchemas.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.util;
+
+import org.apache.avro.Schema;
+import org.apache.parquet.avro.AvroSchemaConverter;
+import org.apache.parquet.hadoop.metadata.FileMetaData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.tideworks.data_load.util.JsonStrMapSerializer.avroSchemaFieldName;
+
+public final class AvroSchemas {
+  private static final String oldAvroSchemaFieldName = "avro.schema";
+
+  private AvroSchemas() {}
+
+  /**
+   * @param fileMetaData metadata of a Parquet file (as per its footer)
+   * @return the Avro schema of the file's records - in the same order of precedence as the
+   *         Avro reader determines it: as stored in the file metadata, else as converted from
+   *         the Parquet schema
+   */
+  public static Schema fileAvroSchema(final FileMetaData fileMetaData) {
+    final Map<String, String> keyValueMetaData = fileMetaData.getKeyValueMetaData();
+    String avroSchemaAsJsonText = keyValueMetaData.get(avroSchemaFieldName);
+    if (avroSchemaAsJsonText == null) {
+      avroSchemaAsJsonText = keyValueMetaData.get(oldAvroSchemaFieldName);
+    }
+    return avroSchemaAsJsonText != null
+             ? new Schema.Parser().parse(avroSchemaAsJsonText)
+             : new AvroSchemaConverter(ConversionContext.get().getConfiguration()).convert(fileMetaData.getSchema());
+  }
+
+  /**
+   * Projects a record schema onto a subset of its fields.
+   *
+   * @param recordSchema schema of the records
+   * @param fieldNames names of the fields to retain (case-insensitive), in the order they are to appear
+   * @return record schema of the same name with only the specified fields
+   * @throws IllegalArgumentException if a field name is not that of a record field
+   */
+  public static Schema project(final Schema recordSchema, final List<String> fieldNames) {
+    final List<Schema.Field> fields = new ArrayList<>(fieldNames.size());
+    for(final String fieldName : fieldNames) {
+      Schema.Field field = recordSchema.getField(fieldName);
+      if (field == null) {
+        for(final Schema.Field candidate : recordSchema.getFields()) {
+          if (candidate.name().equalsIgnoreCase(fieldName)) {
+            field = candidate;
+            break;
+          }
+        }
+      }
+      if (field == null) {
+        throw new IllegalArgumentException(String.format("no such column \"%s\" in schema of record %s",
+                                                         fieldName, recordSchema.getFullName()));
+      }
+      final Schema.Field projectedField = new Schema.Field(field.name(), field.schema(), field.doc(),
+                                                           field.defaultVal(), field.order());
+      field.getObjectProps().forEach(projectedField::addProp);
+      fields.add(projectedField);
+    }
+    final Schema projection = Schema.createRecord(recordSchema.getName(), recordSchema.getDoc(),
+                                                  recordSchema.getNamespace(), recordSchema.isError(), fields);
+    recordSchema.getObjectProps().forEach(projection::addProp);
+    return projection;
+  }
+}
@@ -0,0 +1,87 @@
+/* ConversionContext.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.util;
+
+import com.tideworks.data_load.io.BufferPool;
+import org.apache.avro.Conversions;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.generic.GenericData;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.hadoop.util.HadoopCodecs;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The reader/writer infrastructure that is the same for every file - created once
+ * per process, and shared by all the files and the worker threads converting them.
+ * <p>
+ * A Hadoop {@link Configuration} loads its default XML resources the first time one
+ * of its properties is accessed - for each instance. The shared configuration has
+ * them loaded up front; the configurations made from it are copies of its loaded
+ * properties.
+ * <p>
+ * The large buffers of reading and writing - the column chunks and decompressed
+ * pages read column by column, the input stream read buffers and the csv output
+ * batches - are leased of the shared {@link BufferPool}, rather than allocated
+ * per file.
+ */
+public final class ConversionContext {
+  private static final class Holder {
+    private static final ConversionContext shared = new ConversionContext();
+  }
+
+  private final Configuration configuration;
+  private final GenericData genericData;
+  private final BufferPool bufferPool = new BufferPool(BufferPool.DEFAULT_MAX_RETAINED_BYTES);
+  private final ConcurrentMap<Class<? extends CompressionCodec>, CompressionCodec> hadoopCodecs =
+        new ConcurrentHashMap<>();
+
+  private ConversionContext() {
+    configuration = new Configuration();
+    configuration.size(); // loads the default resources
+    genericData = new GenericData();
+    genericData.addLogicalTypeConversion(new TimeConversions.DateConversion());
+    genericData.addLogicalTypeConversion(new TimeConversions.TimestampConversion());
+    genericData.addLogicalTypeConversion(new TimeConversions.TimestampMicrosConversion());
+    genericData.addLogicalTypeConversion(new Conversions.DecimalConversion());
+    genericData.addLogicalTypeConversion(new Conversions.UUIDConversion());
+  }
+
+  /** @return the context of the process */
+  public static ConversionContext get() { return Holder.shared; }
+
+  /** @return the shared configuration - only to be read, never modified */
+  public Configuration getConfiguration() { return configuration; }
+
+  /** @return copy of the shared configuration, to set the properties of one reader or writer on */
+  public Configuration newConfiguration() { return new Configuration(configuration); }
+
+  /** @return Avro data model with the date, timestamp, decimal and UUID logical type conversions */
+  public GenericData getGenericData() { return genericData; }
+
+  /** @return pool of the buffers of reading and writing, shared by all the files */
+  public BufferPool getBufferPool() { return bufferPool; }
+
+  /**
+   * @return builder of Parquet file reader options whose codec factory uses the shared
+   *         configuration (a codec factory holds the decompressors of one reader, so is
+   *         not itself shared)
+   */
+  public ParquetReadOptions.Builder newReadOptions() {
+    return ParquetReadOptions.builder().withCodecFactory(HadoopCodecs.newFactory(configuration, 0));
+  }
+
+  /** @return the shared instance of the Hadoop compression codec class, configured by the shared configuration */
+  public CompressionCodec getHadoopCodec(@Nonnull Class<? extends CompressionCodec> codecClass) {
+    return hadoopCodecs.computeIfAbsent(codecClass, cls -> ReflectionUtils.newInstance(cls, configuration));
+  }
+}
@@ -0,0 +1,121 @@
+/* MemoryBudget.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.util;
+
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.function.Supplier;
+
+/**
+ * A budget of memory that the readers and writers of Parquet files share. Before
+ * a file is read (or written), the memory that its buffers are estimated to take,
+ * at most, is reserved - waiting while others hold too much of the budget - and it
+ * is released once done. A file that takes more than the whole budget is refused.
+ * <p>
+ * The estimates are of the buffers of reading and writing, which grow with the size
+ * of the row groups - not of the heap as a whole: the max heap is to allow for the
+ * budget plus what the program otherwise takes, which {@link #peakHeapUsed()} tells.
+ */
+public final class MemoryBudget {
+  // parquet-hadoop reads a column chunk whole, then decompresses it a page at a time; pages
+  // are written 1 MB in size by default
+  private static final long PAGE_SIZE_ESTIMATE = 1024 * 1024;
+  private static final double bytesPerMB = 1024 * 1024;
+
+  private final long budgetBytes;
+  private long reservedBytes = 0;
+
+  /** Memory reserved of the budget - released when closed. */
+  public final class Reservation implements AutoCloseable {
+    private final long bytes;
+    private boolean isReleased = false;
+
+    private Reservation(long bytes) {
+      this.bytes = bytes;
+    }
+
+    /** @return number of bytes reserved */
+    public long getBytes() { return bytes; }
+
+    @Override
+    public void close() {
+      synchronized (MemoryBudget.this) {
+        if (!isReleased) {
+          isReleased = true;
+          reservedBytes -= bytes;
+          MemoryBudget.this.notifyAll();
+        }
+      }
+    }
+  }
+
+  public MemoryBudget(long budgetBytes) {
+    if (budgetBytes <= 0) {
+      throw new IllegalArgumentException("memory budget must be positive: " + budgetBytes);
+    }
+    this.budgetBytes = budgetBytes;
+  }
+
+  /** @return size of the budget in bytes */
+  public long getBudgetBytes() { return budgetBytes; }
+
+  /**
+   * Reserves memory of the budget - waiting until as much as that is not reserved.
+   *
+   * @param bytes number of bytes to reserve
+   * @param what what the memory is for, as told by the error if it is more than the budget
+   * @return the reservation, to be closed once the memory is no longer used
+   * @throws IOException if the number of bytes exceeds the whole budget, or upon interruption
+   */
+  public Reservation reserve(final long bytes, @Nonnull final Supplier<String> what) throws IOException {
+    if (bytes > budgetBytes) {
+      throw new IOException(String.format("%s takes an estimated %s of memory - more than the memory budget " +
+                                          "(--max-memory) of %s", what.get(), formatSize(bytes),
+                                          formatSize(budgetBytes)));
+    }
+    synchronized (this) {
+      try {
+        while (reservedBytes + bytes > budgetBytes) {
+          wait();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("interrupted while waiting on the memory budget for " + what.get());
+      }
+      reservedBytes += bytes;
+    }
+    return new Reservation(bytes);
+  }
+
+  /** @return estimate of the memory that reading a column chunk takes, at most */
+  public static long readMemory(@Nonnull final ColumnChunkMetaData columnChunk) {
+    return columnChunk.getTotalSize() + Math.min(columnChunk.getTotalUncompressedSize(), PAGE_SIZE_ESTIMATE);
+  }
+
+  /**
+   * @return peak heap memory used so far - the sum of the peaks of the heap memory
+   *         pools, so at least as much as the heap ever held at once
+   */
+  public static long peakHeapUsed() {
+    return ManagementFactory.getMemoryPoolMXBeans().stream()
+          .filter(pool -> pool.getType() == MemoryType.HEAP)
+          .map(MemoryPoolMXBean::getPeakUsage)
+          .mapToLong(usage -> usage != null ? usage.getUsed() : 0)
+          .sum();
+  }
+
+  /** @return size as text, in MB */
+  public static String formatSize(final long bytes) {
+    return String.format("%.1f MB", bytes / bytesPerMB);
+  }
+}
@@ -6,18 +6,23 @@
  */
 package com.tideworks.data_load.util.io;
 
-import org.apache.avro.Conversions;
+import com.tideworks.data_load.util.AvroSchemas;
+import com.tideworks.data_load.util.ConversionContext;
+import com.tideworks.data_load.util.MemoryBudget;
 import org.apache.avro.Schema;
-import org.apache.avro.data.TimeConversions;
 import org.apache.avro.generic.GenericData;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.parquet.avro.AvroParquetReader;
 import org.apache.parquet.avro.AvroParquetWriter;
+import org.apache.parquet.avro.AvroReadSupport;
 import org.apache.parquet.hadoop.ParquetFileReader;
 import org.apache.parquet.hadoop.ParquetFileWriter;
 import org.apache.parquet.hadoop.ParquetReader;
 import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
 
 import java.io.File;
 import java.io.IOException;
@@ -25,8 +30,11 @@ import java.math.BigDecimal;
 import java.math.MathContext;
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 import static com.tideworks.data_load.io.InputFile.nioPathToInputFile;
 import static com.tideworks.data_load.io.OutputFile.nioPathToOutputFile;
@@ -36,38 +44,101 @@ import static com.tideworks.data_load.util.io.FileUtils.parquetExtent;
 import static java.math.RoundingMode.HALF_UP;
 
 public class OneRowParquetSchema {
+  private static final String terminalIdFieldName = "TERM_ID$";
+  private static final long maxRowGroupSize = 256 * 1024 * 1024;
   private final Path inputFilePath;
 
   private OneRowParquetSchema(File inputFile) {
     this.inputFilePath = inputFile.toPath();
   }
 
-  public static void writeSchemaFile(final File inputFile, final String dirPath, final String baseFileName) throws IOException {
+  /**
+   * Writes the one row schema file of a Parquet file.
+   * <p>
+   * Given a memory budget, the memory that reading the first row group (of the
+   * terminal ID column) takes, and then that writing takes, is reserved of it -
+   * the writer's row group size being adapted to the budget.
+   */
+  public static void writeSchemaFile(final File inputFile, final String dirPath, final String baseFileName,
+                                     final Optional<MemoryBudget> memoryBudgetOptn)
+        throws IOException
+  {
     final OneRowParquetSchema oneRowParquetSchema = new OneRowParquetSchema(inputFile);
-    final Schema avroSchema = oneRowParquetSchema.extractAvroSchemaFromParquet();
-    final String terminalID = oneRowParquetSchema.extractTerminalIDFromParquet();
-    oneRowParquetSchema.writeOneRowParquetSchemaFile(terminalID, avroSchema, dirPath, baseFileName);
+    final ParquetMetadata footer = oneRowParquetSchema.readFooter();
+    final Schema avroSchema = extractAvroSchemaFromParquet(footer);
+    final String terminalID;
+    final MemoryBudget.Reservation readReservation = memoryBudgetOptn.isPresent()
+          ? memoryBudgetOptn.get().reserve(firstRowGroupReadMemory(footer, avroSchema),
+                                          () -> String.format("reading \"%s\"", inputFile))
+          : null;
+    try {
+      terminalID = oneRowParquetSchema.extractTerminalIDFromParquet(avroSchema);
+    } finally {
+      if (readReservation != null) {
+        readReservation.close();
+      }
+    }
+    final long rowGroupSize = memoryBudgetOptn.map(budget -> Math.min(maxRowGroupSize, budget.getBudgetBytes() / 4))
+                                              .orElse(maxRowGroupSize);
+    final MemoryBudget.Reservation writeReservation = memoryBudgetOptn.isPresent()
+          ? memoryBudgetOptn.get().reserve(rowGroupSize, () -> String.format("writing the schema of \"%s\"", inputFile))
+          : null;
+    try {
+      oneRowParquetSchema.writeOneRowParquetSchemaFile(terminalID, avroSchema, dirPath, baseFileName, rowGroupSize);
+    } finally {
+      if (writeReservation != null) {
+        writeReservation.close();
+      }
+    }
   }
 
-  private Schema extractAvroSchemaFromParquet() throws IOException {
-    try (final ParquetFileReader rdr = ParquetFileReader.open(nioPathToInputFile(inputFilePath))) {
-      final org.apache.parquet.hadoop.metadata.FileMetaData prqFMD = rdr.getFooter().getFileMetaData();
-      final String avroSchemaAsJsonText = prqFMD.getKeyValueMetaData().get(avroSchemaFieldName);
-      return new Schema.Parser().setValidate(true).parse(avroSchemaAsJsonText);
+  private ParquetMetadata readFooter() throws IOException {
+    try (final ParquetFileReader rdr = ParquetFileReader.open(nioPathToInputFile(inputFilePath),
+                                                             ConversionContext.get().newReadOptions().build()))
+    {
+      return rdr.getFooter();
     }
   }
 
-  private String extractTerminalIDFromParquet() throws IOException {
+  private static Schema extractAvroSchemaFromParquet(final ParquetMetadata footer) {
+    final org.apache.parquet.hadoop.metadata.FileMetaData prqFMD = footer.getFileMetaData();
+    final String avroSchemaAsJsonText = prqFMD.getKeyValueMetaData().get(avroSchemaFieldName);
+    return new Schema.Parser().setValidate(true).parse(avroSchemaAsJsonText);
+  }
+
+  // estimate of the memory that reading the first row group takes - of only the terminal ID column, if there is one
+  private static long firstRowGroupReadMemory(final ParquetMetadata footer, final Schema avroSchema) {
+    final List<BlockMetaData> rowGroups = footer.getBlocks();
+    if (rowGroups.isEmpty()) {
+      return 0;
+    }
+    final boolean hasTerminalId = avroSchema.getField(terminalIdFieldName) != null;
+    final List<ColumnChunkMetaData> columnChunks = rowGroups.get(0).getColumns();
+    final List<String[]> columnPaths = footer.getFileMetaData().getSchema().getPaths(); // in column chunk order
+    return IntStream.range(0, columnChunks.size())
+          .filter(i -> !hasTerminalId || columnPaths.get(i)[0].equals(terminalIdFieldName))
+          .mapToLong(i -> MemoryBudget.readMemory(columnChunks.get(i)))
+          .sum();
+  }
+
+  private String extractTerminalIDFromParquet(final Schema avroSchema) throws IOException {
     String term_id = "";
+    final Configuration conf = ConversionContext.get().newConfiguration();
+    if (avroSchema.getField(terminalIdFieldName) != null) {
+      // only the terminal ID column is read - not the whole of the row group
+      final Schema readSchema = AvroSchemas.project(avroSchema, Collections.singletonList(terminalIdFieldName));
+      AvroReadSupport.setRequestedProjection(conf, readSchema);
+      AvroReadSupport.setAvroReadSchema(conf, readSchema);
+    }
     try (final ParquetReader<GenericData.Record> reader = AvroParquetReader
           .<GenericData.Record>builder(nioPathToInputFile(inputFilePath))
-          .withConf(new Configuration())
+          .withConf(conf)
           .build())
     {
       GenericData.Record readRecord = reader.read();
       if (readRecord != null) {
         // input file contains data records so obtain a Terminal ID
-        term_id = readRecord.get("TERM_ID$").toString();
+        term_id = readRecord.get(terminalIdFieldName).toString();
       }
     }
     return term_id;
@@ -76,12 +147,13 @@ public class OneRowParquetSchema {
   private void writeOneRowParquetSchemaFile(final String terminalID,
                                             final Schema avroSchema,
                                             final String dirPath,
-                                            final String baseFileName)
+                                            final String baseFileName,
+                                            final long rowGroupSize)
         throws IOException
   {
     final Path schemaAsPrqPath = makeSchemaFilePathFromBaseFileName(inputFilePath, dirPath, baseFileName, parquetExtent);
     try (final ParquetWriter<GenericData.Record> prqWrt = makeParquetRecordWriter(avroSchema, schemaAsPrqPath,
-          ParquetFileWriter.Mode.OVERWRITE))
+          ParquetFileWriter.Mode.OVERWRITE, rowGroupSize))
     {
       writeOneRowParquetFile(terminalID, avroSchema, prqWrt);
     }
@@ -89,26 +161,22 @@ public class OneRowParquetSchema {
 
   private static ParquetWriter<GenericData.Record> makeParquetRecordWriter(final Schema avroSchema,
                                                                            final Path fileToWrite,
-                                                                           final ParquetFileWriter.Mode mode)
+                                                                           final ParquetFileWriter.Mode mode,
+                                                                           final long rowGroupSize)
         throws IOException
   {
-    final GenericData genericData = GenericData.get();
-    genericData.addLogicalTypeConversion(new TimeConversions.DateConversion());
-    genericData.addLogicalTypeConversion(new TimeConversions.TimestampConversion());
-    genericData.addLogicalTypeConversion(new TimeConversions.TimestampMicrosConversion());
-    genericData.addLogicalTypeConversion(new Conversions.DecimalConversion());
-    genericData.addLogicalTypeConversion(new Conversions.UUIDConversion());
+    final ConversionContext context = ConversionContext.get();
     return AvroParquetWriter
           .<GenericData.Record>builder(nioPathToOutputFile(fileToWrite))
           .withWriteMode(mode)
-          .withRowGroupSize(256 * 1024 * 1024)
+          .withRowGroupSize((int) rowGroupSize)
           .withPageSize(128 * 1024)
           .withSchema(avroSchema)
-          .withConf(new Configuration())
+          .withConf(context.newConfiguration())
           .withCompressionCodec(CompressionCodecName.GZIP)
           .withValidation(false)
           .withDictionaryEncoding(false)
-          .withDataModel(genericData)
+          .withDataModel(context.getGenericData())
           .build();
   }
 
@@ -0,0 +1,94 @@
+/* OutputPartsTest.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load;
+
+import com.tideworks.data_load.io.BatchedCsvWriter;
+import com.tideworks.data_load.io.RollingCsvWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class OutputPartsTest {
+  @Rule
+  public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private boolean isFull = false;
+
+  // an output stream whose writes fail, once the volume it is on is full
+  private final class FullableOutputStream extends FilterOutputStream {
+    private FullableOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[]{ (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (isFull) {
+        throw new IOException("No space left on device");
+      }
+      out.write(b, off, len);
+    }
+  }
+
+  private static List<String> fileNames(final Path dirPath) throws IOException {
+    try (final Stream<Path> paths = Files.list(dirPath)) {
+      return paths.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList());
+    }
+  }
+
+  private RollingCsvWriter writeRows(final OutputParts parts, final int segmentIndex, final int rowCount)
+        throws IOException
+  {
+    final RollingCsvWriter writer = new RollingCsvWriter(
+          parts.segmentParts(segmentIndex, out -> new BatchedCsvWriter(new FullableOutputStream(out))), 2, 0);
+    writer.writeRow("ID,NAME\n");
+    for(int id = 0; id < rowCount; id++) {
+      writer.writeRow(id + ",name-" + id + "\n");
+    }
+    return writer;
+  }
+
+  @Test
+  public void deletesPartOfFailedWriter() throws Exception {
+    final Path dirPath = tempFolder.newFolder("out").toPath();
+    final OutputParts parts = new OutputParts(dirPath, "terminals", ".csv", 2);
+    // the first segment's second part is left open, the second segment's complete part waits on it
+    final RollingCsvWriter firstWriter = writeRows(parts, 0, 3);
+    writeRows(parts, 1, 2).close();
+    parts.segmentCompleted(1);
+    assertEquals(Arrays.asList(".terminals.part-0-1.csv.tmp", ".terminals.part-1-0.csv.tmp",
+                               "terminals.part-00001.csv"), fileNames(dirPath));
+
+    isFull = true;
+    parts.abort();
+    try {
+      firstWriter.close();
+      fail("close succeeded despite the full volume");
+    } catch (IOException e) {
+      assertEquals("No space left on device", e.getMessage());
+    }
+    assertEquals(Collections.singletonList("terminals.part-00001.csv"), fileNames(dirPath));
+  }
+}
@@ -0,0 +1,205 @@
+/* WhereClauseTest.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load;
+
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators.BinaryColumn;
+import org.apache.parquet.filter2.predicate.Operators.BooleanColumn;
+import org.apache.parquet.filter2.predicate.Operators.DoubleColumn;
+import org.apache.parquet.filter2.predicate.Operators.IntColumn;
+import org.apache.parquet.filter2.predicate.Operators.LongColumn;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.Types;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+import static org.apache.parquet.filter2.predicate.FilterApi.and;
+import static org.apache.parquet.filter2.predicate.FilterApi.binaryColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.booleanColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.doubleColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.eq;
+import static org.apache.parquet.filter2.predicate.FilterApi.gt;
+import static org.apache.parquet.filter2.predicate.FilterApi.gtEq;
+import static org.apache.parquet.filter2.predicate.FilterApi.intColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.longColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.lt;
+import static org.apache.parquet.filter2.predicate.FilterApi.ltEq;
+import static org.apache.parquet.filter2.predicate.FilterApi.not;
+import static org.apache.parquet.filter2.predicate.FilterApi.notEq;
+import static org.apache.parquet.filter2.predicate.FilterApi.or;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.BINARY;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.BOOLEAN;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.DOUBLE;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT32;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WhereClauseTest {
+  private static final ZoneId zoneId = ZoneId.of("America/New_York");
+  private static final MessageType schema = Types.buildMessage()
+        .required(INT32).named("ID")
+        .optional(BINARY).as(OriginalType.UTF8).named("TERM_ID$")
+        .optional(INT64).named("SEQ")
+        .optional(DOUBLE).named("AMOUNT")
+        .optional(BOOLEAN).named("IS_ACTIVE")
+        .optional(INT32).as(OriginalType.DATE).named("CREATED_DATE$")
+        .optional(INT64).as(OriginalType.TIMESTAMP_MILLIS).named("UPDATED_TS")
+        .optional(BINARY).as(OriginalType.UTF8).named("Odd_Name")
+        .optional(BINARY).as(OriginalType.UTF8).named("odd_name")
+        .optional(BINARY).as(OriginalType.UTF8).named("Odd Name")
+        .optionalGroup()
+          .optional(BINARY).as(OriginalType.UTF8).named("CITY")
+          .named("ADDRESS")
+        .repeated(INT32).named("CODES")
+        .named("Row");
+
+  private static final IntColumn id = intColumn("ID");
+  private static final BinaryColumn termId = binaryColumn("TERM_ID$");
+  private static final LongColumn seq = longColumn("SEQ");
+  private static final DoubleColumn amount = doubleColumn("AMOUNT");
+  private static final BooleanColumn isActive = booleanColumn("IS_ACTIVE");
+
+  private static FilterPredicate bind(final String text) {
+    return WhereClause.parse(text).bind(schema, zoneId);
+  }
+
+  private static void assertInvalid(final String text, final String messagePart) {
+    try {
+      bind(text);
+      fail("no exception for where clause: " + text);
+    } catch (IllegalArgumentException e) {
+      assertTrue(String.format("message of \"%s\": %s", text, e.getMessage()), e.getMessage().contains(messagePart));
+    }
+  }
+
+  @Test
+  public void comparisonOperators() {
+    assertEquals(eq(id, 1), bind("ID = 1"));
+    assertEquals(eq(id, 1), bind("ID == 1"));
+    assertEquals(notEq(id, 1), bind("ID != 1"));
+    assertEquals(notEq(id, 1), bind("ID <> 1"));
+    assertEquals(lt(id, 1), bind("ID < 1"));
+    assertEquals(ltEq(id, 1), bind("ID <= 1"));
+    assertEquals(gt(id, -1), bind("ID > -1"));
+    assertEquals(gtEq(id, 1), bind("ID>=1"));
+    assertEquals(eq(seq, 12345678901L), bind("SEQ = 12345678901"));
+    assertEquals(lt(amount, 1.5e-3), bind("AMOUNT < 1.5E-3"));
+    assertEquals(eq(isActive, true), bind("IS_ACTIVE = true"));
+    assertEquals(notEq(isActive, false), bind("is_active != FALSE"));
+  }
+
+  @Test
+  public void nullComparisons() {
+    assertEquals(eq(termId, null), bind("TERM_ID$ IS NULL"));
+    assertEquals(notEq(termId, null), bind("term_id$ is not null"));
+    assertEquals(eq(seq, null), bind("SEQ Is Null"));
+  }
+
+  @Test
+  public void precedence() {
+    // AND binds tighter than OR
+    assertEquals(or(eq(id, 1), and(eq(id, 2), eq(seq, 3L))), bind("ID = 1 OR ID = 2 AND SEQ = 3"));
+    assertEquals(or(and(eq(id, 1), eq(id, 2)), eq(seq, 3L)), bind("ID = 1 AND ID = 2 OR SEQ = 3"));
+    // parentheses override it
+    assertEquals(and(or(eq(id, 1), eq(id, 2)), eq(seq, 3L)), bind("(ID = 1 OR ID = 2) AND SEQ = 3"));
+    // NOT binds tighter than AND
+    assertEquals(and(not(eq(id, 1)), eq(seq, 3L)), bind("NOT ID = 1 AND SEQ = 3"));
+    assertEquals(not(and(eq(id, 1), eq(seq, 3L))), bind("NOT (ID = 1 AND SEQ = 3)"));
+    assertEquals(not(not(eq(id, 1))), bind("not not ID = 1"));
+    // operators of the same precedence associate to the left
+    assertEquals(or(or(eq(id, 1), eq(id, 2)), eq(id, 3)), bind("ID = 1 or ID = 2 or ID = 3"));
+    assertEquals(and(and(eq(id, 1), eq(id, 2)), eq(id, 3)), bind("ID = 1 and ID = 2 and ID = 3"));
+    assertEquals(eq(id, 1), bind("((ID = 1))"));
+  }
+
+  @Test
+  public void quoting() {
+    assertEquals(eq(termId, Binary.fromString("T1")), bind("TERM_ID$ = 'T1'"));
+    // a doubled quote character stands for itself
+    assertEquals(eq(termId, Binary.fromString("O'Brien")), bind("TERM_ID$ = 'O''Brien'"));
+    assertEquals(eq(termId, Binary.fromString("")), bind("TERM_ID$ = ''"));
+    assertEquals(eq(termId, Binary.fromString("a and b or (c)")), bind("TERM_ID$ = 'a and b or (c)'"));
+    // a double-quoted column name - may contain spaces, and an exact match is preferred
+    assertEquals(eq(binaryColumn("Odd Name"), Binary.fromString("x")), bind("\"Odd Name\" = 'x'"));
+    assertEquals(eq(binaryColumn("odd_name"), Binary.fromString("x")), bind("\"odd_name\" = 'x'"));
+    assertEquals(eq(binaryColumn("Odd_Name"), Binary.fromString("x")), bind("Odd_Name = 'x'"));
+    assertEquals(eq(binaryColumn("Odd_Name"), Binary.fromString("x")), bind("ODD_NAME = 'x'"));
+    assertEquals(eq(termId, Binary.fromString("x")), bind("\"TERM_ID$\" = 'x'"));
+    // a column of a nested group, as a dotted path
+    assertEquals(eq(binaryColumn("ADDRESS.CITY"), Binary.fromString("Tacoma")), bind("address.city = 'Tacoma'"));
+  }
+
+  @Test
+  public void dateAndTimestampLiterals() {
+    final IntColumn createdDate = intColumn("CREATED_DATE$");
+    final LongColumn updatedTs = longColumn("UPDATED_TS");
+    assertEquals(gtEq(createdDate, (int) LocalDate.of(2018, 6, 1).toEpochDay()),
+                 bind("CREATED_DATE$ >= '2018-06-01'"));
+    assertEquals(lt(updatedTs, OffsetDateTime.parse("2018-06-01T12:30:00-04:00").toInstant().toEpochMilli()),
+                 bind("UPDATED_TS < '2018-06-01 12:30:00'"));
+    assertEquals(lt(updatedTs, OffsetDateTime.parse("2018-06-01T00:00:00-04:00").toInstant().toEpochMilli()),
+                 bind("UPDATED_TS < '2018-06-01'"));
+    assertEquals(eq(updatedTs, 0L), bind("UPDATED_TS = '1970-01-01T00:00Z'"));
+  }
+
+  @Test
+  public void fieldNames() {
+    assertEquals(Arrays.asList("TERM_ID$", "ID", "address"),
+                 WhereClause.parse("TERM_ID$ = 'T1' and (ID > 1 or term_id$ is null or address.city = 'x' " +
+                                   "or ADDRESS.CITY is null)").getFieldNames());
+  }
+
+  @Test
+  public void unknownColumns() {
+    assertInvalid("NO_SUCH_COLUMN = 1", "where clause column \"NO_SUCH_COLUMN\" is not in schema");
+    assertInvalid("ID = 1 or \"ID \" = 1", "\"ID \" is not in schema");
+    assertInvalid("ADDRESS = 'x'", "\"ADDRESS\" is not in schema"); // a group, not a column
+    assertInvalid("CODES = 1", "\"CODES\" is a repeated field");
+  }
+
+  @Test
+  public void incomparableLiterals() {
+    assertInvalid("ID = 'one'", "can't be compared to one");
+    assertInvalid("ID = 99999999999", "literal 99999999999 is not a valid value of column \"ID\"");
+    assertInvalid("ID = 1.5", "literal 1.5 is not a valid value");
+    assertInvalid("IS_ACTIVE = 1", "can't be compared to 1");
+    assertInvalid("IS_ACTIVE < true", "can't be compared with '<'");
+    assertInvalid("CREATED_DATE$ = '2018-13-01'", "is not a valid value of column \"CREATED_DATE$\"");
+    assertInvalid("TERM_ID$ = 1", "can't be compared to 1");
+  }
+
+  @Test
+  public void malformedClauses() {
+    assertInvalid("", "offset 0: expected column name");
+    assertInvalid("   ", "offset 3: expected column name");
+    assertInvalid("ID", "offset 2: expected comparison operator");
+    assertInvalid("ID =", "offset 4: expected literal value");
+    assertInvalid("ID = SEQ", "offset 5: expected literal value");
+    assertInvalid("ID = 1 AND", "offset 10: expected column name");
+    // keywords aren't reserved - the second OR is taken to be a column name
+    assertInvalid("ID = 1 OR OR ID = 2", "offset 13: expected comparison operator");
+    assertInvalid("(ID = 1", "offset 7: expected ')'");
+    assertInvalid("ID = 1)", "offset 6: unexpected ')'");
+    assertInvalid("ID = 1 ID = 2", "offset 7: unexpected 'ID'");
+    assertInvalid("ID IS 1", "offset 6: expected NULL");
+    assertInvalid("ID IS NOT", "offset 9: expected NULL");
+    assertInvalid("ID ! 1", "offset 3: '!'");
+    assertInvalid("ID # 1", "offset 3: '#'");
+    assertInvalid("TERM_ID$ = 'T1", "offset 11: unterminated quoted text");
+    assertInvalid("\"TERM_ID$ = 'T1'", "offset 0: unterminated quoted text");
+    assertInvalid("= 1", "offset 0: expected column name");
+    assertInvalid("'T1' = TERM_ID$", "offset 0: expected column name");
+  }
+}
@@ -0,0 +1,140 @@
+/* Iso8601TimestampFormatterTest.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.csv;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Differential test of {@link Iso8601TimestampFormatter} against {@link TimestampISO8601Format},
+ * whose text it is to reproduce byte for byte.
+ */
+public class Iso8601TimestampFormatterTest {
+  private static final ZoneId UTC = ZoneId.of("UTC");
+  private static final ZoneId NEW_YORK = ZoneId.of("America/New_York"); // DST; LMT of -04:56:02 until 1883
+  private static final ZoneId MONROVIA = ZoneId.of("Africa/Monrovia");  // LMT, then -00:44:30 until 1972
+  private static final ZoneId[] zones = { UTC, NEW_YORK, MONROVIA, ZoneOffset.ofHoursMinutes(5, 30) };
+
+  private static final long MILLIS_PER_DAY = 86400L * 1000;
+
+  private static long epochMillis(final int year, final int month, final int day, final int hour, final int minute,
+                                  final int second) {
+    return LocalDateTime.of(year, month, day, hour, minute, second).toInstant(ZoneOffset.UTC).toEpochMilli();
+  }
+
+  private static void assertSameText(final ZoneId zone, final Iso8601TimestampFormatter formatter,
+                                     final long epochMillis) {
+    final String expected = new TimestampISO8601Format(zone).format(new Date(epochMillis));
+    final String actual = formatter.format(epochMillis, new StringBuilder()).toString();
+    assertEquals("epoch millis " + epochMillis + " in " + zone, expected, actual);
+  }
+
+  // each value formatted by a fresh formatter, and by one formatter in turn - whose cached offset
+  // window is then moved about by the values that precede
+  private static void assertSameText(final ZoneId zone, final List<Long> values) {
+    final Iso8601TimestampFormatter shared = new Iso8601TimestampFormatter(zone);
+    for(final long epochMillis : values) {
+      assertSameText(zone, new Iso8601TimestampFormatter(zone), epochMillis);
+      assertSameText(zone, shared, epochMillis);
+    }
+  }
+
+  // the instants, each then 1 ms before and after it - so the offset window cached upon a value that
+  // is exactly at a transition is checked on either side of its start
+  private static List<Long> aroundEach(final long... instants) {
+    final List<Long> values = new ArrayList<>();
+    for(final long instant : instants) {
+      values.add(instant);
+      values.add(instant - 1);
+      values.add(instant);
+      values.add(instant + 1);
+    }
+    return values;
+  }
+
+  @Test
+  public void offsetTransitions() {
+    for(final ZoneId zone : zones) {
+      final ZoneRules rules = zone.getRules();
+      final List<Long> values = new ArrayList<>();
+      for(final ZoneOffsetTransition transition : rules.getTransitions()) {
+        final long instant = transition.toEpochSecond() * 1000;
+        values.addAll(aroundEach(instant));
+      }
+      // the transitions of the rules that apply from the last listed transition on
+      ZoneOffsetTransition next = rules.nextTransition(Instant.ofEpochMilli(epochMillis(2030, 1, 1, 0, 0, 0)));
+      for(int i = 0; next != null && i < 8; i++) {
+        values.addAll(aroundEach(next.toEpochSecond() * 1000));
+        next = rules.nextTransition(next.getInstant());
+      }
+      assertSameText(zone, values);
+      // and again in reverse, so the cached window is left behind going back in time
+      final List<Long> reversed = new ArrayList<>(values);
+      Collections.reverse(reversed);
+      assertSameText(zone, reversed);
+    }
+  }
+
+  @Test
+  public void wholeSecondsAndMinutes() {
+    final long base = epochMillis(2018, 6, 1, 12, 0, 0);
+    for(final ZoneId zone : zones) {
+      // zero seconds and millis are left out of the text, zero millis alone too
+      assertSameText(zone, aroundEach(base, base + 1000, base + 59 * 1000, base + 60 * 1000, base + 10,
+                                      base + 100, base + 999));
+    }
+  }
+
+  @Test
+  public void negativeEpochMillis() {
+    for(final ZoneId zone : zones) {
+      assertSameText(zone, aroundEach(0L, -1000L, -MILLIS_PER_DAY, epochMillis(1969, 12, 31, 23, 59, 59),
+                                      epochMillis(1900, 2, 28, 0, 0, 0), epochMillis(1883, 11, 18, 17, 0, 0)));
+    }
+  }
+
+  @Test
+  public void yearsOfOtherThanFourDigits() {
+    for(final ZoneId zone : zones) {
+      assertSameText(zone, aroundEach(epochMillis(999, 12, 31, 23, 59, 59), epochMillis(1000, 1, 1, 0, 0, 0),
+                                      epochMillis(1, 1, 1, 0, 0, 0), epochMillis(0, 1, 1, 0, 0, 0),
+                                      epochMillis(-1, 3, 1, 0, 0, 0), epochMillis(-996, 2, 29, 0, 0, 0),
+                                      epochMillis(-1000, 1, 1, 0, 0, 0), epochMillis(-12345, 6, 15, 8, 30, 0),
+                                      epochMillis(9999, 12, 31, 23, 59, 59), epochMillis(10000, 1, 1, 0, 0, 0),
+                                      epochMillis(123456, 7, 4, 0, 0, 0)));
+    }
+  }
+
+  @Test
+  public void randomInstants() {
+    final Random random = new Random(20181031L);
+    final long min = epochMillis(1800, 1, 1, 0, 0, 0);
+    final long max = epochMillis(2200, 1, 1, 0, 0, 0);
+    for(final ZoneId zone : zones) {
+      final List<Long> values = new ArrayList<>();
+      for(int i = 0; i < 20000; i++) {
+        final long epochMillis = min + (long) (random.nextDouble() * (max - min));
+        // every so often, a value of whole seconds, or of whole minutes
+        values.add(i % 3 == 0 ? epochMillis / 1000 * 1000 : i % 5 == 0 ? epochMillis / 60000 * 60000 : epochMillis);
+      }
+      assertSameText(zone, values);
+    }
+  }
+}
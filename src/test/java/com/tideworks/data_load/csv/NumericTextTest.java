@@ -0,0 +1,167 @@
+/* NumericTextTest.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.csv;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link NumericText} against the text of {@link Double#toString(double)} and
+ * {@link Float#toString(float)}, as laid out by {@link BigDecimal#toString()}.
+ */
+public class NumericTextTest {
+
+  // the digits of the Java text, less trailing zeros, laid out as BigDecimal does for a non-negative scale
+  private static String expectedText(final String javaText) {
+    BigDecimal value = new BigDecimal(javaText);
+    if (value.signum() == 0) {
+      return "0";
+    }
+    value = value.stripTrailingZeros();
+    return (value.scale() < 0 ? value.setScale(0) : value).toString();
+  }
+
+  private static void assertDouble(final double value) {
+    final StringBuilder strBuf = new StringBuilder("x,");
+    NumericText.appendDouble(value, strBuf);
+    final String text = strBuf.substring(2);
+    assertEquals("text of " + value, expectedText(Double.toString(value)), text);
+    assertEquals("round trip of " + value, value, Double.parseDouble(text), 0.0);
+  }
+
+  private static void assertFloat(final float value) {
+    final StringBuilder strBuf = new StringBuilder("x,");
+    NumericText.appendFloat(value, strBuf);
+    final String text = strBuf.substring(2);
+    assertEquals("text of " + value, expectedText(Float.toString(value)), text);
+    assertEquals("round trip of " + value, value, Float.parseFloat(text), 0.0f);
+  }
+
+  private static List<Double> edgeDoubles() {
+    final List<Double> values = new ArrayList<>();
+    values.add(0.0);
+    values.add(1.0);
+    values.add(0.1);
+    values.add(1.0 / 3);
+    values.add(2.0E-3); // Double.toString() gives 0.0020 (JDK-4511638)
+    values.add(1.0E23);
+    values.add(9007199254740993.0);
+    values.add(Double.MIN_VALUE); // smallest subnormal
+    values.add(Math.nextUp(Double.MIN_VALUE));
+    values.add(Math.nextDown(Double.MIN_NORMAL)); // largest subnormal
+    values.add(Double.MIN_NORMAL);
+    values.add(Double.MAX_VALUE);
+    values.add((double) Long.MAX_VALUE);
+    for(int exponent = -324; exponent <= 308; exponent++) {
+      final double powerOfTen = Double.parseDouble("1E" + exponent);
+      values.add(powerOfTen);
+      values.add(Math.nextUp(powerOfTen));
+      values.add(Math.nextDown(powerOfTen));
+      values.add(1.5 * powerOfTen);
+    }
+    return values;
+  }
+
+  private static List<Float> edgeFloats() {
+    final List<Float> values = new ArrayList<>();
+    values.add(0.0f);
+    values.add(1.0f);
+    values.add(0.1f);
+    values.add(1.0f / 3);
+    values.add(2.0E-3f);
+    values.add(16777217.0f);
+    values.add(Float.MIN_VALUE); // smallest subnormal
+    values.add(Math.nextUp(Float.MIN_VALUE));
+    values.add(Math.nextDown(Float.MIN_NORMAL)); // largest subnormal
+    values.add(Float.MIN_NORMAL);
+    values.add(Float.MAX_VALUE);
+    for(int exponent = -45; exponent <= 38; exponent++) {
+      final float powerOfTen = Float.parseFloat("1E" + exponent);
+      values.add(powerOfTen);
+      values.add(Math.nextUp(powerOfTen));
+      values.add(Math.nextDown(powerOfTen));
+      values.add(1.5f * powerOfTen);
+    }
+    return values;
+  }
+
+  @Test
+  public void edgeDoubleValues() {
+    for(final double value : edgeDoubles()) {
+      assertDouble(value);
+      assertDouble(-value);
+    }
+  }
+
+  @Test
+  public void edgeFloatValues() {
+    for(final float value : edgeFloats()) {
+      assertFloat(value);
+      assertFloat(-value);
+    }
+  }
+
+  @Test
+  public void negativeZeroIsZero() {
+    final StringBuilder strBuf = new StringBuilder();
+    NumericText.appendDouble(-0.0, strBuf);
+    NumericText.appendFloat(-0.0f, strBuf.append(','));
+    assertEquals("0,0", strBuf.toString());
+  }
+
+  @Test
+  public void randomValues() {
+    final Random random = new Random(20181031L);
+    for(int i = 0; i < 200000; i++) {
+      final double doubleValue = Double.longBitsToDouble(random.nextLong());
+      if (Double.isFinite(doubleValue)) {
+        assertDouble(doubleValue);
+      }
+      final float floatValue = Float.intBitsToFloat(random.nextInt());
+      if (Float.isFinite(floatValue)) {
+        assertFloat(floatValue);
+      }
+    }
+  }
+
+  @Test
+  public void nonFiniteValuesFail() {
+    for(final double value : new double[] { Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY }) {
+      try {
+        NumericText.appendDouble(value, new StringBuilder());
+        fail("no exception for " + value);
+      } catch (NumberFormatException expected) {
+        // as new BigDecimal(value)
+      }
+      try {
+        NumericText.appendFloat((float) value, new StringBuilder());
+        fail("no exception for " + value);
+      } catch (NumberFormatException expected) {
+        // as new BigDecimal(value)
+      }
+    }
+  }
+
+  @Test
+  public void decimalValues() {
+    final long[] unscaledValues = { 0, 1, -1, 7, 10, -10, 123456789, 1000000, Long.MAX_VALUE, Long.MIN_VALUE };
+    for(final long unscaled : unscaledValues) {
+      for(int scale = 0; scale <= 25; scale++) {
+        final StringBuilder strBuf = new StringBuilder("x,");
+        NumericText.appendDecimal(unscaled, scale, strBuf);
+        assertEquals(BigDecimal.valueOf(unscaled, scale).toString(), strBuf.substring(2));
+      }
+    }
+  }
+}
@@ -0,0 +1,303 @@
+/* ParallelGzipOutputStreamTest.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import com.tideworks.data_load.util.ConversionContext;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelGzipOutputStreamTest {
+  private static final int blockSize = 1000;
+  private static final int FINISH = -1;
+
+  private enum Flushing { NEVER, EVERY_WRITE, RANDOMLY }
+
+  // bytes that compress somewhat, as csv text does
+  private static byte[] input(final int length, final Random random) {
+    final byte[] bytes = new byte[length];
+    for(int i = 0; i < length; i++) {
+      bytes[i] = (byte) (random.nextInt(8) == 0 ? ',' : 'a' + random.nextInt(16));
+    }
+    return bytes;
+  }
+
+  // write lengths - of up to three blocks, or none - with finishes (FINISH) in between
+  private static int[] writes(final Random random) {
+    final int[] writes = new int[200];
+    for(int i = 0; i < writes.length; i++) {
+      writes[i] = random.nextInt(12) == 0 ? FINISH : random.nextInt(3 * blockSize + 1);
+    }
+    return writes;
+  }
+
+  // the number of gzip members that the writes make: one per full block, and one per partial block finished
+  private static int expectedMembers(final int[] writes) {
+    int members = 0;
+    int count = 0;
+    for(final int write : writes) {
+      if (write == FINISH) {
+        members += count > 0 ? 1 : 0;
+        count = 0;
+      } else {
+        count += write;
+        members += count / blockSize;
+        count %= blockSize;
+      }
+    }
+    return members + (count > 0 ? 1 : 0);
+  }
+
+  private static byte[] gzip(final byte[] input, final int[] writes, final Flushing flushing,
+                             final ExecutorService executor, final long seed) throws IOException
+  {
+    final Random random = new Random(seed);
+    final ByteArrayOutputStream gzipBytes = new ByteArrayOutputStream();
+    try (final ParallelGzipOutputStream gzipOut = new ParallelGzipOutputStream(gzipBytes, executor, blockSize, 3)) {
+      int off = 0;
+      for(final int write : writes) {
+        if (write == FINISH) {
+          gzipOut.finish();
+          continue;
+        }
+        if (write < 16) {
+          for(int i = 0; i < write; i++) {
+            gzipOut.write(input[off + i]);
+          }
+        } else {
+          gzipOut.write(input, off, write);
+        }
+        off += write;
+        if (flushing == Flushing.EVERY_WRITE || (flushing == Flushing.RANDOMLY && random.nextInt(3) == 0)) {
+          gzipOut.flush();
+        }
+      }
+    }
+    return gzipBytes.toByteArray();
+  }
+
+  private static byte[] gunzip(final byte[] gzipBytes) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    if (gzipBytes.length > 0) {
+      try (final InputStream gzipIn = new GZIPInputStream(new ByteArrayInputStream(gzipBytes))) {
+        final byte[] buf = new byte[8192];
+        int n;
+        while ((n = gzipIn.read(buf)) > 0) {
+          bytes.write(buf, 0, n);
+        }
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  // the number of gzip members of the bytes - each a bare 10 byte header (as GZIPOutputStream writes),
+  // the deflated data and an 8 byte trailer
+  private static int countMembers(final byte[] gzipBytes) throws DataFormatException {
+    final byte[] sink = new byte[8192];
+    int members = 0;
+    int pos = 0;
+    while (pos < gzipBytes.length) {
+      assertEquals(0x1f, gzipBytes[pos] & 0xff);
+      assertEquals(0x8b, gzipBytes[pos + 1] & 0xff);
+      assertEquals(0, gzipBytes[pos + 3]); // no optional header fields
+      final Inflater inflater = new Inflater(true);
+      try {
+        inflater.setInput(gzipBytes, pos + 10, gzipBytes.length - pos - 10);
+        while (!inflater.finished()) {
+          if (inflater.inflate(sink) == 0 && inflater.needsInput()) {
+            fail("truncated gzip member at " + pos);
+          }
+        }
+        pos = gzipBytes.length - inflater.getRemaining() + 8;
+      } finally {
+        inflater.end();
+      }
+      members++;
+    }
+    assertEquals(gzipBytes.length, pos);
+    return members;
+  }
+
+  @Test(timeout = 60_000)
+  public void membersDontDependOnFlushing() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for(long seed = 1; seed <= 20; seed++) {
+        final Random random = new Random(seed);
+        final int[] writes = writes(random);
+        final byte[] input = input(Arrays.stream(writes).filter(write -> write > 0).sum(), random);
+        final int expectedMembers = expectedMembers(writes);
+        for(final Flushing flushing : Flushing.values()) {
+          final byte[] gzipBytes = gzip(input, writes, flushing, executor, seed);
+          final String what = "seed " + seed + ", flushing " + flushing;
+          assertArrayEquals(what, input, gunzip(gzipBytes));
+          assertEquals(what, expectedMembers, countMembers(gzipBytes));
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test(timeout = 60_000)
+  public void writesNothingForEmptyInput() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final int[] writes = { 0, FINISH, 0, FINISH };
+      for(final Flushing flushing : Flushing.values()) {
+        assertEquals(0, gzip(new byte[0], writes, flushing, executor, 1).length);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Runs the compression of the blocks only when told to (on the calling thread) -
+   * the task of the given index fails (having compressed its block, as a compression
+   * that fails does). A stream that waits on a block not yet run would wait forever,
+   * hence the timeouts of the tests.
+   */
+  private static final class ManualExecutor extends AbstractExecutorService {
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private final int failingTask;
+    private int submittedCount = 0;
+    private boolean isRunningDirectly = false;
+
+    private ManualExecutor(int failingTask) {
+      this.failingTask = failingTask;
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(final Callable<T> callable) {
+      if (submittedCount++ != failingTask) {
+        return new FutureTask<>(callable);
+      }
+      return new FutureTask<>(() -> {
+        callable.call();
+        throw new IOException("injected compression failure");
+      });
+    }
+
+    private void runTasks(final int taskCount) {
+      for(int i = 0; i < taskCount; i++) {
+        tasks.remove().run();
+      }
+    }
+
+    // runs the tasks submitted so far, and from now on runs each task as it is submitted
+    private void runDirectly() {
+      runTasks(tasks.size());
+      isRunningDirectly = true;
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+      if (isRunningDirectly) {
+        task.run();
+      } else {
+        tasks.add(task);
+      }
+    }
+
+    @Override
+    public void shutdown() {}
+
+    @Override
+    public List<Runnable> shutdownNow() { return new ArrayList<>(tasks); }
+
+    @Override
+    public boolean isShutdown() { return false; }
+
+    @Override
+    public boolean isTerminated() { return false; }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) { return true; }
+  }
+
+  private static final class ClosingOutputStream extends ByteArrayOutputStream {
+    private boolean isClosed = false;
+
+    @Override
+    public void close() { isClosed = true; }
+  }
+
+  @Test(timeout = 60_000)
+  public void flushWritesOnlyCompressedBlocks() throws Exception {
+    final Random random = new Random(7);
+    final byte[] input = input(2 * blockSize + blockSize / 2, random);
+    final ManualExecutor executor = new ManualExecutor(-1);
+    final ByteArrayOutputStream gzipBytes = new ByteArrayOutputStream();
+    try (final ParallelGzipOutputStream gzipOut = new ParallelGzipOutputStream(gzipBytes, executor, blockSize, 8)) {
+      gzipOut.write(input);
+      gzipOut.flush();
+      assertEquals(0, gzipBytes.size()); // neither block is compressed yet
+
+      executor.runTasks(1);
+      gzipOut.flush();
+      assertEquals(1, countMembers(gzipBytes.toByteArray()));
+      assertArrayEquals(Arrays.copyOf(input, blockSize), gunzip(gzipBytes.toByteArray()));
+
+      executor.runTasks(1);
+      gzipOut.flush();
+      assertEquals(2, countMembers(gzipBytes.toByteArray())); // the partial block is left to be filled
+
+      executor.runDirectly();
+      gzipOut.finish();
+      assertEquals(3, countMembers(gzipBytes.toByteArray()));
+    }
+    assertArrayEquals(input, gunzip(gzipBytes.toByteArray()));
+  }
+
+  @Test(timeout = 60_000)
+  public void releasesBlocksWhenCompressionFails() throws Exception {
+    final BufferPool bufferPool = ConversionContext.get().getBufferPool();
+    final long inUseBytes = bufferPool.getInUseBytes();
+    final Random random = new Random(11);
+    final byte[] input = input(10 * blockSize + blockSize / 2, random);
+    final ManualExecutor executor = new ManualExecutor(3);
+    final ClosingOutputStream gzipBytes = new ClosingOutputStream();
+    final ParallelGzipOutputStream gzipOut = new ParallelGzipOutputStream(gzipBytes, executor, blockSize, 100);
+    gzipOut.write(input);
+    executor.runTasks(4); // the fourth block's compression fails - the blocks after it are never started
+    try {
+      gzipOut.close();
+      fail("close succeeded despite the failed compression");
+    } catch (IOException e) {
+      assertEquals("injected compression failure", e.getMessage());
+    }
+    assertTrue(gzipBytes.isClosed);
+    // the blocks compressed before the failed one were written
+    assertArrayEquals(Arrays.copyOf(input, 3 * blockSize), gunzip(gzipBytes.toByteArray()));
+    // and every block leased of the pool is back - those never compressed by being cancelled
+    assertEquals(inUseBytes, bufferPool.getInUseBytes());
+  }
+}
@@ -0,0 +1,163 @@
+/* PrefetcherTest.java
+ *
+ * Copyright October 2026 Tideworks Technology
+ * Author: Roger D. Voss
+ * MIT License
+ */
+package com.tideworks.data_load.io;
+
+import com.tideworks.data_load.util.ConversionContext;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.avro.AvroParquetWriter;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.api.Binary;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.tideworks.data_load.io.OutputFile.nioPathToOutputFile;
+import static org.apache.parquet.filter2.predicate.FilterApi.binaryColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.eq;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PrefetcherTest {
+  private static final int rowCount = 40_000;
+  private static final int markedRowCount = 200; // of the first and the last rows
+
+  @Rule
+  public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  // a file of several row groups, whose TERM_ID$ column is dictionary encoded - the value "M" is only in the
+  // first and last rows, so the dictionary filter drops the row groups in between (their statistics can't)
+  private Path writeFile() throws IOException {
+    final Path file = tempFolder.newFile("terminals.parquet").toPath();
+    final Schema schema = SchemaBuilder.record("terminals").fields()
+          .requiredLong("ID")
+          .requiredString("TERM_ID$")
+          .requiredString("NOTE")
+          .endRecord();
+    final Random random = new Random(20181001L);
+    try (final ParquetWriter<GenericData.Record> writer = AvroParquetWriter
+          .<GenericData.Record>builder(nioPathToOutputFile(file))
+          .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+          .withRowGroupSize(64 * 1024)
+          .withPageSize(8 * 1024)
+          .withSchema(schema)
+          .withConf(ConversionContext.get().newConfiguration())
+          .withCompressionCodec(CompressionCodecName.UNCOMPRESSED)
+          .build())
+    {
+      for(int id = 0; id < rowCount; id++) {
+        final boolean isMarked = id < markedRowCount || id >= rowCount - markedRowCount;
+        final GenericData.Record record = new GenericData.Record(schema);
+        record.put("ID", (long) id);
+        record.put("TERM_ID$", isMarked && id % 2 == 0 ? "M" : (random.nextBoolean() ? "A" : "Z"));
+        record.put("NOTE", Long.toString(random.nextLong() >>> 16, 36));
+        writer.write(record);
+      }
+    }
+    return file;
+  }
+
+  private static ParquetReadOptions filteredReadOptions() {
+    return ConversionContext.get().newReadOptions()
+          .withRecordFilter(FilterCompat.get(eq(binaryColumn("TERM_ID$"), Binary.fromString("M"))))
+          .build();
+  }
+
+  private static void awaitUsedBytes(final Prefetcher prefetcher, final long bytes) throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + 10_000;
+    while (prefetcher.getUsedBytes() != bytes && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(bytes, prefetcher.getUsedBytes());
+  }
+
+  @Test
+  public void servesRowGroupsOfFilteredReaderFromReadAhead() throws Exception {
+    final Path file = writeFile();
+    final List<BlockMetaData> allRowGroups;
+    try (final ParquetFileReader reader = new ParquetFileReader(InputFile.nioPathToInputFile(file),
+                                                                ConversionContext.get().newReadOptions().build()))
+    {
+      allRowGroups = reader.getRowGroups();
+    }
+    assertTrue("row groups: " + allRowGroups.size(), allRowGroups.size() >= 4);
+
+    // every row group is read ahead, as their statistics don't rule them out
+    final List<long[]> ranges = new ArrayList<>();
+    long rangeBytes = 0;
+    for(final BlockMetaData rowGroup : allRowGroups) {
+      ranges.add(new long[]{ rowGroup.getStartingPos(), rowGroup.getStartingPos() + rowGroup.getCompressedSize() });
+      rangeBytes += rowGroup.getCompressedSize();
+    }
+    final Prefetcher prefetcher = new Prefetcher(64L * 1024 * 1024);
+    try (final ParquetFileReader reader = new ParquetFileReader(prefetcher.nioPathToInputFile(file, ranges),
+                                                                filteredReadOptions()))
+    {
+      // opening the reader has read the dictionary pages of every row group
+      final List<BlockMetaData> readRowGroups = reader.getRowGroups();
+      assertTrue("read row groups: " + readRowGroups.size(),
+                 readRowGroups.size() >= 2 && readRowGroups.size() < allRowGroups.size());
+      awaitUsedBytes(prefetcher, rangeBytes);
+
+      final long servedBeforeBytes = prefetcher.getServedBytes();
+      long readBytes = 0;
+      long rows = 0;
+      PageReadStore rowGroup;
+      while ((rowGroup = reader.readNextRowGroup()) != null) {
+        rows += rowGroup.getRowCount();
+      }
+      for(final BlockMetaData readRowGroup : readRowGroups) {
+        readBytes += readRowGroup.getCompressedSize();
+      }
+      assertTrue(rows > 0);
+      assertEquals(readBytes, prefetcher.getServedBytes() - servedBeforeBytes);
+      // the blocks of the dropped row groups are released along with those read after them
+      assertEquals(0, prefetcher.getUsedBytes());
+    }
+    assertEquals(0, prefetcher.getUsedBytes());
+  }
+
+  @Test
+  public void releasesBlocksReadOnDemand() throws Exception {
+    final Path file = writeFile();
+    final List<long[]> ranges = new ArrayList<>();
+    try (final ParquetFileReader reader = new ParquetFileReader(InputFile.nioPathToInputFile(file),
+                                                                ConversionContext.get().newReadOptions().build()))
+    {
+      for(final BlockMetaData rowGroup : reader.getRowGroups()) {
+        ranges.add(new long[]{ rowGroup.getStartingPos(), rowGroup.getStartingPos() + rowGroup.getCompressedSize() });
+      }
+    }
+    // a budget of one small block - the reader overtakes the read ahead, reading the file itself
+    final Prefetcher prefetcher = new Prefetcher(4096);
+    try (final ParquetFileReader reader = new ParquetFileReader(prefetcher.nioPathToInputFile(file, ranges),
+                                                                filteredReadOptions()))
+    {
+      long rows = 0;
+      PageReadStore rowGroup;
+      while ((rowGroup = reader.readNextRowGroup()) != null) {
+        rows += rowGroup.getRowCount();
+      }
+      assertTrue(rows > 0);
+    }
+    assertEquals(0, prefetcher.getUsedBytes());
+  }
+}